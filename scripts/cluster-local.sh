@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Starts a cluster of several nodes on this machine and keeps it running until interrupted.
+# Node i listens on BASE_PORT + i and works in target/cluster/node-i, where its log, balance
+# snapshot, audit journal and archive live. The first node starts alone so that it creates or
+# updates the schema before the others connect.
+#
+# Usage: scripts/cluster-local.sh [nodes]
+# The database comes from SPRING_DATASOURCE_* as for the application (by default the Postgres of
+# docker-compose.yml); all nodes share it. SKIP_BUILD=1 reuses the packaged jar, EXTRA_CLASSPATH adds
+# jars such as another JDBC driver and APP_ARGS adds application arguments to every node.
+set -euo pipefail
+
+NODES=${1:-3}
+BASE_PORT=${BASE_PORT:-8081}
+JAVA=${JAVA:-java}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$ROOT/target/cluster
+MAIN=org.springframework.boot.loader.launch.JarLauncher
+read -r -a APP_ARGS <<< "${APP_ARGS:-}"
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    mkdir -p "$ROOT/target"
+    (cd "$ROOT" && ${MVN:-mvn} -B -DskipTests package > target/cluster-build.log 2>&1) \
+        || { tail -50 "$ROOT/target/cluster-build.log"; exit 1; }
+fi
+JAR=$(ls "$ROOT"/target/order-management-application-*.jar | grep -v original | head -1)
+CLASSPATH=$JAR${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}
+
+URLS=()
+for i in $(seq 0 $((NODES - 1))); do
+    URLS+=("http://localhost:$((BASE_PORT + i))")
+done
+CLUSTER_NODES=$(IFS=,; echo "${URLS[*]}")
+
+PIDS=()
+stop() {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2> /dev/null || true
+    done
+    wait 2> /dev/null || true
+}
+trap stop EXIT
+trap 'exit 130' INT TERM
+
+start() {
+    local i=$1
+    mkdir -p "$WORK/node-$i"
+    (cd "$WORK/node-$i" && exec "$JAVA" -cp "$CLASSPATH" "$MAIN" \
+        --server.port=$((BASE_PORT + i)) \
+        --order.engine=sequencer \
+        --cluster.enabled=true \
+        --cluster.nodes="$CLUSTER_NODES" \
+        --cluster.node-index="$i" \
+        "${APP_ARGS[@]}" > "$WORK/node-$i/node.log" 2>&1) &
+    PIDS+=($!)
+}
+
+await() {
+    local i=$1
+    until curl -sf -o /dev/null "${URLS[$i]}/actuator/health"; do
+        if ! kill -0 "${PIDS[$i]}" 2> /dev/null; then
+            echo "node $i did not start, see $WORK/node-$i/node.log" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+    echo "node $i ready at ${URLS[$i]}"
+}
+
+start 0
+await 0
+for i in $(seq 1 $((NODES - 1))); do
+    start "$i"
+done
+for i in $(seq 1 $((NODES - 1))); do
+    await "$i"
+done
+
+echo "cluster of $NODES nodes is running, press Ctrl+C to stop it"
+wait
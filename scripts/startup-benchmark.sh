@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Builds the fast-startup profile and compares how soon a new instance serves traffic in three
+# run modes of the same build:
+#   jar      java -jar style launch of the executable jar
+#   cds      extracted jar with an AppCDS archive recorded by a training run
+#   cds-aot  extracted jar with its own AppCDS archive and the Spring AOT bean definitions
+# Each run reports the JVM uptime logged when the application is started, the wall time until the
+# first 200 from /actuator/health and the latency of the first and second GET /api/clients.
+#
+# Usage: scripts/startup-benchmark.sh [runs-per-mode]
+# The database comes from SPRING_DATASOURCE_* as for the application (by default the Postgres of
+# docker-compose.yml); EXTRA_CLASSPATH adds jars such as another JDBC driver and APP_ARGS adds
+# application arguments to every launch, training runs included.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-8080}
+JAVA=${JAVA:-java}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$ROOT/target/fast-startup
+MAIN=com.lukianchykov.ordermanagementapplication.OrderManagementApplication
+read -r -a APP_ARGS <<< "${APP_ARGS:-}"
+
+mkdir -p "$ROOT/target"
+(cd "$ROOT" && ${MVN:-mvn} -B -Pfast-startup -DskipTests package > target/fast-startup-build.log 2>&1) \
+    || { tail -50 "$ROOT/target/fast-startup-build.log"; exit 1; }
+JAR=$(ls "$ROOT"/target/order-management-application-*.jar | grep -v original | head -1)
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$WORK/application" > /dev/null
+APP_CLASSPATH=$WORK/application/$(basename "$JAR")${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}
+JAR_CLASSPATH=$JAR${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}
+
+# Training runs refresh the context and exit; the archive holds every class loaded on the way.
+# AOT mode loads generated classes instead of parsing configuration, so it gets its own archive.
+cd "$WORK"
+"$JAVA" -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+    -cp "$APP_CLASSPATH" "$MAIN" "${APP_ARGS[@]}" > training.log 2>&1
+"$JAVA" -XX:ArchiveClassesAtExit=app-aot.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -cp "$APP_CLASSPATH" "$MAIN" "${APP_ARGS[@]}" > training-aot.log 2>&1
+rm -rf data
+
+measure() {
+    local mode=$1 run=$2
+    shift 2
+    local log=$WORK/$mode-$run.log
+    local start
+    start=$(date +%s%N)
+    "$JAVA" "$@" "${APP_ARGS[@]}" --server.port="$PORT" > "$log" 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$mode did not start, see $log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    local ready=$(( ($(date +%s%N) - start) / 1000000 ))
+    local first second uptime
+    first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/api/clients")
+    second=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/api/clients")
+    uptime=$(grep -o 'process running for [0-9.]*' "$log" | awk '{print $4}')
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    rm -rf "$WORK/data"
+    awk -v mode="$mode" -v run="$run" -v uptime="$uptime" -v ready="$ready" -v first="$first" -v second="$second" \
+        'BEGIN { printf "%-8s %3d %14.2f %14d %14.1f %14.1f\n", mode, run, uptime, ready, first * 1000, second * 1000 }'
+}
+
+printf "%-8s %3s %14s %14s %14s %14s\n" mode run "started (s)" "health (ms)" "1st GET (ms)" "2nd GET (ms)"
+for run in $(seq 1 "$RUNS"); do
+    measure jar "$run" -cp "$JAR_CLASSPATH" org.springframework.boot.loader.launch.JarLauncher
+    measure cds "$run" -XX:SharedArchiveFile=app.jsa -cp "$APP_CLASSPATH" "$MAIN"
+    measure cds-aot "$run" -XX:SharedArchiveFile=app-aot.jsa -Dspring.aot.enabled=true -cp "$APP_CLASSPATH" "$MAIN"
+done
@@ -0,0 +1,39 @@
+package com.lukianchykov.ordermanagementapplication.admission;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit. The limit grows by roughly one per
+ * window of {@code limit} successful requests that finish within the latency target, and is cut
+ * by {@code backoffRatio} whenever a request is slower than the target or fails from overload.
+ */
+class AimdLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyTargetNanos;
+
+    private final double backoffRatio;
+
+    private double limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    synchronized int current() {
+        return (int) limit;
+    }
+
+    synchronized void onSample(long latencyNanos, int inFlight, boolean overloaded) {
+        if (overloaded || latencyNanos > latencyTargetNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+}
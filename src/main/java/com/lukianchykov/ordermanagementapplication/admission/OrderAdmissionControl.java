@@ -0,0 +1,231 @@
+package com.lukianchykov.ordermanagementapplication.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.lukianchykov.ordermanagementapplication.controller.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Admission control for order creation. Requests are shed with 429 before they take a connection
+ * or a row lock when either the global adaptive limit or the per-client in-flight limit is reached.
+ * <p>
+ * A request over the per-client limit first queues for up to {@code admission.per-client-wait-ms}
+ * behind at most {@code admission.per-client-queue-size} others, so a short burst on one client is
+ * served in order instead of rejected; it holds no connection and no global slot while it waits.
+ * Both clients are acquired in id order, so opposing orders of a pair cannot hold one permit each.
+ * Only admitted requests that complete or fail from overload are sampled for the adaptive limit:
+ * fast business-rule failures would otherwise pass for good latency.
+ * <p>
+ * With the locking engine an admitted order holds a connection until it commits, so unless they are
+ * set the initial limit is the Hikari pool size and the per-client limit half of it: a hot pair, whose
+ * orders serialize on the row locks anyway, cannot take the whole pool. The queue wait defaults to the
+ * latency target, since queued orders of a pair are served one at a time. The max limit only bounds
+ * how far the adaptive limit grows and defaults to the request threads, not the pool: the sequencer
+ * holds no connection while an order is processed.
+ */
+@Component
+@Slf4j
+public class OrderAdmissionControl {
+
+    private final boolean enabled;
+
+    private final int perClientLimit;
+
+    private final int perClientQueueSize;
+
+    private final long perClientWaitNanos;
+
+    private final AimdLimit limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Map<Long, ClientPermits> clientPermits = new ConcurrentHashMap<>();
+
+    private final Counter globalRejections;
+
+    private final Counter clientRejections;
+
+    private volatile double averageLatencyNanos;
+
+    /**
+     * In-flight permits of a client; {@code users} counts holders and waiters and is only changed
+     * inside {@code compute} on the map, which drops the entry when it reaches zero.
+     */
+    private static final class ClientPermits {
+
+        private final Semaphore permits;
+
+        private int users;
+
+        private ClientPermits(int limit) {
+            this.permits = new Semaphore(limit, true);
+        }
+    }
+
+    public OrderAdmissionControl(MeterRegistry registry,
+                                 @Value("${admission.enabled:true}") boolean enabled,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                 @Value("${admission.initial-limit:0}") int initialLimit,
+                                 @Value("${admission.min-limit:4}") int minLimit,
+                                 @Value("${admission.max-limit:${server.tomcat.threads.max:200}}") int maxLimit,
+                                 @Value("${admission.per-client-limit:0}") int perClientLimit,
+                                 @Value("${admission.per-client-queue-size:32}") int perClientQueueSize,
+                                 @Value("${admission.per-client-wait-ms:${admission.latency-target-ms:15000}}") long perClientWaitMs,
+                                 @Value("${admission.latency-target-ms:15000}") long latencyTargetMs,
+                                 @Value("${admission.backoff-ratio:0.9}") double backoffRatio) {
+        this.enabled = enabled;
+        this.perClientLimit = perClientLimit > 0 ? perClientLimit : Math.max(1, poolSize / 2);
+        this.perClientQueueSize = perClientQueueSize;
+        this.perClientWaitNanos = TimeUnit.MILLISECONDS.toNanos(perClientWaitMs);
+        this.limit = new AimdLimit(initialLimit > 0 ? initialLimit : poolSize, minLimit, maxLimit,
+            TimeUnit.MILLISECONDS.toNanos(latencyTargetMs), backoffRatio);
+        this.averageLatencyNanos = TimeUnit.SECONDS.toNanos(1);
+
+        Gauge.builder("order.admission.limit", limit, AimdLimit::current)
+            .description("Current adaptive concurrency limit for order creation")
+            .register(registry);
+        Gauge.builder("order.admission.in_flight", inFlight, AtomicInteger::get)
+            .description("Admitted order creation requests in flight")
+            .register(registry);
+        Gauge.builder("order.admission.queued", queued, AtomicInteger::get)
+            .description("Order creation requests waiting for a per-client slot")
+            .register(registry);
+        this.globalRejections = Counter.builder("order.admission.rejected").tag("scope", "global").register(registry);
+        this.clientRejections = Counter.builder("order.admission.rejected").tag("scope", "client").register(registry);
+    }
+
+    public <T> T execute(Long supplierId, Long consumerId, Supplier<T> action) {
+        if (!enabled || supplierId == null || consumerId == null) {
+            return action.get();
+        }
+
+        Long first = Math.min(supplierId, consumerId);
+        Long second = Math.max(supplierId, consumerId);
+        if (!acquireClient(first)) {
+            throw rejectForClient(first);
+        }
+        if (!second.equals(first) && !acquireClient(second)) {
+            releaseClient(first);
+            throw rejectForClient(second);
+        }
+        try {
+            acquireGlobal();
+        } catch (TooManyRequestsException e) {
+            releaseClients(first, second);
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = false;
+        boolean overloaded = false;
+        try {
+            T result = action.get();
+            sampled = true;
+            return result;
+        } catch (CannotCreateTransactionException | PessimisticLockingFailureException | QueryTimeoutException e) {
+            sampled = true;
+            overloaded = true;
+            throw e;
+        } finally {
+            if (sampled) {
+                long latency = System.nanoTime() - start;
+                averageLatencyNanos = averageLatencyNanos * 0.9 + latency * 0.1;
+                limit.onSample(latency, inFlight.get(), overloaded);
+            }
+            inFlight.decrementAndGet();
+            releaseClients(first, second);
+        }
+    }
+
+    private void acquireGlobal() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.current()) {
+                globalRejections.increment();
+                throw new TooManyRequestsException("Order service is overloaded, retry later", retryAfterSeconds());
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    private boolean acquireClient(Long clientId) {
+        boolean[] entered = new boolean[1];
+        ClientPermits client = clientPermits.compute(clientId, (id, current) -> {
+            ClientPermits permits = current != null ? current : new ClientPermits(perClientLimit);
+            entered[0] = permits.users < perClientLimit + perClientQueueSize;
+            if (entered[0]) {
+                permits.users++;
+            }
+            return permits.users == 0 ? null : permits;
+        });
+        if (!entered[0]) {
+            return false;
+        }
+        boolean acquired = false;
+        try {
+            // the timed form honours fairness, unlike tryAcquire() without arguments
+            acquired = client.permits.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired && !Thread.currentThread().isInterrupted()) {
+            queued.incrementAndGet();
+            try {
+                acquired = client.permits.tryAcquire(perClientWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        if (!acquired) {
+            leave(clientId);
+        }
+        return acquired;
+    }
+
+    private void releaseClients(Long first, Long second) {
+        if (!second.equals(first)) {
+            releaseClient(second);
+        }
+        releaseClient(first);
+    }
+
+    private void releaseClient(Long clientId) {
+        clientPermits.get(clientId).permits.release();
+        leave(clientId);
+    }
+
+    private void leave(Long clientId) {
+        clientPermits.computeIfPresent(clientId, (id, permits) -> --permits.users == 0 ? null : permits);
+    }
+
+    private TooManyRequestsException rejectForClient(Long clientId) {
+        clientRejections.increment();
+        log.debug("Too many concurrent orders for client {}", clientId);
+        return new TooManyRequestsException("Too many concurrent orders for client " + clientId + ", retry later",
+            retryAfterSeconds());
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(averageLatencyNanos / 1e9));
+    }
+}
@@ -0,0 +1,301 @@
+package com.lukianchykov.ordermanagementapplication.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Columnar file holding the orders of one detached partition, split into blocks of
+ * {@link #BLOCK_ROWS} orders that are compressed separately, so a lookup only decompresses the
+ * blocks that can contain its orders.
+ * <p>
+ * Layout: header {@code magic:int, version:int, count:int, minId:long, maxId:long, blocks:int,
+ * clientEntries:int}; a directory entry {@code offset:long, length:int, count:int, minId:long,
+ * maxId:long} per block; the client index, {@code clientId:long, block:int} for every client taking
+ * part in an order of a block, sorted by client and block; then the gzip-compressed blocks. Within a
+ * block the orders are stored one column after another in id order. Ids and creation timestamps are
+ * delta-encoded, prices are stored as scale-2 minor units and timestamps as epoch microseconds; a
+ * missing end time is written as {@link Long#MIN_VALUE}.
+ */
+public final class OrderArchiveFile {
+
+    static final int BLOCK_ROWS = 4096;
+
+    private static final int MAGIC = 0x4F524443;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8 + 4 + 4;
+
+    private static final int BLOCK_ENTRY_BYTES = 8 + 4 + 4 + 8 + 8;
+
+    private static final int CLIENT_ENTRY_BYTES = 8 + 4;
+
+    private static final int PRICE_SCALE = 2;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private OrderArchiveFile() {
+    }
+
+    /**
+     * Everything but the client index and the blocks; small enough to keep in memory per file.
+     */
+    public record Header(int count, long minId, long maxId, List<Block> blocks, int clientEntries) {
+    }
+
+    public record Block(long offset, int length, int count, long minId, long maxId) {
+    }
+
+    private record ClientEntry(long clientId, int block) {
+    }
+
+    /**
+     * Writes the orders, which have to be sorted by id.
+     */
+    public static void write(Path path, List<ArchivedOrder> orders) throws IOException {
+        List<byte[]> compressed = new ArrayList<>();
+        List<ClientEntry> clients = new ArrayList<>();
+        for (int from = 0; from < orders.size(); from += BLOCK_ROWS) {
+            List<ArchivedOrder> rows = orders.subList(from, Math.min(orders.size(), from + BLOCK_ROWS));
+            compressed.add(compress(rows));
+            int block = compressed.size() - 1;
+            rows.stream()
+                .flatMapToLong(order -> LongStream.of(order.supplierId(), order.consumerId()))
+                .distinct()
+                .forEach(clientId -> clients.add(new ClientEntry(clientId, block)));
+        }
+        clients.sort(Comparator.comparingLong(ClientEntry::clientId).thenComparingInt(ClientEntry::block));
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(orders.size());
+            out.writeLong(orders.isEmpty() ? 0L : orders.get(0).id());
+            out.writeLong(orders.isEmpty() ? 0L : orders.get(orders.size() - 1).id());
+            out.writeInt(compressed.size());
+            out.writeInt(clients.size());
+
+            long offset = HEADER_BYTES + (long) compressed.size() * BLOCK_ENTRY_BYTES
+                + (long) clients.size() * CLIENT_ENTRY_BYTES;
+            for (int block = 0; block < compressed.size(); block++) {
+                int from = block * BLOCK_ROWS;
+                int to = Math.min(orders.size(), from + BLOCK_ROWS);
+                out.writeLong(offset);
+                out.writeInt(compressed.get(block).length);
+                out.writeInt(to - from);
+                out.writeLong(orders.get(from).id());
+                out.writeLong(orders.get(to - 1).id());
+                offset += compressed.get(block).length;
+            }
+            for (ClientEntry client : clients) {
+                out.writeLong(client.clientId());
+                out.writeInt(client.block());
+            }
+            for (byte[] block : compressed) {
+                out.write(block);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Header readHeader(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported order archive format: " + path);
+            }
+            int count = in.readInt();
+            long minId = in.readLong();
+            long maxId = in.readLong();
+            Block[] blocks = new Block[in.readInt()];
+            int clientEntries = in.readInt();
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = new Block(in.readLong(), in.readInt(), in.readInt(), in.readLong(), in.readLong());
+            }
+            return new Header(count, minId, maxId, List.of(blocks), clientEntries);
+        }
+    }
+
+    /**
+     * Block that can contain the order, or -1.
+     */
+    public static int blockOf(Header header, long orderId) {
+        List<Block> blocks = header.blocks();
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (orderId < block.minId()) {
+                high = middle - 1;
+            } else if (orderId > block.maxId()) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Blocks holding an order supplied or consumed by the client, found by a binary search of the
+     * client index on disk.
+     */
+    public static int[] blocksOf(Path path, Header header, long clientId) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long indexStart = HEADER_BYTES + (long) header.blocks().size() * BLOCK_ENTRY_BYTES;
+            ByteBuffer entry = ByteBuffer.allocate(CLIENT_ENTRY_BYTES);
+            int low = 0;
+            int high = header.clientEntries();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (readClientEntry(channel, indexStart, middle, entry) < clientId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] blocks = new int[header.blocks().size()];
+            int found = 0;
+            for (int i = low; i < header.clientEntries() && found < blocks.length; i++) {
+                if (readClientEntry(channel, indexStart, i, entry) != clientId) {
+                    break;
+                }
+                blocks[found++] = entry.getInt(8);
+            }
+            return Arrays.copyOf(blocks, found);
+        }
+    }
+
+    public static List<ArchivedOrder> readBlock(Path path, Header header, int index) throws IOException {
+        Block block = header.blocks().get(index);
+        ByteBuffer bytes = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readFully(channel, bytes, block.offset());
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(bytes.array()), 64 * 1024)))) {
+            int count = block.count();
+            long[] ids = readDeltas(in, count);
+            long[] supplierIds = readLongs(in, count);
+            long[] consumerIds = readLongs(in, count);
+            long[] prices = readLongs(in, count);
+            long[] createdAt = readDeltas(in, count);
+            long[] startTimes = readLongs(in, count);
+            long[] endTimes = readLongs(in, count);
+
+            List<ArchivedOrder> orders = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                orders.add(new ArchivedOrder(ids[i], in.readUTF(), supplierIds[i], consumerIds[i],
+                    BigDecimal.valueOf(prices[i], PRICE_SCALE), fromMicros(startTimes[i]),
+                    fromMicros(endTimes[i]), fromMicros(createdAt[i])));
+            }
+            return orders;
+        }
+    }
+
+    private static byte[] compress(List<ArchivedOrder> orders) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes, 64 * 1024))) {
+            long previous = 0;
+            for (ArchivedOrder order : orders) {
+                out.writeLong(order.id() - previous);
+                previous = order.id();
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeLong(order.supplierId());
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeLong(order.consumerId());
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeLong(order.price().setScale(PRICE_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+            }
+            previous = 0;
+            for (ArchivedOrder order : orders) {
+                long createdAt = toMicros(order.createdAt());
+                out.writeLong(createdAt - previous);
+                previous = createdAt;
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeLong(toMicros(order.processingStartTime()));
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeLong(toMicros(order.processingEndTime()));
+            }
+            for (ArchivedOrder order : orders) {
+                out.writeUTF(order.name());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long readClientEntry(FileChannel channel, long indexStart, int index, ByteBuffer entry)
+        throws IOException {
+        entry.clear();
+        readFully(channel, entry, indexStart + (long) index * CLIENT_ENTRY_BYTES);
+        return entry.getLong(0);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Order archive is truncated");
+            }
+        }
+    }
+
+    private static long[] readLongs(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static long[] readDeltas(DataInputStream in, int count) throws IOException {
+        long[] values = readLongs(in, count);
+        for (int i = 1; i < count; i++) {
+            values[i] += values[i - 1];
+        }
+        return values;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
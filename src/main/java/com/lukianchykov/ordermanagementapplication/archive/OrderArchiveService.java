@@ -0,0 +1,128 @@
+package com.lukianchykov.ordermanagementapplication.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves orders from archived partitions. Only the file headers and block directories are kept in
+ * memory; a lookup reads the client index of each file from disk and decompresses only the blocks
+ * holding matching orders.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+
+    private static final String FILE_SUFFIX = ".ocol.gz";
+
+    @Value("${orders.archive.path:data/archive}")
+    private Path archiveDirectory;
+
+    private final Map<String, Entry> index = new ConcurrentSkipListMap<>();
+
+    private record Entry(Path path, OrderArchiveFile.Header header) {
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        if (!Files.isDirectory(archiveDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                .forEach(this::register);
+        } catch (IOException e) {
+            log.error("Failed to scan order archive directory {}", archiveDirectory, e);
+        }
+        log.info("Order archive index loaded with {} partitions", index.size());
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public void archive(String partition, List<ArchivedOrder> orders) throws IOException {
+        Files.createDirectories(archiveDirectory);
+        Path path = archiveDirectory.resolve(partition + FILE_SUFFIX);
+        OrderArchiveFile.write(path, orders);
+        register(path);
+        log.info("Archived {} orders from partition {} to {}", orders.size(), partition, path);
+    }
+
+    public Optional<ArchivedOrder> findById(long id) {
+        for (Entry entry : index.values()) {
+            int block = OrderArchiveFile.blockOf(entry.header(), id);
+            if (block >= 0) {
+                Optional<ArchivedOrder> order = read(entry, block).stream().filter(o -> o.id() == id).findFirst();
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ArchivedOrder> findByClientId(long clientId) {
+        return find(clientId, o -> o.supplierId() == clientId || o.consumerId() == clientId);
+    }
+
+    public List<ArchivedOrder> findBySupplierId(long supplierId) {
+        return find(supplierId, o -> o.supplierId() == supplierId);
+    }
+
+    public List<ArchivedOrder> findByConsumerId(long consumerId) {
+        return find(consumerId, o -> o.consumerId() == consumerId);
+    }
+
+    private List<ArchivedOrder> find(long clientId, Predicate<ArchivedOrder> filter) {
+        List<ArchivedOrder> result = new ArrayList<>();
+        for (Entry entry : index.values()) {
+            for (int block : blocksOf(entry, clientId)) {
+                read(entry, block).stream().filter(filter).forEach(result::add);
+            }
+        }
+        result.sort(Comparator.comparing(ArchivedOrder::createdAt).reversed());
+        return result;
+    }
+
+    private int[] blocksOf(Entry entry, long clientId) {
+        try {
+            return OrderArchiveFile.blocksOf(entry.path(), entry.header(), clientId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read order archive " + entry.path(), e);
+        }
+    }
+
+    private List<ArchivedOrder> read(Entry entry, int block) {
+        try {
+            return OrderArchiveFile.readBlock(entry.path(), entry.header(), block);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read order archive " + entry.path(), e);
+        }
+    }
+
+    private void register(Path path) {
+        try {
+            String name = path.getFileName().toString();
+            index.put(name.substring(0, name.length() - FILE_SUFFIX.length()),
+                new Entry(path, OrderArchiveFile.readHeader(path)));
+        } catch (IOException e) {
+            log.error("Skipping unreadable order archive {}", path, e);
+        }
+    }
+}
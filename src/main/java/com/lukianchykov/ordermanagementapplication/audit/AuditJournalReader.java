@@ -0,0 +1,140 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.metrics.OrderMetrics;
+
+/**
+ * Reads the audit journal written by {@link OrderAuditJournal}. Can be run on its own against a
+ * journal directory, also while the application is writing to it:
+ * <pre>
+ *   java -cp order-management-application-0.0.1-SNAPSHOT.jar -Dloader.main=com.lukianchykov.ordermanagementapplication.audit.AuditJournalReader \
+ *       org.springframework.boot.loader.launch.PropertiesLauncher data/audit [fromSequence]
+ * </pre>
+ * Prints one tab-separated line per record: sequence, timestamp, type, order id, supplier id,
+ * consumer id, price ({@code out-of-range} if it did not fit the record), rejection reason and order
+ * name.
+ */
+public final class AuditJournalReader {
+
+    private AuditJournalReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AuditJournalReader <journal directory> [fromSequence]");
+            System.exit(2);
+        }
+        long fromSequence = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        PrintStream out = System.out;
+        read(Paths.get(args[0]), fromSequence, record -> out.println(String.join("\t",
+            String.valueOf(record.sequence()),
+            record.timestamp().toString(),
+            record.type().name(),
+            String.valueOf(record.orderId()),
+            String.valueOf(record.supplierId()),
+            String.valueOf(record.consumerId()),
+            record.priceOutOfRange() ? "out-of-range" : record.price().toPlainString(),
+            record.rejectionReason() != null ? record.rejectionReason() : "-",
+            record.name())));
+    }
+
+    /**
+     * Passes every intact record with a sequence of at least {@code fromSequence} to {@code consumer}
+     * in sequence order and returns the number of records read.
+     */
+    public static long read(Path directory, long fromSequence, Consumer<AuditRecord> consumer) throws IOException {
+        List<Path> segments = segments(directory);
+        long read = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long sequence = readHeader(segment, segments.get(i));
+                for (int offset = AuditJournalWriter.HEADER_SIZE; offset + AuditRecord.SIZE <= segment.capacity();
+                     offset += AuditRecord.SIZE, sequence++) {
+                    if (!isIntact(segment, offset, sequence)) {
+                        break;
+                    }
+                    if (sequence >= fromSequence) {
+                        consumer.accept(decode(segment, offset));
+                        read++;
+                    }
+                }
+            }
+        }
+        return read;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(AuditJournalWriter.SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(AuditJournalWriter.SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    static long readHeader(ByteBuffer segment, Path path) {
+        if (segment.capacity() < AuditJournalWriter.HEADER_SIZE || segment.getInt(0) != AuditJournalWriter.MAGIC) {
+            throw new IllegalStateException("Not an audit journal segment: " + path);
+        }
+        if (segment.getInt(4) != AuditJournalWriter.VERSION || segment.getInt(8) != AuditRecord.SIZE) {
+            throw new IllegalStateException("Unsupported audit journal version " + segment.getInt(4) + " in " + path);
+        }
+        return segment.getLong(16);
+    }
+
+    static boolean isIntact(ByteBuffer segment, int offset, long expectedSequence) {
+        if (segment.getLong(offset) != expectedSequence) {
+            return false;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(segment.slice(offset, AuditRecord.CHECKSUM_OFFSET));
+        return (int) checksum.getValue() == segment.getInt(offset + AuditRecord.CHECKSUM_OFFSET);
+    }
+
+    private static AuditRecord decode(ByteBuffer segment, int offset) {
+        byte reason = segment.get(offset + 49);
+        byte[] name = new byte[segment.get(offset + 50) & 0xFF];
+        segment.get(offset + AuditRecord.NAME_OFFSET, name);
+        return new AuditRecord(
+            segment.getLong(offset),
+            Instant.ofEpochMilli(segment.getLong(offset + 8)),
+            AuditRecord.Type.of(segment.get(offset + 48)),
+            segment.getLong(offset + 16),
+            segment.getLong(offset + 24),
+            segment.getLong(offset + 32),
+            Money.toBigDecimal(segment.getLong(offset + 40)),
+            (segment.get(offset + 51) & AuditRecord.PRICE_OUT_OF_RANGE) != 0,
+            reason != 0 ? OrderMetrics.Rejection.values()[reason - 1].name() : null,
+            new String(name, StandardCharsets.UTF_8));
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(AuditJournalWriter.SEGMENT_PREFIX.length(),
+            name.length() - AuditJournalWriter.SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends audit records to memory-mapped segment files named after their first sequence. Every
+ * segment has a fixed size and a small header; when it is full the writer maps the next one. On
+ * start the last segment is scanned and writing resumes after its last intact record, so a torn
+ * record from a crash is overwritten. Not thread-safe: owned by the journal writer thread.
+ */
+final class AuditJournalWriter implements Closeable {
+
+    static final int MAGIC = 0x4F41_4A31;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final String SEGMENT_PREFIX = "orders-";
+
+    static final String SEGMENT_SUFFIX = ".audit";
+
+    private final Path directory;
+
+    private final int segmentRecords;
+
+    private final ByteBuffer record = ByteBuffer.allocate(AuditRecord.SIZE);
+
+    private final ByteBuffer name = ByteBuffer.wrap(record.array(), AuditRecord.NAME_OFFSET, AuditRecord.NAME_CAPACITY).slice();
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final CRC32C checksum = new CRC32C();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private long nextSequence = 1;
+
+    private boolean dirty;
+
+    AuditJournalWriter(Path directory, int segmentRecords) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(directory);
+
+        List<Path> segments = AuditJournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(nextSequence);
+        } else {
+            recover(segments.get(segments.size() - 1));
+        }
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    void append(long timestamp, byte type, long orderId, long supplierId, long consumerId,
+                long price, byte flags, String orderName, byte reason) {
+        if (segment.remaining() < AuditRecord.SIZE) {
+            rotate();
+        }
+
+        record.clear();
+        record.putLong(nextSequence)
+            .putLong(timestamp)
+            .putLong(orderId)
+            .putLong(supplierId)
+            .putLong(consumerId)
+            .putLong(price)
+            .put(type)
+            .put(reason)
+            .put((byte) encodeName(orderName))
+            .put(flags);
+        checksum.reset();
+        checksum.update(record.array(), 0, AuditRecord.CHECKSUM_OFFSET);
+        record.putInt(AuditRecord.CHECKSUM_OFFSET, (int) checksum.getValue());
+
+        segment.put(record.array());
+        nextSequence++;
+        dirty = true;
+    }
+
+    /**
+     * Writes mapped pages back to the file; records appended before the call survive an operating
+     * system crash once it returns.
+     */
+    void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int encodeName(String orderName) {
+        name.clear();
+        for (int i = AuditRecord.NAME_OFFSET; i < AuditRecord.CHECKSUM_OFFSET; i++) {
+            record.array()[i] = 0;
+        }
+        if (orderName == null) {
+            return 0;
+        }
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(orderName), name, true);
+        return name.position();
+    }
+
+    private void rotate() {
+        force();
+        try {
+            channel.close();
+            openSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate audit journal segment", e);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(segmentName(firstSequence));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) segmentRecords * AuditRecord.SIZE);
+        segment.putInt(MAGIC).putInt(VERSION).putInt(AuditRecord.SIZE).putInt(segmentRecords).putLong(firstSequence);
+        segment.position(HEADER_SIZE);
+        dirty = true;
+    }
+
+    private void recover(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        long firstSequence = AuditJournalReader.readHeader(segment, path);
+
+        nextSequence = firstSequence;
+        segment.position(HEADER_SIZE);
+        while (segment.remaining() >= AuditRecord.SIZE && AuditJournalReader.isIntact(segment, segment.position(), nextSequence)) {
+            segment.position(segment.position() + AuditRecord.SIZE);
+            nextSequence++;
+        }
+    }
+
+    static String segmentName(long firstSequence) {
+        return SEGMENT_PREFIX + String.format("%020d", firstSequence) + SEGMENT_SUFFIX;
+    }
+}
@@ -0,0 +1,136 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer single-consumer queue of audit events stored column-wise in preallocated
+ * arrays, so that enqueueing never allocates. A producer claims a position with one atomic
+ * increment, fills the slot and publishes it by advancing the slot sequence; when the queue is full
+ * it waits for the writer instead of dropping the event. Once the queue is closed nothing drains it
+ * any more, so producers give up instead of waiting.
+ */
+final class AuditQueue {
+
+    @FunctionalInterface
+    interface Sink {
+        void accept(long timestamp, byte type, long orderId, long supplierId, long consumerId,
+                    long price, byte flags, String name, byte reason);
+    }
+
+    enum Put {
+        ADDED, WAITED, CLOSED
+    }
+
+    private static final long FULL_PARK_NANOS = 50_000;
+
+    private final int mask;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final long[] timestamps;
+
+    private final long[] orderIds;
+
+    private final long[] supplierIds;
+
+    private final long[] consumerIds;
+
+    private final byte[] types;
+
+    private final byte[] reasons;
+
+    private final long[] prices;
+
+    private final byte[] flags;
+
+    private final String[] names;
+
+    private long head;
+
+    private volatile boolean closed;
+
+    AuditQueue(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[capacity];
+        this.orderIds = new long[capacity];
+        this.supplierIds = new long[capacity];
+        this.consumerIds = new long[capacity];
+        this.types = new byte[capacity];
+        this.reasons = new byte[capacity];
+        this.prices = new long[capacity];
+        this.flags = new byte[capacity];
+        this.names = new String[capacity];
+    }
+
+    /**
+     * Called by any thread. Returns {@link Put#CLOSED} if the event was dropped because the queue is
+     * closed, {@link Put#WAITED} if the caller had to wait for free space.
+     */
+    Put put(long timestamp, byte type, long orderId, long supplierId, long consumerId,
+            long price, byte priceFlags, String name, byte reason) {
+        if (closed) {
+            return Put.CLOSED;
+        }
+        long position = tail.getAndIncrement();
+        int index = (int) position & mask;
+        boolean waited = false;
+        while (sequences.get(index) != position) {
+            if (closed) {
+                return Put.CLOSED;
+            }
+            waited = true;
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        timestamps[index] = timestamp;
+        types[index] = type;
+        orderIds[index] = orderId;
+        supplierIds[index] = supplierId;
+        consumerIds[index] = consumerId;
+        prices[index] = price;
+        flags[index] = priceFlags;
+        names[index] = name;
+        reasons[index] = reason;
+        sequences.lazySet(index, position + 1);
+        return waited ? Put.WAITED : Put.ADDED;
+    }
+
+    /**
+     * Called only by the writer thread; hands up to {@code limit} events to {@code sink} in order.
+     */
+    int drain(Sink sink, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            sink.accept(timestamps[index], types[index], orderIds[index], supplierIds[index], consumerIds[index],
+                prices[index], flags[index], names[index], reasons[index]);
+            names[index] = null;
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Makes producers that wait for free space, and all later ones, drop their events.
+     */
+    void close() {
+        closed = true;
+    }
+
+    long backlog() {
+        return tail.get() - head;
+    }
+}
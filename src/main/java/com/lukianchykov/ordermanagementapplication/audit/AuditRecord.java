@@ -0,0 +1,60 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Decoded audit journal record. On disk every record takes {@link #SIZE} bytes:
+ * <pre>
+ *   0  sequence          long
+ *   8  timestamp (ms)    long
+ *  16  order id          long   (0 for rejected orders)
+ *  24  supplier id       long
+ *  32  consumer id       long
+ *  40  price in cents    long
+ *  48  type              byte
+ *  49  rejection reason  byte   (0 for created orders)
+ *  50  name length       byte
+ *  51  flags             byte   ({@link #PRICE_OUT_OF_RANGE})
+ *  52  reserved          4 bytes
+ *  56  name, UTF-8       64 bytes, truncated on a character boundary
+ * 120  reserved          4 bytes
+ * 124  CRC32C of bytes 0..123
+ * </pre>
+ */
+public record AuditRecord(long sequence,
+                          Instant timestamp,
+                          Type type,
+                          long orderId,
+                          long supplierId,
+                          long consumerId,
+                          BigDecimal price,
+                          boolean priceOutOfRange,
+                          String rejectionReason,
+                          String name) {
+
+    public static final int SIZE = 128;
+
+    /**
+     * The order price did not fit into a {@code long} of cents; the price is written as zero.
+     */
+    static final byte PRICE_OUT_OF_RANGE = 1;
+
+    static final int NAME_OFFSET = 56;
+
+    static final int NAME_CAPACITY = 64;
+
+    static final int CHECKSUM_OFFSET = 124;
+
+    public enum Type {
+        CREATED, REJECTED;
+
+        byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        static Type of(byte code) {
+            return values()[code - 1];
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.domain.Order;
+import com.lukianchykov.ordermanagementapplication.metrics.OrderMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Append-only journal of every created and rejected order. Request threads only put the event into
+ * a preallocated {@link AuditQueue}; one writer thread encodes the events into fixed-size binary
+ * records in memory-mapped segments under {@code audit.journal.path} and forces them to disk every
+ * {@code audit.journal.flush-interval-ms}. Use {@link AuditJournalReader} to read the journal.
+ */
+@Component
+@Slf4j
+public class OrderAuditJournal {
+
+    private static final int DRAIN_LIMIT = 1024;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final boolean enabled;
+
+    private final String path;
+
+    private final int segmentRecords;
+
+    private final long flushIntervalNanos;
+
+    private final AuditQueue queue;
+
+    private final Counter records;
+
+    private final Counter fullWaits;
+
+    private final Counter discarded;
+
+    private AuditJournalWriter writer;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private boolean failing;
+
+    public OrderAuditJournal(MeterRegistry registry,
+                             @Value("${audit.journal.enabled:true}") boolean enabled,
+                             @Value("${audit.journal.path:data/audit}") String path,
+                             @Value("${audit.journal.segment-records:262144}") int segmentRecords,
+                             @Value("${audit.journal.queue-capacity:65536}") int queueCapacity,
+                             @Value("${audit.journal.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.enabled = enabled;
+        this.path = path;
+        this.segmentRecords = segmentRecords;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.queue = enabled ? new AuditQueue(queueCapacity) : null;
+        this.records = Counter.builder("audit.journal.records")
+            .description("Order events written to the audit journal")
+            .register(registry);
+        this.fullWaits = Counter.builder("audit.journal.full.waits")
+            .description("Order events that waited for space in the audit journal queue")
+            .register(registry);
+        this.discarded = Counter.builder("audit.journal.discarded")
+            .description("Order events discarded because the audit journal failed to write them or was stopped")
+            .register(registry);
+        if (enabled) {
+            Gauge.builder("audit.journal.backlog", queue, AuditQueue::backlog)
+                .description("Order events queued but not yet written to the audit journal")
+                .register(registry);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        writer = new AuditJournalWriter(Paths.get(path), segmentRecords);
+        running = true;
+        writerThread = new Thread(this::writeLoop, "order-audit-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Order audit journal at {} continues from sequence {}", path, writer.nextSequence());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(STOP_TIMEOUT_MILLIS);
+        queue.close();
+        if (writerThread.isAlive()) {
+            log.warn("Order audit journal writer did not stop within {} ms, leaving the journal open", STOP_TIMEOUT_MILLIS);
+            return;
+        }
+        // events put between the last drain of the writer thread and closing the queue
+        queue.drain(this::write, Integer.MAX_VALUE);
+        writer.close();
+    }
+
+    public void orderCreated(long orderId, long supplierId, long consumerId, BigDecimal price, String name) {
+        append(AuditRecord.Type.CREATED.code(), orderId, supplierId, consumerId, price, name, (byte) 0);
+    }
+
+    /**
+     * Journals the order once the current transaction commits, or right away outside a transaction.
+     */
+    public void orderCreatedAfterCommit(Order order) {
+        if (!enabled) {
+            return;
+        }
+        long orderId = order.getId();
+        long supplierId = order.getSupplier().getId();
+        long consumerId = order.getConsumer().getId();
+        BigDecimal price = order.getPrice();
+        String name = order.getName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            orderCreated(orderId, supplierId, consumerId, price, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                orderCreated(orderId, supplierId, consumerId, price, name);
+            }
+        });
+    }
+
+    public void orderRejected(Long supplierId, Long consumerId, BigDecimal price, String name,
+                              OrderMetrics.Rejection reason) {
+        append(AuditRecord.Type.REJECTED.code(), 0L, supplierId != null ? supplierId : 0L,
+            consumerId != null ? consumerId : 0L, price, name, (byte) (reason.ordinal() + 1));
+    }
+
+    private void append(byte type, long orderId, long supplierId, long consumerId, BigDecimal price, String name,
+                        byte reason) {
+        if (!enabled) {
+            return;
+        }
+        long cents;
+        byte flags = 0;
+        try {
+            cents = Money.of(price);
+        } catch (ArithmeticException e) {
+            // rejected orders are journaled with the requested price, which may be far out of range
+            cents = Money.ZERO;
+            flags = AuditRecord.PRICE_OUT_OF_RANGE;
+        }
+        switch (queue.put(System.currentTimeMillis(), type, orderId, supplierId, consumerId, cents, flags, name, reason)) {
+            case WAITED -> fullWaits.increment();
+            case CLOSED -> discarded.increment();
+            case ADDED -> {
+            }
+        }
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            int written = queue.drain(this::write, DRAIN_LIMIT);
+
+            long now = System.nanoTime();
+            if (now - lastFlush >= flushIntervalNanos) {
+                force();
+                lastFlush = now;
+            }
+            if (written == 0) {
+                if (!running && queue.backlog() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writes one event; an event that cannot be written is counted and skipped, so that the queue
+     * keeps draining and request threads never block on it.
+     */
+    private void write(long timestamp, byte type, long orderId, long supplierId, long consumerId, long price,
+                       byte flags, String name, byte reason) {
+        try {
+            writer.append(timestamp, type, orderId, supplierId, consumerId, price, flags, name, reason);
+        } catch (RuntimeException e) {
+            discarded.increment();
+            if (!failing) {
+                log.error("Failed to write to the order audit journal, discarding order events until a write succeeds", e);
+                failing = true;
+            }
+            return;
+        }
+        records.increment();
+        if (failing) {
+            log.info("Order audit journal writes succeed again");
+            failing = false;
+        }
+    }
+
+    private void force() {
+        try {
+            writer.force();
+        } catch (RuntimeException e) {
+            log.error("Failed to force the order audit journal to disk", e);
+        }
+    }
+}
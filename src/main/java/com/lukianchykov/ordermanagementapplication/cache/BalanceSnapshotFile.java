@@ -0,0 +1,105 @@
+package com.lukianchykov.ordermanagementapplication.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of client balances, written and read through memory-mapped files.
+ * <p>
+ * Layout (big-endian): header {@code magic:int, version:int, watermark:long, takenAt:long, count:int},
+ * then {@code count} records {@code id:long, profitMinor:long, active:byte, lastOrderId:long},
+ * followed by a CRC32 of everything before it.
+ */
+public final class BalanceSnapshotFile {
+
+    private static final int MAGIC = 0x42414C53;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+    private static final int RECORD_SIZE = 8 + 8 + 1 + 8;
+
+    private BalanceSnapshotFile() {
+    }
+
+    public record Snapshot(long watermark, long takenAt, List<ClientBalance> balances) {
+    }
+
+    public static void write(Path path, long watermark, long takenAt, Collection<ClientBalance> balances) throws IOException {
+        List<ClientBalance> records = new ArrayList<>(balances);
+        long size = HEADER_SIZE + (long) RECORD_SIZE * records.size() + 8;
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(watermark)
+                .putLong(takenAt)
+                .putInt(records.size());
+
+            for (ClientBalance balance : records) {
+                buffer.putLong(balance.id())
+                    .putLong(balance.profit())
+                    .put((byte) (balance.active() ? 1 : 0))
+                    .putLong(balance.lastOrderId());
+            }
+
+            buffer.putLong(checksum(buffer, (int) size - 8));
+            buffer.force();
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Snapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 8) {
+                throw new IOException("Balance snapshot is truncated: " + path);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getLong((int) size - 8) != checksum(buffer, (int) size - 8)) {
+                throw new IOException("Balance snapshot checksum mismatch: " + path);
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported balance snapshot format: " + path);
+            }
+
+            long watermark = buffer.getLong();
+            long takenAt = buffer.getLong();
+            int count = buffer.getInt();
+
+            List<ClientBalance> balances = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                long profit = buffer.getLong();
+                boolean active = buffer.get() == 1;
+                long lastOrderId = buffer.getLong();
+                balances.add(new ClientBalance(id, profit, active, lastOrderId));
+            }
+            return new Snapshot(watermark, takenAt, balances);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,22 @@
+package com.lukianchykov.ordermanagementapplication.cache;
+
+import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+
+/**
+ * Cached balance of a client; {@code profit} is in minor units, see {@link Money}.
+ */
+public record ClientBalance(long id, long profit, boolean active, long lastOrderId) {
+
+    public static ClientBalance of(Client client, long lastOrderId) {
+        return new ClientBalance(
+            client.getId(),
+            Money.of(client.getProfit()),
+            Boolean.TRUE.equals(client.getActive()),
+            lastOrderId);
+    }
+
+    public ClientBalance deactivated() {
+        return new ClientBalance(id, profit, false, lastOrderId);
+    }
+}
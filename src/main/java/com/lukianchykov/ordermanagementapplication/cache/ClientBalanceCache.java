@@ -0,0 +1,116 @@
+package com.lukianchykov.ordermanagementapplication.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.domain.Order;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory view of client balances, warmed from the balance snapshot on startup.
+ * Entries are only published after the owning transaction commits, so readers never see rolled back state.
+ * <p>
+ * The cache is local to the instance: it only sees the orders and profile changes made through this
+ * instance, not those of other instances or direct SQL such as {@code db/profit_reset.sql}. Readers
+ * that need a current balance bound the age of the entry with {@link #get(Long, Duration)}.
+ */
+@Component
+public class ClientBalanceCache {
+
+    private record Entry(ClientBalance balance, long storedAt) {
+    }
+
+    private final Map<Long, Entry> balances = new ConcurrentHashMap<>();
+
+    public Optional<ClientBalance> get(Long clientId) {
+        Entry entry = balances.get(clientId);
+        return entry != null ? Optional.of(entry.balance()) : Optional.empty();
+    }
+
+    /**
+     * Returns the cached balance only if it was stored less than {@code maxAge} ago.
+     */
+    public Optional<ClientBalance> get(Long clientId, Duration maxAge) {
+        Entry entry = balances.get(clientId);
+        if (entry == null || System.nanoTime() - entry.storedAt() >= maxAge.toNanos()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.balance());
+    }
+
+    public Collection<ClientBalance> values() {
+        return balances.values().stream().map(Entry::balance).toList();
+    }
+
+    public int size() {
+        return balances.size();
+    }
+
+    /**
+     * Stores the balance unless the cache already holds the state after a later order; a balance
+     * read before that order committed would otherwise overwrite the newer profit.
+     */
+    public void put(ClientBalance balance) {
+        balances.merge(balance.id(), new Entry(balance, System.nanoTime()), (current, updated) ->
+            updated.balance().lastOrderId() >= current.balance().lastOrderId() ? updated : current);
+    }
+
+    public void replaceAll(Collection<ClientBalance> snapshot) {
+        balances.clear();
+        long now = System.nanoTime();
+        snapshot.forEach(balance -> balances.put(balance.id(), new Entry(balance, now)));
+    }
+
+    public void putAfterCommit(Client client) {
+        long clientId = client.getId();
+        ClientBalance balance = ClientBalance.of(client, lastOrderIdOf(clientId));
+        afterCommit(() -> put(balance));
+    }
+
+    public void putAllAfterCommit(Collection<ClientBalance> created) {
+        afterCommit(() -> created.forEach(this::put));
+    }
+
+    /**
+     * Marks the cached clients inactive once the transaction commits; clients that are not cached
+     * are loaded with their current state when they are needed.
+     */
+    public void deactivateAfterCommit(Collection<Long> clientIds) {
+        afterCommit(() -> clientIds.forEach(id -> balances.computeIfPresent(id,
+            (key, entry) -> new Entry(entry.balance().deactivated(), entry.storedAt()))));
+    }
+
+    public void putAfterCommit(Order order) {
+        ClientBalance supplier = ClientBalance.of(order.getSupplier(), order.getId());
+        ClientBalance consumer = ClientBalance.of(order.getConsumer(), order.getId());
+        afterCommit(() -> {
+            put(supplier);
+            put(consumer);
+        });
+    }
+
+    private long lastOrderIdOf(long clientId) {
+        Entry current = balances.get(clientId);
+        return current != null ? current.balance().lastOrderId() : 0L;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.lukianchykov.ordermanagementapplication.cli;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.configuration.SmileConfig;
+import lombok.Getter;
+
+/**
+ * HTTP client of the command line tools. A single {@link HttpClient} keeps its connections to the
+ * API open between requests; requests are sent asynchronously and bodies are exchanged in Smile.
+ * At most {@code concurrency} requests are in flight: a caller sending another one waits for a
+ * permit, so a loop over thousands of clients cannot flood the server or the connection pool.
+ * Requests shed by admission control with 429 are retried after the {@code Retry-After} delay.
+ */
+public class ApiClient implements AutoCloseable {
+
+    private static final String SMILE = SmileConfig.APPLICATION_SMILE.toString();
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final ObjectMapper objectMapper = SmileConfig.smileObjectMapper();
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    private final Duration requestTimeout;
+
+    private final Semaphore permits;
+
+    public ApiClient(CliConfig config) {
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.baseUrl = config.baseUrl();
+        this.requestTimeout = Duration.ofSeconds(config.requestTimeoutSeconds());
+        this.permits = new Semaphore(config.concurrency());
+    }
+
+    public <T> CompletableFuture<T> get(String path, Class<T> responseType) {
+        return send(request(path).GET().build(), responseType);
+    }
+
+    /**
+     * Posts {@code body}; with {@code Void.class} as the response type the response body is ignored.
+     */
+    public <T> CompletableFuture<T> post(String path, Object body, Class<T> responseType) {
+        HttpRequest.BodyPublisher publisher = body == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(write(body));
+        return send(request(path).header("Content-Type", SMILE).POST(publisher).build(), responseType);
+    }
+
+    /**
+     * Message of a failed request without the {@link CompletionException} wrapper.
+     */
+    public static String failureMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage();
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(requestTimeout)
+            .header("Accept", SMILE);
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, Class<T> responseType) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return exchange(request, 1)
+            .whenComplete((response, error) -> permits.release())
+            .thenApply(response -> read(request, response, responseType));
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest request, int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenCompose(response -> {
+            if (response.statusCode() != 429 || attempt >= MAX_ATTEMPTS) {
+                return CompletableFuture.completedFuture(response);
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(retryAfter, TimeUnit.SECONDS))
+                .thenCompose(ignored -> exchange(request, attempt + 1));
+        });
+    }
+
+    private <T> T read(HttpRequest request, HttpResponse<byte[]> response, Class<T> responseType) {
+        try {
+            if (response.statusCode() >= 300) {
+                throw new ApiException(request.method() + " " + request.uri().getPath(), response.statusCode(),
+                    errorMessage(response.body()));
+            }
+            if (responseType == Void.class || response.body().length == 0) {
+                return null;
+            }
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable response to " + request.method() + " " + request.uri(), e);
+        }
+    }
+
+    private String errorMessage(byte[] body) {
+        try {
+            JsonNode error = objectMapper.readTree(body);
+            return error != null && error.hasNonNull("message") ? error.get("message").asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+
+    @Getter
+    public static class ApiException extends RuntimeException {
+
+        private final int status;
+
+        ApiException(String request, int status, String message) {
+            super(request + " returned " + status + (message != null ? ": " + message : ""));
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.lukianchykov.ordermanagementapplication.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the command line tools, read from {@code --<key>=<value>} arguments. The default
+ * concurrency of 8 only bounds the requests a tool keeps in flight against the server; profit reset
+ * creates one system client per concurrent request, so a higher value does not run into
+ * {@code admission.per-client-limit}.
+ */
+public record CliConfig(String baseUrl,
+                        int concurrency,
+                        int requestTimeoutSeconds) {
+
+    public static CliConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        int concurrency = Integer.parseInt(values.getOrDefault("concurrency", "8"));
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("--concurrency must be at least 1");
+        }
+        return new CliConfig(
+            values.getOrDefault("base-url", "http://localhost:8080/api"),
+            concurrency,
+            Integer.parseInt(values.getOrDefault("request-timeout-seconds", "60")));
+    }
+}
@@ -0,0 +1,190 @@
+package com.lukianchykov.ordermanagementapplication.cli;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings the profit of every active client to zero with offset orders against system clients.
+ * Runs without a Spring context; offset orders are sent in parallel, at most {@code --concurrency}
+ * at a time, to the API at {@code --base-url}. Orders of the same client are serialized by the
+ * server, so there is one system client per concurrent request and clients are spread over them.
+ */
+@Slf4j
+public class ProfitResetApplication {
+
+    private final ApiClient apiClient;
+
+    private final int systemClientCount;
+
+    public ProfitResetApplication(ApiClient apiClient, int systemClientCount) {
+        this.apiClient = apiClient;
+        this.systemClientCount = systemClientCount;
+    }
+
+    public static void main(String[] args) {
+        CliConfig config = CliConfig.fromArgs(args);
+        try (ApiClient apiClient = new ApiClient(config)) {
+            new ProfitResetApplication(apiClient, config.concurrency()).run();
+        }
+    }
+
+    public void run() {
+        log.info("Starting profit reset for all clients...");
+
+        try {
+            List<ClientResponseDto> clients = getClients();
+
+            log.info("Found {} clients to process", clients.size());
+
+            List<ClientResponseDto> systemClients = createSystemClients();
+            Set<Long> systemClientIds = systemClients.stream().map(ClientResponseDto::getId).collect(Collectors.toSet());
+
+            AtomicInteger processedCount = new AtomicInteger();
+            AtomicInteger failedCount = new AtomicInteger();
+            int skippedCount = 0;
+            List<CompletableFuture<Void>> offsets = new ArrayList<>();
+
+            for (ClientResponseDto client : clients) {
+                if (!systemClientIds.contains(client.getId()) && client.getActive()) {
+                    BigDecimal currentProfit = client.getTotalProfit();
+
+                    if (currentProfit.compareTo(BigDecimal.ZERO) == 0) {
+                        log.debug("Client {}: already has zero profit, skipping", client.getName());
+                        skippedCount++;
+                        continue;
+                    }
+
+                    log.debug("Client {}: current profit = {}", client.getName(), currentProfit);
+
+                    ClientResponseDto systemClient = systemClients.get(offsets.size() % systemClients.size());
+                    CompletableFuture<Void> offset;
+                    if (currentProfit.compareTo(BigDecimal.ZERO) > 0) {
+                        offset = createOffsetOrder(systemClient.getId(), client.getId(),
+                            currentProfit, "CLIENT_POSITIVE_RESET");
+                    } else {
+                        // Отрицательная прибыль - делаем клиента поставщиком
+                        offset = createOffsetOrder(client.getId(), systemClient.getId(),
+                            currentProfit.abs(), "CLIENT_NEGATIVE_RESET");
+                    }
+
+                    offsets.add(offset.handle((ignored, error) -> {
+                        if (error != null) {
+                            failedCount.incrementAndGet();
+                            log.error("Client {}: profit reset failed: {}", client.getName(), ApiClient.failureMessage(error));
+                        } else {
+                            processedCount.incrementAndGet();
+                            log.debug("Client {}: profit reset completed", client.getName());
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            CompletableFuture.allOf(offsets.toArray(CompletableFuture[]::new)).join();
+
+            log.info("=== PROFIT RESET SUMMARY ===");
+            log.info("Processed clients: {}", processedCount.get());
+            log.info("Failed clients: {}", failedCount.get());
+            log.info("Skipped clients (zero profit): {}", skippedCount);
+            log.info("System clients: {}", systemClientIds);
+
+            verifyResults();
+
+        } catch (Exception e) {
+            log.error("Error resetting client profits", e);
+        }
+    }
+
+    private List<ClientResponseDto> createSystemClients() {
+        List<CompletableFuture<ClientResponseDto>> systemClients = new ArrayList<>();
+        for (int i = 0; i < systemClientCount; i++) {
+            systemClients.add(createSystemClient(i));
+        }
+        return systemClients.stream().map(CompletableFuture::join).toList();
+    }
+
+    private CompletableFuture<ClientResponseDto> createSystemClient(int index) {
+        String uniqueEmail = "system.profit.reset." + System.currentTimeMillis() + "." + index + "@system.local";
+
+        ClientCreateDto clientDto = new ClientCreateDto();
+        clientDto.setName("SYSTEM_PROFIT_RESET_CLIENT");
+        clientDto.setEmail(uniqueEmail);
+        clientDto.setAddress("System Generated for Profit Reset");
+        clientDto.setPhone("+000-SYSTEM-RESET");
+
+        return apiClient.post("/clients", clientDto, ClientResponseDto.class)
+            .handle((systemClient, e) -> {
+                if (e != null) {
+                    log.error("Failed to create system client", e);
+                    throw new RuntimeException("Cannot create system client for profit reset", e);
+                }
+                log.info("Created system client: {} (ID: {})", systemClient.getName(), systemClient.getId());
+                return systemClient;
+            });
+    }
+
+    private CompletableFuture<Void> createOffsetOrder(Long supplierId, Long consumerId, BigDecimal price,
+                                                      String orderType) {
+        OrderCreateDto orderDto = new OrderCreateDto();
+        orderDto.setName(orderType + "_" + consumerId + "_" + System.currentTimeMillis());
+        orderDto.setSupplierId(supplierId);
+        orderDto.setConsumerId(consumerId);
+        orderDto.setPrice(price);
+
+        return apiClient.post("/orders", orderDto, Void.class)
+            .thenRun(() -> log.debug("Created offset order: {} -> {} amount {}", supplierId, consumerId, price));
+    }
+
+    private List<ClientResponseDto> getClients() {
+        return List.of(apiClient.get("/clients", ClientResponseDto[].class).join());
+    }
+
+    private void verifyResults() {
+        try {
+            log.info("=== VERIFYING RESULTS ===");
+
+            List<ClientResponseDto> clients = getClients();
+
+            int zeroProfit = 0;
+            int nonZeroProfit = 0;
+            BigDecimal totalProfit = BigDecimal.ZERO;
+
+            for (ClientResponseDto client : clients) {
+                if (client.getActive() && !client.getName().startsWith("SYSTEM_")) {
+                    BigDecimal profit = client.getTotalProfit();
+                    totalProfit = totalProfit.add(profit);
+
+                    if (profit.compareTo(BigDecimal.ZERO) == 0) {
+                        zeroProfit++;
+                    } else {
+                        nonZeroProfit++;
+                        log.warn("Client {} still has non-zero profit: {}", client.getName(), profit);
+                    }
+                }
+            }
+
+            log.info("Clients with zero profit: {}", zeroProfit);
+            log.info("Clients with non-zero profit: {}", nonZeroProfit);
+            log.info("Total profit across all clients: {}", totalProfit);
+
+            if (nonZeroProfit == 0) {
+                log.info("SUCCESS: All client profits have been reset to zero!");
+            } else {
+                log.warn("WARNING: {} clients still have non-zero profits", nonZeroProfit);
+            }
+
+        } catch (Exception e) {
+            log.error("Error verifying results", e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.lukianchykov.ordermanagementapplication.cli;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.loadtest.LoadGenerator;
+import com.lukianchykov.ordermanagementapplication.loadtest.LoadTestConfig;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the concurrency scenarios against the API at {@code --base-url}, or the load generator with
+ * {@code --mode=load}. Runs without a Spring context; the concurrent requests of a scenario are
+ * sent together through the asynchronous {@link ApiClient}.
+ */
+@Slf4j
+public class ScenarioTestApplication {
+
+    private final ApiClient apiClient;
+
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    public ScenarioTestApplication(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--mode=load")) {
+            new LoadGenerator(LoadTestConfig.fromArgs(args)).run();
+            return;
+        }
+
+        try (ApiClient apiClient = new ApiClient(CliConfig.fromArgs(args))) {
+            new ScenarioTestApplication(apiClient).run();
+        }
+    }
+
+    public void run() {
+        log.info("Starting scenario tests...");
+
+        runScenario1();
+        runScenario2();
+        runScenario3();
+    }
+
+    /**
+     * Сценарий 1: N+1 одинаковых заказов с ценой 1
+     * Ожидается: только один заказ создастся успешно
+     */
+    private void runScenario1() {
+        log.info("=== Running Scenario 1: Duplicate orders with same price ===");
+
+        try {
+            ClientResponseDto supplier = createClient("Supplier1");
+            ClientResponseDto consumer = createClient("Consumer1");
+
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int requestNum = i + 1;
+                requests.add(createOrder(order("Similar Order", supplier, consumer, new BigDecimal("1.00")),
+                    "Request " + requestNum)
+                    .exceptionally(e -> {
+                        log.info("Request {} failed as expected: {}", requestNum, ApiClient.failureMessage(e));
+                        return null;
+                    }));
+            }
+            awaitAll(requests);
+
+            log.info("=== Scenario 1 completed ===");
+
+        } catch (Exception e) {
+            log.error("Error in Scenario 1", e);
+        }
+    }
+
+    /**
+     * Сценарий 2: 10 заказов с уменьшающейся ценой при лимите прибыли
+     * У покупателя profit = -970, лимит = 1000, доступно для трат = 30
+     * ДОЛЖЕН создаться только ОДИН заказ из всех возможных
+     */
+    private void runScenario2() {
+        log.info("=== Running Scenario 2: Orders with decreasing price near profit limit ===");
+        log.info("EXPECTED: Only 1 order should be created due to profit limit constraint");
+
+        try {
+            ClientResponseDto supplier = createClient("Supplier2");
+            ClientResponseDto consumer = createClient("Consumer2");
+
+            log.info("Creating setup order to reach profit limit...");
+            createOrder(order("Setup Order", supplier, consumer, new BigDecimal("970.00")), "Setup Order")
+                .exceptionally(e -> {
+                    log.error("Failed to create setup order", e);
+                    return null;
+                })
+                .join();
+
+            log.info("Setup completed. Consumer profit: -970, Available budget: 30");
+
+            AtomicInteger acceptedCount = new AtomicInteger(0);
+            AtomicInteger rejectedCount = new AtomicInteger(0);
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+
+            log.info("Starting concurrent order creation...");
+            for (int i = 0; i < 10; i++) {
+                int price = 100 - (i * 10);
+                int orderNum = i + 1;
+
+                requests.add(createOrder(order("Decreasing Order " + orderNum, supplier, consumer, new BigDecimal(price)),
+                    "Order " + orderNum + " (price: " + price + ")")
+                    .handle((ignored, e) -> {
+                        if (e == null) {
+                            acceptedCount.incrementAndGet();
+                            log.info("Order {} with price {} ACCEPTED", orderNum, price);
+                        } else {
+                            rejectedCount.incrementAndGet();
+                            log.info("Order {} with price {} REJECTED: {}", orderNum, price, ApiClient.failureMessage(e));
+                        }
+                        return null;
+                    }));
+            }
+            awaitAll(requests);
+
+            log.info("=== Scenario 2 Results ===");
+            log.info("Accepted orders: {}", acceptedCount.get());
+            log.info("Rejected orders: {}", rejectedCount.get());
+
+        } catch (Exception e) {
+            log.error("Error in Scenario 2", e);
+        }
+    }
+
+    /**
+     * Сценарий 3: Создание заказов параллельно с деактивацией клиента
+     * Ожидается: создадутся только те заказы, которые были обработаны до деактивации
+     */
+    private void runScenario3() {
+        log.info("=== Running Scenario 3: Orders creation with client deactivation ===");
+
+        try {
+            ClientResponseDto supplier = createClient("Supplier3");
+            ClientResponseDto consumer = createClient("Consumer3");
+
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int orderNum = i + 1;
+                OrderCreateDto orderDto = order("Order " + orderNum, supplier, consumer, new BigDecimal("50.00"));
+                requests.add(CompletableFuture.runAsync(() -> { }, after(orderNum * 10))
+                    .thenCompose(ignored -> createOrder(orderDto, "Order " + orderNum))
+                    .exceptionally(e -> {
+                        log.info("Order {} failed (possibly due to client deactivation): {}", orderNum, ApiClient.failureMessage(e));
+                        return null;
+                    }));
+            }
+
+            requests.add(CompletableFuture.runAsync(() -> { }, after(50))
+                .thenCompose(ignored -> apiClient.post("/clients/" + consumer.getId() + "/deactivate", null, Void.class))
+                .handle((ignored, e) -> {
+                    if (e == null) {
+                        log.info("Client {} deactivated", consumer.getId());
+                    } else {
+                        log.error("Failed to deactivate client {}", consumer.getId(), e);
+                    }
+                    return null;
+                }));
+            awaitAll(requests);
+
+            log.info("=== Scenario 3 completed ===");
+
+        } catch (Exception e) {
+            log.error("Error in Scenario 3", e);
+        }
+    }
+
+    private ClientResponseDto createClient(String name) {
+        try {
+            ClientCreateDto clientDto = new ClientCreateDto();
+            clientDto.setName(name);
+            clientDto.setEmail(name.toLowerCase() + "." + runId + "@test.com");
+            clientDto.setAddress("Test Address");
+
+            ClientResponseDto client = apiClient.post("/clients", clientDto, ClientResponseDto.class).join();
+            log.info("Created client: {} with ID: {}", name, client.getId());
+            return client;
+
+        } catch (Exception e) {
+            log.error("Failed to create client: {}", name, e);
+            throw new RuntimeException("Failed to create client", e);
+        }
+    }
+
+    private OrderCreateDto order(String name, ClientResponseDto supplier, ClientResponseDto consumer, BigDecimal price) {
+        OrderCreateDto orderDto = new OrderCreateDto();
+        orderDto.setName(name);
+        orderDto.setSupplierId(supplier.getId());
+        orderDto.setConsumerId(consumer.getId());
+        orderDto.setPrice(price);
+        return orderDto;
+    }
+
+    private CompletableFuture<Void> createOrder(OrderCreateDto orderDto, String description) {
+        long startTime = System.currentTimeMillis();
+        return apiClient.post("/orders", orderDto, Void.class)
+            .whenComplete((ignored, e) -> {
+                if (e == null) {
+                    log.info("Order created successfully [{}] (took {}ms)", description,
+                        System.currentTimeMillis() - startTime);
+                } else {
+                    log.warn("Order creation failed [{}]: {}", description, ApiClient.failureMessage(e));
+                }
+            });
+    }
+
+    private static Executor after(long millis) {
+        return CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> requests) {
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+    }
+}
@@ -0,0 +1,190 @@
+package com.lukianchykov.ordermanagementapplication.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.configuration.SmileConfig;
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.IdempotencyKeyMismatchException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.TooManyRequestsException;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClusterPrepareDto;
+import com.lukianchykov.ordermanagementapplication.idempotency.IdempotencyStore;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-to-node calls of cluster mode, exchanged in Smile over one {@link HttpClient}. Error
+ * responses of the other node are thrown as the exceptions that produced them, so a forwarded
+ * request fails with the same status as a local one.
+ */
+@Component
+@Slf4j
+public class ClusterClient {
+
+    /**
+     * Set on forwarded requests to the index of the forwarding node.
+     */
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded-By";
+
+    private static final String SMILE = SmileConfig.APPLICATION_SMILE.toString();
+
+    private final ObjectMapper objectMapper = SmileConfig.smileObjectMapper();
+
+    private final ClusterPartitionMap partitionMap;
+
+    private final Duration requestTimeout;
+
+    private final HttpClient httpClient;
+
+    public ClusterClient(ClusterPartitionMap partitionMap,
+                         @Value("${cluster.request-timeout-ms:60000}") long requestTimeoutMs) {
+        this.partitionMap = partitionMap;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        httpClient.close();
+    }
+
+    /**
+     * Sends a client request to the node owning its client and returns that node's response.
+     */
+    public <T> ResponseEntity<T> forward(int node, String path, Object body, String idempotencyKey,
+                                         Class<T> responseType) {
+        HttpRequest.Builder request = request(node, path)
+            .header(FORWARDED_HEADER, String.valueOf(partitionMap.localIndex()));
+        if (idempotencyKey != null) {
+            request.header(IdempotencyStore.HEADER, idempotencyKey);
+        }
+        HttpResponse<byte[]> response = send(post(request, body));
+        ResponseEntity.BodyBuilder forwarded = ResponseEntity.status(response.statusCode());
+        response.headers().firstValue(IdempotencyStore.REPLAYED_HEADER)
+            .ifPresent(replayed -> forwarded.header(IdempotencyStore.REPLAYED_HEADER, replayed));
+        return forwarded.body(read(response, responseType));
+    }
+
+    public void prepareCredit(int node, String transactionId, ClusterPrepareDto dto) {
+        send(post(request(node, "/internal/cluster/credits/" + transactionId), dto));
+    }
+
+    /**
+     * Reports the outcome of a prepared credit without waiting for it; a lost report is resolved by
+     * the other node once the credit expires.
+     */
+    public void commitCredit(int node, String transactionId, long supplierId, long orderId) {
+        sendAsync(node, "/internal/cluster/credits/" + transactionId + "/commit?supplierId=" + supplierId
+            + "&orderId=" + orderId);
+    }
+
+    public void abortCredit(int node, String transactionId, long supplierId) {
+        sendAsync(node, "/internal/cluster/credits/" + transactionId + "/abort?supplierId=" + supplierId);
+    }
+
+    public int deactivateClients(int node, List<Long> clientIds, DeactivationCriteria criteria) {
+        ClientDeactivationRequestDto body = new ClientDeactivationRequestDto(clientIds, criteria.noOrdersSince(),
+            criteria.minProfit(), criteria.maxProfit());
+        Integer deactivated = read(send(post(request(node, "/internal/cluster/clients/deactivate"), body)),
+            Integer.class);
+        return deactivated != null ? deactivated : 0;
+    }
+
+    private HttpRequest.Builder request(int node, String path) {
+        return HttpRequest.newBuilder(URI.create(partitionMap.nodeUrl(node) + path))
+            .timeout(requestTimeout)
+            .header("Accept", SMILE);
+    }
+
+    private HttpRequest post(HttpRequest.Builder request, Object body) {
+        if (body == null) {
+            return request.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        try {
+            return request.header("Content-Type", SMILE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) {
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cluster node " + request.uri().getAuthority() + " is not reachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling cluster node " + request.uri().getAuthority(), e);
+        }
+        if (response.statusCode() >= 300) {
+            throw failure(response);
+        }
+        return response;
+    }
+
+    private void sendAsync(int node, String path) {
+        HttpRequest request = post(request(node, path), null);
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() >= 300) {
+                log.warn("{} on cluster node {} failed: {}", request.uri().getPath(), node,
+                    error != null ? error.getMessage() : response.statusCode());
+            }
+        });
+    }
+
+    private <T> T read(HttpResponse<byte[]> response, Class<T> responseType) {
+        if (response.body().length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable response from " + response.uri(), e);
+        }
+    }
+
+    private RuntimeException failure(HttpResponse<byte[]> response) {
+        String message = errorMessage(response.body());
+        return switch (response.statusCode()) {
+            case 400 -> new BusinessRuleException(message);
+            case 404 -> new ResourceNotFoundException(message);
+            case 409 -> new DuplicateResourceException(message);
+            case 422 -> new IdempotencyKeyMismatchException(message);
+            case 429 -> new TooManyRequestsException(message,
+                response.headers().firstValueAsLong("Retry-After").orElse(1));
+            default -> new IllegalStateException("Cluster node " + response.uri().getAuthority() + " returned "
+                + response.statusCode() + ": " + message);
+        };
+    }
+
+    private String errorMessage(byte[] body) {
+        try {
+            JsonNode error = objectMapper.readTree(body);
+            return error != null && error.hasNonNull("message") ? error.get("message").asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.lukianchykov.ordermanagementapplication.cluster;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.TooManyRequestsException;
+import com.lukianchykov.ordermanagementapplication.dto.ClusterPrepareDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import com.lukianchykov.ordermanagementapplication.repository.ClusterTransactionJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import com.lukianchykov.ordermanagementapplication.sequencer.OrderSequencer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes client-scoped work to the node owning the client. Orders are coordinated by the owner of
+ * the consumer, whose balance limits them. When the supplier lives on another node the order is
+ * committed in two phases: the supplier's node prepares the credit, which checks the supplier and
+ * keeps it active; this node then sequences the order, whose transaction writes the order and both
+ * profit changes to the shared database; the outcome is finally sent back so the supplier's node
+ * applies or drops the credit in memory. The commit point is a {@code cluster_transactions} row
+ * written before the prepare: the order's transaction only commits while the row is still
+ * prepared, and whoever gives up on the order, this node after its own timeout or the supplier's
+ * node when the credit expires, aborts the row first, so an order can never commit after its
+ * credit was dropped.
+ */
+@Component
+@Slf4j
+public class ClusterCoordinator {
+
+    @Autowired
+    private ClusterPartitionMap partitionMap;
+
+    @Autowired
+    private ClusterClient clusterClient;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private ClusterTransactionJdbcRepository clusterTransactionJdbcRepository;
+
+    @Value("${cluster.transaction-retention-hours:24}")
+    private long transactionRetentionHours;
+
+    public boolean isLocal(long clientId) {
+        return partitionMap.isLocal(clientId);
+    }
+
+    /**
+     * Forwards a request about {@code clientId} to its owner. A request that was already forwarded
+     * is never forwarded again: it means the nodes were started with different partition maps.
+     */
+    public <T> ResponseEntity<T> forward(long clientId, String forwardedBy, String path, Object body,
+                                         String idempotencyKey, Class<T> responseType) {
+        int owner = partitionMap.ownerOf(clientId);
+        if (forwardedBy != null) {
+            throw new IllegalStateException("Node " + forwardedBy + " forwarded client " + clientId + " to node "
+                + partitionMap.localIndex() + ", which maps it to node " + owner + "; check cluster.nodes");
+        }
+        return clusterClient.forward(owner, path, body, idempotencyKey, responseType);
+    }
+
+    /**
+     * Sequences an order whose consumer is owned by this node.
+     */
+    public CommittedOrder createOrder(OrderCreateDto dto, LocalDateTime processingStartTime,
+                                      LocalDateTime processingEndTime) {
+        if (partitionMap.isLocal(dto.getSupplierId())) {
+            return orderSequencer.createOrder(dto, processingStartTime, processingEndTime);
+        }
+
+        int supplierNode = partitionMap.ownerOf(dto.getSupplierId());
+        String transactionId = UUID.randomUUID().toString();
+        clusterTransactionJdbcRepository.insertPrepared(transactionId, LocalDateTime.now());
+        clusterClient.prepareCredit(supplierNode, transactionId,
+            new ClusterPrepareDto(dto.getSupplierId(), dto.getConsumerId(), dto.getName(), dto.getPrice()));
+        CommittedOrder order;
+        try {
+            order = orderSequencer.createOrderWithRemoteSupplier(dto, processingStartTime, processingEndTime,
+                transactionId);
+        } catch (BusinessRuleException | DuplicateResourceException | ResourceNotFoundException
+                 | TooManyRequestsException e) {
+            clusterClient.abortCredit(supplierNode, transactionId, dto.getSupplierId());
+            throw e;
+        } catch (RuntimeException e) {
+            // the order may still be queued; once aborted it can no longer commit
+            abortUnlessCommitted(supplierNode, transactionId, dto);
+            throw e;
+        }
+        clusterClient.commitCredit(supplierNode, transactionId, dto.getSupplierId(), order.id());
+        return order;
+    }
+
+    public void prepareCredit(String transactionId, ClusterPrepareDto dto) {
+        requireLocal(dto.getSupplierId());
+        orderSequencer.prepareCredit(transactionId, dto.getSupplierId(), dto.getConsumerId(), dto.getOrderName(),
+            dto.getPrice());
+    }
+
+    public void commitCredit(String transactionId, long supplierId, long orderId) {
+        requireLocal(supplierId);
+        orderSequencer.commitCredit(transactionId, supplierId, orderId);
+    }
+
+    public void abortCredit(String transactionId, long supplierId) {
+        requireLocal(supplierId);
+        orderSequencer.abortCredit(transactionId, supplierId);
+    }
+
+    /**
+     * Deletes the transactions of orders old enough for every prepared credit to have expired.
+     */
+    @Scheduled(fixedDelayString = "${cluster.transaction-cleanup-interval-ms:3600000}")
+    public void deleteExpiredTransactions() {
+        if (!partitionMap.isEnabled()) {
+            return;
+        }
+        int deleted = clusterTransactionJdbcRepository.deleteCreatedBefore(
+            LocalDateTime.now().minusHours(transactionRetentionHours));
+        if (deleted > 0) {
+            log.info("Deleted {} cluster transactions older than {} hours", deleted, transactionRetentionHours);
+        }
+    }
+
+    /**
+     * Deactivates the clients on the nodes owning them and returns how many were deactivated; each
+     * owner re-checks the criteria against its own accounts.
+     */
+    public int deactivateClients(Collection<Long> clientIds, DeactivationCriteria criteria) {
+        Map<Integer, List<Long>> byNode = new TreeMap<>();
+        for (Long clientId : clientIds) {
+            byNode.computeIfAbsent(partitionMap.ownerOf(clientId), node -> new ArrayList<>()).add(clientId);
+        }
+        int deactivated = 0;
+        for (Map.Entry<Integer, List<Long>> node : byNode.entrySet()) {
+            deactivated += node.getKey() == partitionMap.localIndex()
+                ? orderSequencer.deactivateClients(node.getValue(), criteria)
+                : clusterClient.deactivateClients(node.getKey(), node.getValue(), criteria);
+        }
+        return deactivated;
+    }
+
+    /**
+     * Deactivates clients on request of another node; they must be owned by this one.
+     */
+    public int deactivateLocalClients(List<Long> clientIds, DeactivationCriteria criteria) {
+        clientIds.forEach(this::requireLocal);
+        return orderSequencer.deactivateClients(clientIds, criteria);
+    }
+
+    private void abortUnlessCommitted(int supplierNode, String transactionId, OrderCreateDto dto) {
+        try {
+            if (clusterTransactionJdbcRepository.abort(transactionId)) {
+                log.warn("Aborted order {} with prepared credit {} after it did not complete in time", dto.getName(),
+                    transactionId);
+                clusterClient.abortCredit(supplierNode, transactionId, dto.getSupplierId());
+            } else {
+                log.warn("Order {} with prepared credit {} was committed after the caller gave up; the supplier's "
+                    + "node applies the credit when it expires", dto.getName(), transactionId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outcome of order {} with prepared credit {} is unknown, the supplier's node resolves it when "
+                + "it expires: {}", dto.getName(), transactionId, e.getMessage());
+        }
+    }
+
+    private void requireLocal(long clientId) {
+        if (!partitionMap.isEnabled()) {
+            throw new IllegalArgumentException("Cluster mode is not enabled");
+        }
+        if (!partitionMap.isLocal(clientId)) {
+            throw new IllegalStateException("Client " + clientId + " is owned by node " + partitionMap.ownerOf(clientId)
+                + ", not by node " + partitionMap.localIndex() + "; check cluster.nodes");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lukianchykov.ordermanagementapplication.cluster;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps client ids to the cluster nodes owning them, enabled with {@code cluster.enabled}. Nodes are
+ * listed by base URL in {@code cluster.nodes}, in the same order on every node, and
+ * {@code cluster.node-index} is the position of this node in that list. Each node has
+ * {@code cluster.virtual-nodes} points on a consistent hash ring, so adding a node moves only the
+ * clients between its points and their predecessors. Without cluster mode every client is local.
+ */
+@Component
+@Slf4j
+public class ClusterPartitionMap {
+
+    private final boolean enabled;
+
+    private final List<String> nodes;
+
+    private final int localIndex;
+
+    private final long[] ring;
+
+    private final int[] owners;
+
+    public ClusterPartitionMap(@Value("${cluster.enabled:false}") boolean enabled,
+                               @Value("${cluster.nodes:}") String nodes,
+                               @Value("${cluster.node-index:0}") int localIndex,
+                               @Value("${cluster.virtual-nodes:128}") int virtualNodes,
+                               @Value("${order.engine:locking}") String engine) {
+        this.enabled = enabled;
+        this.nodes = Arrays.stream(nodes.split(",")).map(String::trim).filter(node -> !node.isEmpty())
+            .map(node -> node.endsWith("/") ? node.substring(0, node.length() - 1) : node)
+            .toList();
+        this.localIndex = localIndex;
+
+        Map<Long, Integer> points = new TreeMap<>();
+        if (enabled) {
+            if (!"sequencer".equalsIgnoreCase(engine)) {
+                throw new IllegalStateException("cluster.enabled requires order.engine=sequencer");
+            }
+            if (localIndex < 0 || localIndex >= this.nodes.size()) {
+                throw new IllegalStateException("cluster.node-index " + localIndex + " is not a position in cluster.nodes "
+                    + this.nodes);
+            }
+            for (int node = 0; node < this.nodes.size(); node++) {
+                for (int point = 0; point < virtualNodes; point++) {
+                    // the sign bit keeps points apart from client ids, which are positive
+                    points.putIfAbsent(mix(Long.MIN_VALUE | ((long) node << 32) | point), node);
+                }
+            }
+            log.info("Cluster node {} of {}: {}", localIndex, this.nodes.size(), this.nodes.get(localIndex));
+        }
+        this.ring = points.keySet().stream().mapToLong(Long::longValue).toArray();
+        this.owners = points.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int localIndex() {
+        return localIndex;
+    }
+
+    public String nodeUrl(int node) {
+        return nodes.get(node);
+    }
+
+    public int ownerOf(long clientId) {
+        if (!enabled) {
+            return localIndex;
+        }
+        int position = Arrays.binarySearch(ring, mix(clientId));
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return owners[position == ring.length ? 0 : position];
+    }
+
+    public boolean isLocal(long clientId) {
+        return ownerOf(clientId) == localIndex;
+    }
+
+    /**
+     * SplitMix64 finalizer; independent of the hash the sequencer uses to pick a shard, so the
+     * clients of one node still spread over all of its shards.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
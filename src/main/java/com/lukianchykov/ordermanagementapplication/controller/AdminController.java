@@ -0,0 +1,32 @@
+package com.lukianchykov.ordermanagementapplication.controller;
+
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientContentionDto;
+import com.lukianchykov.ordermanagementapplication.metrics.ClientContentionMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administration", description = "Diagnostics and maintenance operations")
+public class AdminController {
+
+    @Autowired
+    private ClientContentionMonitor clientContentionMonitor;
+
+    @Operation(summary = "Get the most contended clients by lock wait time")
+    @GetMapping("/contention")
+    public ResponseEntity<List<ClientContentionDto>> getContendedClients(
+        @Parameter(description = "Maximum number of clients to return") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(clientContentionMonitor.topClients(limit));
+    }
+}
@@ -0,0 +1,32 @@
+package com.lukianchykov.ordermanagementapplication.controller;
+
+import com.lukianchykov.ordermanagementapplication.dto.ChangeFeedPageDto;
+import com.lukianchykov.ordermanagementapplication.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Change Feed", description = "Incremental sync of orders and clients")
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Operation(summary = "Get orders and client changes after a cursor")
+    @GetMapping
+    public ResponseEntity<ChangeFeedPageDto> getChanges(
+        @Parameter(description = "Cursor returned by the previous page, 0 to start from the oldest retained change")
+        @RequestParam(defaultValue = "0") long after,
+        @Parameter(description = "Maximum number of changes in the page") @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(changeFeedService.getChanges(after, limit));
+    }
+}
@@ -1,24 +1,44 @@
 package com.lukianchykov.ordermanagementapplication.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterClient;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
 import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientImportReportDto;
 import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.idempotency.IdempotencyStore;
+import com.lukianchykov.ordermanagementapplication.service.ClientDeactivationService;
+import com.lukianchykov.ordermanagementapplication.service.ClientImportService;
 import com.lukianchykov.ordermanagementapplication.service.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -27,17 +47,53 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/clients")
 @Tag(name = "Client Management", description = "Operations for managing clients")
 public class ClientController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
     
     @Autowired
     private ClientService clientService;
+
+    @Autowired
+    private ListResponseWriter listResponseWriter;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ClientImportService clientImportService;
+
+    @Autowired
+    private ClientDeactivationService clientDeactivationService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
     
     @Operation(summary = "Create new client")
     @PostMapping
-    public ResponseEntity<ClientResponseDto> createClient(@Valid @RequestBody ClientCreateDto dto) {
-        ClientResponseDto response = clientService.createClient(dto);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<ClientResponseDto> createClient(
+            @Valid @RequestBody ClientCreateDto dto,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        IdempotencyStore.Result<ClientResponseDto> result = idempotencyStore.execute("clients", idempotencyKey, dto,
+            ClientResponseDto.class, () -> clientService.createClient(dto));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header(IdempotencyStore.REPLAYED_HEADER, String.valueOf(result.replayed()))
+            .body(result.body());
     }
     
+    @Operation(summary = "Import clients from CSV or NDJSON",
+        description = "CSV needs a header row with name, email and optional address and phone columns; " +
+            "NDJSON has one client object per line. Returns the number of created clients and the rejected rows")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ClientImportReportDto> importClients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        ClientImportService.Format format = contentType.isCompatibleWith(TEXT_CSV)
+            ? ClientImportService.Format.CSV
+            : ClientImportService.Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return ResponseEntity.ok(clientImportService.importClients(body, charset, format));
+    }
+
     @Operation(summary = "Get client by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ClientResponseDto> getClient(@PathVariable Long id) {
@@ -46,10 +102,11 @@ public class ClientController {
     }
     
     @Operation(summary = "Get all clients")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ClientResponseDto.class))))
     @GetMapping
-    public ResponseEntity<List<ClientResponseDto>> getAllClients() {
-        List<ClientResponseDto> response = clientService.getAllClients();
-        return ResponseEntity.ok(response);
+    public void getAllClients(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                              HttpServletResponse response) throws IOException {
+        listResponseWriter.write(accept, response, ClientResponseDto.class, clientService::streamAllClients);
     }
 
     @Operation(summary = "Search clients by keyword")
@@ -72,10 +129,22 @@ public class ClientController {
     
     @Operation(summary = "Deactivate client")
     @PostMapping("/{id}/deactivate")
-    public ResponseEntity<ClientResponseDto> deactivateClient(@PathVariable Long id) {
+    public ResponseEntity<ClientResponseDto> deactivateClient(
+            @PathVariable Long id,
+            @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (!clusterCoordinator.isLocal(id)) {
+            return clusterCoordinator.forward(id, forwardedBy, "/api/clients/" + id + "/deactivate", null, null,
+                ClientResponseDto.class);
+        }
         ClientResponseDto response = clientService.deactivateClient(id);
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Deactivate all active clients matching the criteria")
+    @PostMapping("/deactivate")
+    public ResponseEntity<ClientDeactivationReportDto> deactivateClients(@RequestBody ClientDeactivationRequestDto dto) {
+        return ResponseEntity.ok(clientDeactivationService.deactivateClients(dto));
+    }
     
     @Operation(summary = "Get client total profit")
     @GetMapping("/{id}/profit")
@@ -0,0 +1,55 @@
+package com.lukianchykov.ordermanagementapplication.controller;
+
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClusterPrepareDto;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/cluster")
+@Tag(name = "Cluster", description = "Calls between the nodes of a cluster")
+public class ClusterController {
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Operation(summary = "Prepare the supplier credit of an order coordinated by another node")
+    @PostMapping("/credits/{transactionId}")
+    public ResponseEntity<Void> prepareCredit(@PathVariable String transactionId, @RequestBody ClusterPrepareDto dto) {
+        clusterCoordinator.prepareCredit(transactionId, dto);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Apply a prepared credit after its order was committed")
+    @PostMapping("/credits/{transactionId}/commit")
+    public ResponseEntity<Void> commitCredit(@PathVariable String transactionId, @RequestParam long supplierId,
+                                             @RequestParam long orderId) {
+        clusterCoordinator.commitCredit(transactionId, supplierId, orderId);
+        return ResponseEntity.accepted().build();
+    }
+
+    @Operation(summary = "Drop a prepared credit whose order was rejected")
+    @PostMapping("/credits/{transactionId}/abort")
+    public ResponseEntity<Void> abortCredit(@PathVariable String transactionId, @RequestParam long supplierId) {
+        clusterCoordinator.abortCredit(transactionId, supplierId);
+        return ResponseEntity.accepted().build();
+    }
+
+    @Operation(summary = "Deactivate clients owned by this node that still match the criteria")
+    @PostMapping("/clients/deactivate")
+    public ResponseEntity<Integer> deactivateClients(@RequestBody ClientDeactivationRequestDto dto) {
+        return ResponseEntity.ok(clusterCoordinator.deactivateLocalClients(dto.getIds(),
+            new DeactivationCriteria(dto.getNoOrdersSince(), dto.getMinProfit(), dto.getMaxProfit())));
+    }
+}
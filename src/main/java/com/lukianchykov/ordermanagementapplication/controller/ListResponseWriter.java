@@ -0,0 +1,117 @@
+package com.lukianchykov.ordermanagementapplication.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lukianchykov.ordermanagementapplication.configuration.SmileConfig;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes list endpoints element by element into a Jackson {@link JsonGenerator} on the response
+ * instead of building the list first. The source is called with a sink while its query cursor is
+ * open, so the first bytes leave before the query is exhausted and a request holds one element at
+ * a time. Smile is written when the Accept header prefers it, JSON otherwise; gzip is negotiated
+ * by the container ({@code server.compression.*}).
+ * <p>
+ * Nothing is written before the first element, so exceptions thrown by the source before that,
+ * such as an unknown client, are still rendered by the exception handler.
+ */
+@Component
+public class ListResponseWriter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+    public <T> void write(String accept, HttpServletResponse response, Class<T> elementType,
+                          Consumer<Consumer<T>> source) throws IOException {
+        boolean smile = prefersSmile(accept);
+        ObjectMapper mapper = smile ? smileHttpMessageConverter.getObjectMapper() : objectMapper;
+        ArrayWriter<T> writer = new ArrayWriter<>(response, mapper.writerFor(elementType)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE), smile);
+        try {
+            source.accept(writer);
+            writer.close();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean prefersSmile(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return types.stream()
+            .filter(type -> type.getQualityValue() > 0)
+            .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+            .filter(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(SmileConfig.APPLICATION_SMILE))
+            .findFirst()
+            .map(SmileConfig.APPLICATION_SMILE::equalsTypeAndSubtype)
+            .orElse(false);
+    }
+
+    private static final class ArrayWriter<T> implements Consumer<T> {
+
+        private final HttpServletResponse response;
+
+        private final ObjectWriter objectWriter;
+
+        private final boolean smile;
+
+        private JsonGenerator generator;
+
+        private ArrayWriter(HttpServletResponse response, ObjectWriter objectWriter, boolean smile) {
+            this.response = response;
+            this.objectWriter = objectWriter;
+            this.smile = smile;
+        }
+
+        @Override
+        public void accept(T element) {
+            try {
+                start();
+                objectWriter.writeValue(generator, element);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void start() throws IOException {
+            if (generator != null) {
+                return;
+            }
+            response.setContentType(smile ? SmileConfig.APPLICATION_SMILE.toString() : MediaType.APPLICATION_JSON_VALUE);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            generator = objectWriter.createGenerator(response.getOutputStream());
+            generator.writeStartArray();
+        }
+
+        private void close() throws IOException {
+            start();
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
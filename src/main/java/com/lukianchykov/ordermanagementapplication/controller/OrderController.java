@@ -1,23 +1,38 @@
 package com.lukianchykov.ordermanagementapplication.controller;
 
-import java.util.List;
+import java.io.IOException;
 
+import com.lukianchykov.ordermanagementapplication.admission.OrderAdmissionControl;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterClient;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
 import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
 import com.lukianchykov.ordermanagementapplication.dto.OrderResponseDto;
+import com.lukianchykov.ordermanagementapplication.idempotency.IdempotencyStore;
+import com.lukianchykov.ordermanagementapplication.outbox.OrderEventStream;
 import com.lukianchykov.ordermanagementapplication.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,14 +41,50 @@ public class OrderController {
     
     @Autowired
     private OrderService orderService;
+
+    @Autowired
+    private OrderAdmissionControl orderAdmissionControl;
+
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Autowired
+    private ListResponseWriter listResponseWriter;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
     
     @Operation(summary = "Create new order")
     @PostMapping
-    public ResponseEntity<OrderResponseDto> createOrder(@Valid @RequestBody OrderCreateDto dto) {
-        OrderResponseDto response = orderService.createOrder(dto);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<OrderResponseDto> createOrder(
+            @Valid @RequestBody OrderCreateDto dto,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = ClusterClient.FORWARDED_HEADER, required = false) String forwardedBy) {
+        if (!clusterCoordinator.isLocal(dto.getConsumerId())) {
+            return clusterCoordinator.forward(dto.getConsumerId(), forwardedBy, "/api/orders", dto, idempotencyKey,
+                OrderResponseDto.class);
+        }
+        IdempotencyStore.Result<OrderResponseDto> result = idempotencyStore.execute("orders", idempotencyKey, dto,
+            OrderResponseDto.class, () -> orderAdmissionControl.execute(dto.getSupplierId(), dto.getConsumerId(),
+                () -> orderService.isSequencerEnabled()
+                    ? orderService.createSequencedOrder(dto)
+                    : orderService.createOrder(dto)));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header(IdempotencyStore.REPLAYED_HEADER, String.valueOf(result.replayed()))
+            .body(result.body());
     }
     
+    @Operation(summary = "Stream committed order and client changes as Server-Sent Events",
+        description = "Resumes after the Last-Event-ID header or the 'from' offset; without either only new events are sent")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                   @RequestParam(required = false) Long from) {
+        return orderEventStream.subscribe(lastEventId != null ? lastEventId : from);
+    }
+
     @Operation(summary = "Get order by ID")
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDto> getOrder(@PathVariable Long id) {
@@ -42,30 +93,40 @@ public class OrderController {
     }
     
     @Operation(summary = "Get all orders")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponseDto.class))))
     @GetMapping
-    public ResponseEntity<List<OrderResponseDto>> getAllOrders() {
-        List<OrderResponseDto> response = orderService.getAllOrders();
-        return ResponseEntity.ok(response);
+    public void getAllOrders(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                             HttpServletResponse response) throws IOException {
+        listResponseWriter.write(accept, response, OrderResponseDto.class, orderService::streamAllOrders);
     }
     
     @Operation(summary = "Get orders by client (both supplied and consumed)")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponseDto.class))))
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<OrderResponseDto>> getOrdersByClient(@PathVariable Long clientId) {
-        List<OrderResponseDto> response = orderService.getOrdersByClient(clientId);
-        return ResponseEntity.ok(response);
+    public void getOrdersByClient(@PathVariable Long clientId,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                  HttpServletResponse response) throws IOException {
+        listResponseWriter.write(accept, response, OrderResponseDto.class,
+            sink -> orderService.streamOrdersByClient(clientId, sink));
     }
     
     @Operation(summary = "Get orders supplied by client")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponseDto.class))))
     @GetMapping("/supplier/{supplierId}")
-    public ResponseEntity<List<OrderResponseDto>> getSuppliedOrders(@PathVariable Long supplierId) {
-        List<OrderResponseDto> response = orderService.getSuppliedOrders(supplierId);
-        return ResponseEntity.ok(response);
+    public void getSuppliedOrders(@PathVariable Long supplierId,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                  HttpServletResponse response) throws IOException {
+        listResponseWriter.write(accept, response, OrderResponseDto.class,
+            sink -> orderService.streamSuppliedOrders(supplierId, sink));
     }
     
     @Operation(summary = "Get orders consumed by client")
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponseDto.class))))
     @GetMapping("/consumer/{consumerId}")
-    public ResponseEntity<List<OrderResponseDto>> getConsumedOrders(@PathVariable Long consumerId) {
-        List<OrderResponseDto> response = orderService.getConsumedOrders(consumerId);
-        return ResponseEntity.ok(response);
+    public void getConsumedOrders(@PathVariable Long consumerId,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                  HttpServletResponse response) throws IOException {
+        listResponseWriter.write(accept, response, OrderResponseDto.class,
+            sink -> orderService.streamConsumedOrders(consumerId, sink));
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.lukianchykov.ordermanagementapplication.controller.exception;
+
+public class CursorExpiredException extends RuntimeException {
+
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.lukianchykov.ordermanagementapplication.controller.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
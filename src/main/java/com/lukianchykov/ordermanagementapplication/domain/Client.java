@@ -20,12 +20,18 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
+/**
+ * Updates write only the changed columns, so a profile update never writes back a profit that was
+ * read before a concurrent order committed.
+ */
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "clients")
+@DynamicUpdate
 public class Client {
 
     @Id
@@ -0,0 +1,39 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of an order whose supplier is owned by another cluster node. The row is written as
+ * {@code PREPARED} before the supplier's credit is prepared; the order's transaction moves it to
+ * {@code COMMITTED} and anyone giving up on the order moves it to {@code ABORTED}, so exactly one
+ * of the two wins. Rows are written and read with
+ * {@link com.lukianchykov.ordermanagementapplication.repository.ClusterTransactionJdbcRepository};
+ * the entity only defines the table.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "cluster_transactions",
+    indexes = @Index(name = "idx_cluster_transactions_created_at", columnList = "created_at"))
+public class ClusterTransaction {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 16)
+    private String state;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,57 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on monetary amounts held as a primitive {@code long} of minor units (scale 2, so
+ * {@code 12.34} is {@code 1234}). The order engines, caches and snapshots keep balances in this
+ * form; {@link BigDecimal} is only used at the JPA, JDBC and JSON edges. All operations throw
+ * {@link ArithmeticException} instead of silently overflowing.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    public static final long ZERO = 0L;
+
+    private static final long MINOR_PER_UNIT = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Converts to minor units, rounding half up as a {@code NUMERIC(19, 2)} column would; a
+     * {@code null} amount is zero.
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_PER_UNIT);
+    }
+
+    public static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+
+    public static long add(long augend, long addend) {
+        return Math.addExact(augend, addend);
+    }
+
+    public static long subtract(long minuend, long subtrahend) {
+        return Math.subtractExact(minuend, subtrahend);
+    }
+
+    public static long negate(long amount) {
+        return Math.negateExact(amount);
+    }
+
+    public static String toString(long amount) {
+        return toBigDecimal(amount).toPlainString();
+    }
+}
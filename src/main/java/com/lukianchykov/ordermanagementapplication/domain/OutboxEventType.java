@@ -0,0 +1,5 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+public enum OutboxEventType {
+    ORDER_CREATED, CLIENT_CREATED, CLIENT_UPDATED, CLIENT_DEACTIVATED
+}
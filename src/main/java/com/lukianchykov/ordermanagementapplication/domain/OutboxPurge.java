@@ -0,0 +1,29 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Highest outbox offset deleted by the retention cleanup, in a single row with id 1; change feed
+ * cursors below it have lost events even when the outbox is empty. Rows are written and read with
+ * {@link com.lukianchykov.ordermanagementapplication.repository.OutboxJdbcRepository}; the entity
+ * only defines the table.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_purges")
+public class OutboxPurge {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "purged_offset", nullable = false)
+    private Long purgedOffset;
+}
@@ -0,0 +1,27 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of the change feed. {@code orders} are the orders created in the page, {@code clients}
+ * the current state of every client created, changed or involved in one of those orders. Pass
+ * {@code cursor} as {@code after} to get the next page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeFeedPageDto {
+
+    private long cursor;
+
+    private boolean hasMore;
+
+    private List<CommittedOrder> orders;
+
+    private List<ClientResponseDto> clients;
+}
@@ -0,0 +1,31 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientContentionDto {
+
+    private Long clientId;
+
+    private Long acquisitions;
+
+    private Double acquisitionsPerSecond;
+
+    private Integer queueDepth;
+
+    private Integer maxQueueDepth;
+
+    private Double totalWaitMs;
+
+    private Double waitErrorMs;
+
+    private Double p50WaitMs;
+
+    private Double p99WaitMs;
+
+    private Double maxWaitMs;
+}
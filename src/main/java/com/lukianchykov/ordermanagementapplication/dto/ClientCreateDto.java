@@ -2,6 +2,7 @@ package com.lukianchykov.ordermanagementapplication.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,13 +13,17 @@ import lombok.NoArgsConstructor;
 public class ClientCreateDto {
 
     @NotBlank(message = "Name is required")
+    @Size(max = 255)
     private String name;
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
+    @Size(max = 255)
     private String email;
 
+    @Size(max = 255)
     private String address;
 
+    @Size(max = 255)
     private String phone;
 }
\ No newline at end of file
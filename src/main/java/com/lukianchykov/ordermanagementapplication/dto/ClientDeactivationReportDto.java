@@ -0,0 +1,15 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientDeactivationReportDto {
+
+    private long deactivated;
+
+    private int chunks;
+}
@@ -0,0 +1,28 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criteria of a bulk deactivation; a client has to meet every criterion that is set: be one of
+ * {@code ids}, have no orders created at or after {@code noOrdersSince} and a profit between
+ * {@code minProfit} and {@code maxProfit}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientDeactivationRequestDto {
+
+    private List<Long> ids;
+
+    private LocalDateTime noOrdersSince;
+
+    private BigDecimal minProfit;
+
+    private BigDecimal maxProfit;
+}
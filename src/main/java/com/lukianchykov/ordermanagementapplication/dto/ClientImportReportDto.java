@@ -0,0 +1,36 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientImportReportDto {
+
+    private long rows;
+
+    private long created;
+
+    private long rejected;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private long line;
+
+        private String email;
+
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.lukianchykov.ordermanagementapplication.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Supplier side of an order sent by the node owning the consumer to the node owning the supplier.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClusterPrepareDto {
+
+    private long supplierId;
+
+    private long consumerId;
+
+    private String orderName;
+
+    private BigDecimal price;
+}
@@ -0,0 +1,259 @@
+package com.lukianchykov.ordermanagementapplication.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.IdempotencyKeyMismatchException;
+import com.lukianchykov.ordermanagementapplication.repository.IdempotencyJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.IdempotencyJdbcRepository.StoredResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes a create request at most once per {@code Idempotency-Key}. The first request with a
+ * key runs; retries that arrive while it is in flight wait for its outcome, and retries after it
+ * completed get its response replayed without reaching the service. A key reused with a different
+ * request body is rejected with 422. Failed requests are not stored, so they can be retried.
+ * <p>
+ * Keys are kept in memory for {@code idempotency.ttl-seconds}, at most {@code idempotency.max-keys}
+ * of them, oldest evicted first. With {@code idempotency.persistence.enabled} completed responses
+ * are also stored in {@code idempotency_keys}, so replays survive eviction, restarts and work across
+ * instances; waiting for an in-flight request stays local to the instance.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+
+        private final long expiresAtMillis;
+
+        private final CompletableFuture<Object> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final IdempotencyJdbcRepository idempotencyJdbcRepository;
+
+    private final long ttlMillis;
+
+    private final int maxKeys;
+
+    private final long waitTimeoutMs;
+
+    private final boolean persistenceEnabled;
+
+    private final Map<String, Entry> entries;
+
+    private final Counter executed;
+
+    private final Counter replayedFromMemory;
+
+    private final Counter replayedFromDatabase;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            IdempotencyJdbcRepository idempotencyJdbcRepository,
+                            MeterRegistry registry,
+                            @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${idempotency.max-keys:100000}") int maxKeys,
+                            @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                            @Value("${idempotency.persistence.enabled:false}") boolean persistenceEnabled) {
+        this.objectMapper = objectMapper;
+        this.idempotencyJdbcRepository = idempotencyJdbcRepository;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxKeys = maxKeys;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.persistenceEnabled = persistenceEnabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxKeys;
+            }
+        };
+
+        Gauge.builder("idempotency.keys", this, IdempotencyStore::size)
+            .description("Idempotency keys held in memory")
+            .register(registry);
+        this.executed = Counter.builder("idempotency.requests").tag("outcome", "executed").register(registry);
+        this.replayedFromMemory = Counter.builder("idempotency.requests").tag("outcome", "replayed")
+            .tag("source", "memory").register(registry);
+        this.replayedFromDatabase = Counter.builder("idempotency.requests").tag("outcome", "replayed")
+            .tag("source", "database").register(registry);
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same {@code scope} and {@code key} ran before,
+     * in which case its response is returned. Without a key the action simply runs.
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters long");
+        }
+
+        String id = scope + ':' + key;
+        String fingerprint = fingerprint(request);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if (entry == null || entry.expiresAtMillis <= now) {
+                entry = new Entry(fingerprint, now + ttlMillis);
+                entries.put(id, entry);
+                owner = true;
+            }
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw mismatch(key);
+        }
+        if (!owner) {
+            T body = responseType.cast(await(entry, key));
+            replayedFromMemory.increment();
+            return new Result<>(body, true);
+        }
+
+        try {
+            Optional<T> stored = findStored(id, fingerprint, key, responseType);
+            if (stored.isPresent()) {
+                entry.response.complete(stored.get());
+                replayedFromDatabase.increment();
+                return new Result<>(stored.get(), true);
+            }
+
+            T body = action.get();
+            entry.response.complete(body);
+            executed.increment();
+            store(id, fingerprint, body);
+            return new Result<>(body, false);
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(id, entry);
+            }
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext() && iterator.next().expiresAtMillis <= now) {
+                iterator.remove();
+            }
+        }
+        if (persistenceEnabled) {
+            int deleted = idempotencyJdbcRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency keys", deleted);
+            }
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Object await(Entry entry, String key) {
+        try {
+            return entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Request with " + HEADER + " " + key + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateResourceException("Request with " + HEADER + " " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for request with " + HEADER + " " + key, e);
+        }
+    }
+
+    private <T> Optional<T> findStored(String id, String fingerprint, String key, Class<T> responseType) {
+        if (!persistenceEnabled) {
+            return Optional.empty();
+        }
+        Optional<StoredResponse> stored = idempotencyJdbcRepository.find(id, LocalDateTime.now());
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!stored.get().fingerprint().equals(fingerprint)) {
+            throw mismatch(key);
+        }
+        try {
+            return Optional.of(objectMapper.readValue(stored.get().response(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for " + HEADER + " " + key + " is not readable", e);
+        }
+    }
+
+    private void store(String id, String fingerprint, Object body) {
+        if (!persistenceEnabled) {
+            return;
+        }
+        try {
+            LocalDateTime createdAt = LocalDateTime.now();
+            idempotencyJdbcRepository.insert(id, fingerprint, objectMapper.writeValueAsString(body), createdAt,
+                createdAt.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        } catch (RuntimeException | JsonProcessingException e) {
+            // the request succeeded; without the row a late retry is caught by duplicate detection
+            log.warn("Could not persist response for idempotency key {}", id, e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static IdempotencyKeyMismatchException mismatch(String key) {
+        return new IdempotencyKeyMismatchException(HEADER + " " + key + " was already used for a different request");
+    }
+}
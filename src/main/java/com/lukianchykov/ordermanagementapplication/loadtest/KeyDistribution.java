@@ -0,0 +1,47 @@
+package com.lukianchykov.ordermanagementapplication.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Picks an index in {@code [0, size)}; used for choosing clients and hot order keys.
+ */
+public interface KeyDistribution {
+
+    int next(SplittableRandom random);
+
+    static KeyDistribution create(String type, int size, double zipfExponent) {
+        return switch (type.toLowerCase()) {
+            case "uniform" -> random -> random.nextInt(size);
+            case "zipf" -> new Zipf(size, zipfExponent);
+            default -> throw new IllegalArgumentException("Unknown key distribution: " + type);
+        };
+    }
+
+    /**
+     * Zipf distribution over ranks {@code 1..size} sampled by binary search over a precomputed CDF,
+     * so index 0 is the hottest key.
+     */
+    final class Zipf implements KeyDistribution {
+
+        private final double[] cdf;
+
+        Zipf(int size, double exponent) {
+            cdf = new double[size];
+            double sum = 0;
+            for (int rank = 1; rank <= size; rank++) {
+                sum += 1.0 / Math.pow(rank, exponent);
+                cdf[rank - 1] = sum;
+            }
+            for (int i = 0; i < size; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lukianchykov.ordermanagementapplication.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms keyed by endpoint and outcome (HTTP status or {@code error}).
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, String outcome, long latencyNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histograms.computeIfAbsent(endpoint + " " + outcome,
+                key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3))
+            .recordValue(Math.max(micros, 1));
+    }
+
+    public Map<String, Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> summary = new TreeMap<>();
+        histograms.forEach((series, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getTotalCount());
+            stats.put("meanMs", histogram.getMean() / 1000.0);
+            stats.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+            stats.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+            stats.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+            stats.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+            stats.put("maxMs", histogram.getMaxValue() / 1000.0);
+            summary.put(series, stats);
+        });
+        return summary;
+    }
+
+    public long totalCount() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+}
@@ -0,0 +1,230 @@
+package com.lukianchykov.ordermanagementapplication.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-loop load generator: requests are issued on a fixed arrival schedule regardless of how long
+ * earlier requests take, and latency is measured from the intended send time so that a stalled
+ * server shows up in the percentiles instead of silently lowering the offered load.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final String ORDERS = "POST /orders";
+
+    private static final String READ = "GET /clients/{id}";
+
+    private static final String SEARCH = "GET /clients/search";
+
+    private final LoadTestConfig config;
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private final KeyDistribution clientDistribution;
+
+    private final KeyDistribution orderKeyDistribution;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final List<Long> clientIds = new ArrayList<>();
+
+    public LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.clientDistribution = KeyDistribution.create(config.clientDistribution(), config.clients(),
+            config.zipfExponent());
+        this.orderKeyDistribution = config.orderKeys() > 0
+            ? KeyDistribution.create(config.orderKeyDistribution(), config.orderKeys(), config.zipfExponent())
+            : null;
+    }
+
+    public void run() throws Exception {
+        log.info("Load test {}: {} req/s, warmup {}s, measurement {}s, {} clients ({})", runId,
+            config.ratePerSecond(), config.warmupSeconds(), config.durationSeconds(), config.clients(),
+            config.clientDistribution());
+
+        createClients();
+
+        runPhase(config.warmupSeconds(), false);
+        long measuredStart = System.nanoTime();
+        runPhase(config.durationSeconds(), true);
+        awaitInFlight();
+        long measuredNanos = System.nanoTime() - measuredStart;
+
+        writeReport(measuredNanos);
+    }
+
+    private void createClients() throws Exception {
+        for (int i = 0; i < config.clients(); i++) {
+            ClientCreateDto dto = new ClientCreateDto();
+            dto.setName("LoadClient-" + runId + "-" + i);
+            dto.setEmail("load." + runId + "." + i + "@test.com");
+            dto.setAddress("Load Test Address " + i);
+
+            HttpResponse<String> response = httpClient.send(post("/clients", dto), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Failed to create load test client: " + response.statusCode());
+            }
+            clientIds.add(objectMapper.readValue(response.body(), ClientResponseDto.class).getId());
+        }
+    }
+
+    private void runPhase(int seconds, boolean measured) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        SplittableRandom random = new SplittableRandom();
+        int totalWeight = config.orderWeight() + config.readWeight() + config.searchWeight();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int pick = random.nextInt(totalWeight);
+            String endpoint;
+            HttpRequest request;
+            if (pick < config.orderWeight()) {
+                endpoint = ORDERS;
+                request = orderRequest(random);
+            } else if (pick < config.orderWeight() + config.readWeight()) {
+                endpoint = READ;
+                request = get("/clients/" + pickClient(random));
+            } else {
+                endpoint = SEARCH;
+                request = get("/clients/search?keyword=LoadClient-" + runId + "-" + clientDistribution.next(random));
+            }
+
+            send(endpoint, request, intended, measured);
+        }
+    }
+
+    private void send(String endpoint, HttpRequest request, long intendedStart, boolean measured) {
+        if (inFlight.incrementAndGet() > config.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.incrementAndGet();
+                recorder.record(endpoint, "dropped", System.nanoTime() - intendedStart);
+            }
+            return;
+        }
+
+        CompletableFuture<HttpResponse<Void>> future =
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        future.whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (measured) {
+                String outcome = error != null ? "error" : String.valueOf(response.statusCode());
+                recorder.record(endpoint, outcome, System.nanoTime() - intendedStart);
+            }
+        });
+    }
+
+    private HttpRequest orderRequest(SplittableRandom random) {
+        long supplierId = pickClient(random);
+        long consumerId = pickClient(random);
+        while (consumerId == supplierId && clientIds.size() > 1) {
+            consumerId = pickClient(random);
+        }
+
+        OrderCreateDto dto = new OrderCreateDto();
+        dto.setName(orderKeyDistribution != null
+            ? "LoadOrder-" + runId + "-" + orderKeyDistribution.next(random)
+            : "LoadOrder-" + UUID.randomUUID());
+        dto.setSupplierId(supplierId);
+        dto.setConsumerId(consumerId);
+        dto.setPrice(BigDecimal.valueOf(random.nextInt(1, 1000), 2));
+        return post("/orders", dto);
+    }
+
+    private long pickClient(SplittableRandom random) {
+        return clientIds.get(clientDistribution.next(random));
+    }
+
+    private void awaitInFlight() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still in flight when the report was written", inFlight.get());
+        }
+    }
+
+    private void writeReport(long measuredNanos) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("runId", runId);
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", config);
+        report.put("offeredRate", config.ratePerSecond());
+        report.put("achievedRate", recorder.totalCount() / seconds);
+        report.put("dropped", dropped.get());
+        report.put("latencies", recorder.summary());
+
+        if (config.report().toAbsolutePath().getParent() != null) {
+            Files.createDirectories(config.report().toAbsolutePath().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(config.report().toFile(), report);
+
+        log.info("=== LOAD TEST SUMMARY ===");
+        recorder.summary().forEach((series, stats) -> log.info("{}: {}", series, stats));
+        log.info("Report written to {}", config.report().toAbsolutePath());
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(config.baseUrl() + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(config.baseUrl() + path))
+            .timeout(Duration.ofSeconds(60))
+            .GET()
+            .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.lukianchykov.ordermanagementapplication.loadtest;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load generator settings, read from {@code --loadtest.<key>=<value>} command line arguments.
+ */
+public record LoadTestConfig(String baseUrl,
+                             double ratePerSecond,
+                             int warmupSeconds,
+                             int durationSeconds,
+                             int clients,
+                             String clientDistribution,
+                             String orderKeyDistribution,
+                             double zipfExponent,
+                             int orderKeys,
+                             int orderWeight,
+                             int readWeight,
+                             int searchWeight,
+                             int maxInFlight,
+                             Path report) {
+
+    private static final String PREFIX = "--loadtest.";
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith(PREFIX) && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                values.put(arg.substring(PREFIX.length(), separator), arg.substring(separator + 1));
+            }
+        }
+
+        return new LoadTestConfig(
+            values.getOrDefault("base-url", "http://localhost:8080/api"),
+            Double.parseDouble(values.getOrDefault("rate", "50")),
+            Integer.parseInt(values.getOrDefault("warmup-seconds", "10")),
+            Integer.parseInt(values.getOrDefault("duration-seconds", "60")),
+            Integer.parseInt(values.getOrDefault("clients", "100")),
+            values.getOrDefault("client-distribution", "zipf"),
+            values.getOrDefault("order-key-distribution", "uniform"),
+            Double.parseDouble(values.getOrDefault("zipf-exponent", "1.1")),
+            Integer.parseInt(values.getOrDefault("order-keys", "0")),
+            Integer.parseInt(values.getOrDefault("mix.order", "60")),
+            Integer.parseInt(values.getOrDefault("mix.read", "30")),
+            Integer.parseInt(values.getOrDefault("mix.search", "10")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+            Path.of(values.getOrDefault("report", "target/loadtest-report.json")));
+    }
+}
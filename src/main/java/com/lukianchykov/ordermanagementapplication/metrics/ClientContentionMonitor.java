@@ -0,0 +1,175 @@
+package com.lukianchykov.ordermanagementapplication.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientContentionDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how long order creation waits for client row locks. Per-client statistics are kept only
+ * for the heaviest hitters in bounded {@link ContentionSketch}es, so memory does not grow with the
+ * number of clients; queue depth is tracked only while a client has waiters.
+ * <p>
+ * Clients are partitioned over {@code contention.monitor.stripes} sketches, each with its own lock
+ * and an equal share of the capacity, and the top clients are merged on read. Order threads only
+ * meet on the stripe of the client they just waited for, and an eviction scans one stripe.
+ */
+@Component
+public class ClientContentionMonitor {
+
+    private final Map<Long, AtomicInteger> waiters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger totalWaiters = new AtomicInteger();
+
+    private final Stripe[] stripes;
+
+    private final Timer lockWaitTimer;
+
+    private final MultiGauge topClientsGauge;
+
+    private final int publishedClients;
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final ContentionSketch sketch;
+
+        private Stripe(int capacity, long nowNanos) {
+            this.sketch = new ContentionSketch(capacity, nowNanos);
+        }
+    }
+
+    public ClientContentionMonitor(MeterRegistry registry,
+                                   @Value("${contention.monitor.capacity:256}") int capacity,
+                                   @Value("${contention.monitor.stripes:16}") int stripeCount,
+                                   @Value("${contention.monitor.published-clients:10}") int publishedClients) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, capacity)));
+        long now = System.nanoTime();
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe((capacity + count - 1) / count, now);
+        }
+        this.publishedClients = publishedClients;
+        this.lockWaitTimer = Timer.builder("order.client.lock.wait")
+            .description("Time waiting for a client row lock in order creation")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.topClientsGauge = MultiGauge.builder("order.client.contention.wait")
+            .description("Total lock wait of the most contended clients in the current window")
+            .baseUnit("seconds")
+            .register(registry);
+        Gauge.builder("order.client.lock.waiters", totalWaiters, AtomicInteger::get)
+            .description("Order requests currently waiting for a client row lock")
+            .register(registry);
+    }
+
+    public long beforeLock(long clientId) {
+        totalWaiters.incrementAndGet();
+        waiters.compute(clientId, (id, count) -> {
+            AtomicInteger current = count != null ? count : new AtomicInteger();
+            current.incrementAndGet();
+            return current;
+        });
+        return System.nanoTime();
+    }
+
+    public void afterLock(long clientId, long startNanos) {
+        long now = System.nanoTime();
+        long waitNanos = now - startNanos;
+        totalWaiters.decrementAndGet();
+
+        int[] queueDepth = new int[1];
+        waiters.computeIfPresent(clientId, (id, count) -> {
+            queueDepth[0] = count.getAndDecrement();
+            return count.get() == 0 ? null : count;
+        });
+
+        lockWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        Stripe stripe = stripe(clientId);
+        stripe.lock.lock();
+        try {
+            stripe.sketch.record(clientId, waitNanos, queueDepth[0], now);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public List<ClientContentionDto> topClients(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        long now = System.nanoTime();
+        List<ClientContentionDto> top = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.sketch.top(limit).forEach(entry -> top.add(toDto(stripe.sketch, entry, now)));
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        top.sort(Comparator.comparingDouble(ClientContentionDto::getTotalWaitMs).reversed());
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    @Scheduled(fixedRateString = "${contention.monitor.publish-interval-ms:15000}")
+    public void publishTopClients() {
+        List<ClientContentionDto> top = topClients(publishedClients);
+        topClientsGauge.register(top.stream()
+            .map(client -> MultiGauge.Row.of(Tags.of("client", String.valueOf(client.getClientId())),
+                client.getTotalWaitMs() / 1000.0))
+            .toList(), true);
+    }
+
+    @Scheduled(fixedRateString = "${contention.monitor.decay-interval-ms:60000}")
+    public void decay() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.sketch.decay(System.nanoTime());
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private Stripe stripe(long clientId) {
+        // Fibonacci hashing spreads sequential ids over the stripes
+        return stripes[(int) ((clientId * 0x9E3779B97F4A7C15L) >>> 32) & (stripes.length - 1)];
+    }
+
+    private ClientContentionDto toDto(ContentionSketch sketch, ContentionSketch.Entry entry, long now) {
+        AtomicInteger current = waiters.get(entry.clientId);
+        return new ClientContentionDto(
+            entry.clientId,
+            entry.acquisitions,
+            sketch.acquisitionRate(entry, now),
+            current != null ? current.get() : 0,
+            entry.maxQueueDepth,
+            toMillis(entry.totalWaitNanos),
+            toMillis(entry.errorNanos),
+            toMillis(entry.percentileNanos(50)),
+            toMillis(entry.percentileNanos(99)),
+            toMillis(entry.maxWaitNanos));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.lukianchykov.ordermanagementapplication.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch over client lock wait time. It tracks at most {@code capacity}
+ * clients: when a new client arrives and the sketch is full, the entry with the smallest total wait
+ * is replaced and its weight is carried over as the new entry's error bound.
+ * <p>
+ * Each entry also keeps a log2 histogram of individual waits (in microseconds) for percentiles.
+ * Not thread-safe; {@link ClientContentionMonitor} guards each of its sketches with a lock of its own.
+ */
+class ContentionSketch {
+
+    private static final int BUCKETS = 40;
+
+    private final int capacity;
+
+    private final Map<Long, Entry> entries;
+
+    private long windowStartNanos;
+
+    ContentionSketch(int capacity, long nowNanos) {
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+        this.windowStartNanos = nowNanos;
+    }
+
+    static final class Entry {
+
+        final long clientId;
+
+        final long firstSeenNanos;
+
+        long totalWaitNanos;
+
+        long errorNanos;
+
+        long acquisitions;
+
+        long windowAcquisitions;
+
+        long maxWaitNanos;
+
+        int maxQueueDepth;
+
+        final long[] buckets = new long[BUCKETS];
+
+        Entry(long clientId, long firstSeenNanos, long errorNanos) {
+            this.clientId = clientId;
+            this.firstSeenNanos = firstSeenNanos;
+            this.totalWaitNanos = errorNanos;
+            this.errorNanos = errorNanos;
+        }
+
+        long percentileNanos(double percentile) {
+            long total = 0;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) * 1_000L, maxWaitNanos);
+                }
+            }
+            return maxWaitNanos;
+        }
+    }
+
+    void record(long clientId, long waitNanos, int queueDepth, long nowNanos) {
+        Entry entry = entries.get(clientId);
+        if (entry == null) {
+            long error = 0;
+            if (entries.size() >= capacity) {
+                Entry victim = entries.values().stream()
+                    .min(Comparator.comparingLong(e -> e.totalWaitNanos))
+                    .orElseThrow();
+                entries.remove(victim.clientId);
+                error = victim.totalWaitNanos;
+            }
+            entry = new Entry(clientId, nowNanos, error);
+            entries.put(clientId, entry);
+        }
+
+        entry.totalWaitNanos += waitNanos;
+        entry.acquisitions++;
+        entry.windowAcquisitions++;
+        entry.maxWaitNanos = Math.max(entry.maxWaitNanos, waitNanos);
+        entry.maxQueueDepth = Math.max(entry.maxQueueDepth, queueDepth);
+        long micros = Math.max(waitNanos / 1_000L, 1L);
+        entry.buckets[Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1)]++;
+    }
+
+    /**
+     * Lock acquisitions per second since the last decay, or since the entry was created if later.
+     */
+    double acquisitionRate(Entry entry, long nowNanos) {
+        long elapsed = nowNanos - Math.max(windowStartNanos, entry.firstSeenNanos);
+        return elapsed > 0 ? entry.windowAcquisitions * 1e9 / elapsed : 0;
+    }
+
+    List<Entry> top(int limit) {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingLong((Entry e) -> e.totalWaitNanos).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Halves all weights so that the sketch reflects recent contention rather than all-time totals.
+     */
+    void decay(long nowNanos) {
+        windowStartNanos = nowNanos;
+        entries.values().removeIf(entry -> {
+            entry.windowAcquisitions = 0;
+            entry.totalWaitNanos /= 2;
+            entry.errorNanos /= 2;
+            entry.acquisitions /= 2;
+            for (int i = 0; i < BUCKETS; i++) {
+                entry.buckets[i] /= 2;
+            }
+            return entry.acquisitions == 0;
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.lukianchykov.ordermanagementapplication.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Meters for the order creation pipeline. All meters are registered up front so that the hot path
+ * only reads {@link System#nanoTime()} and records into pre-resolved timers and counters.
+ */
+@Component
+public class OrderMetrics {
+
+    public enum Phase {
+        LOCK_WAIT, DUPLICATE_CHECK, THRESHOLD_CHECK, PROCESSING_DELAY, INSERT, COMMIT
+    }
+
+    public enum Rejection {
+        BUSINESS_RULE, DUPLICATE, DUPLICATE_DB, NOT_FOUND, OTHER
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+
+    private final Map<Rejection, Counter> rejectionCounters = new EnumMap<>(Rejection.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OrderMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("order.create.phase")
+                .description("Time spent in each phase of order creation")
+                .tag("phase", phase.name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejectionCounters.put(rejection, Counter.builder("order.create.rejected")
+                .description("Rejected order creation requests by reason")
+                .tag("reason", rejection.name().toLowerCase())
+                .register(registry));
+        }
+        Gauge.builder("order.create.in_flight", inFlight, AtomicInteger::get)
+            .description("Order creation requests currently being processed")
+            .register(registry);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos} and returns the current time,
+     * so consecutive phases can be chained without extra clock reads.
+     */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseTimers.get(phase).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Counts the current transaction as in flight until it completes and times its commit.
+     */
+    public void trackTransaction() {
+        inFlight.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inFlight.decrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long commitStart;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    record(Phase.COMMIT, commitStart);
+                }
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    public Rejection rejected(RuntimeException e) {
+        Rejection rejection = classify(e);
+        rejectionCounters.get(rejection).increment();
+        return rejection;
+    }
+
+    private Rejection classify(RuntimeException e) {
+        if (e instanceof BusinessRuleException) {
+            return Rejection.BUSINESS_RULE;
+        }
+        if (e instanceof DuplicateResourceException) {
+            return e.getCause() instanceof DataIntegrityViolationException ? Rejection.DUPLICATE_DB : Rejection.DUPLICATE;
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return Rejection.NOT_FOUND;
+        }
+        return Rejection.OTHER;
+    }
+}
@@ -0,0 +1,258 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.repository.OutboxJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events fan-out of the outbox. Every connection first replays the stored events after
+ * its offset and then receives live events from the {@link OutboxRelay}; the SSE event id is the
+ * outbox offset, so a client reconnecting with {@code Last-Event-ID} continues without losses or
+ * duplicates. Live events are buffered per connection; a connection that falls more than
+ * {@code outbox.stream.buffer-size} events behind stops buffering and catches up from the table.
+ * <p>
+ * Offsets the relay skipped as gaps are remembered for {@code outbox.relay.gap-retention-ms}: replay
+ * leaves them out, and the event is sent when the relay delivers it late. The SSE id is the
+ * position of the stream, the highest offset sent so far, so a late event carries the id of the
+ * event before it and a reconnect neither repeats it nor anything after that position.
+ */
+@Component
+@Slf4j
+public class OrderEventStream implements OutboxSubscriber {
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final OutboxJdbcRepository outboxJdbcRepository;
+
+    private final OutboxRelay outboxRelay;
+
+    private final int bufferSize;
+
+    private final long timeoutMs;
+
+    private final long gapRetentionNanos;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Offsets skipped by the relay and when they were seen, oldest first; guarded by this stream.
+     */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private long lastOffset = -1;
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<OutboxMessage> live = new LinkedBlockingQueue<>();
+
+        private final Set<Long> lateOffsets = ConcurrentHashMap.newKeySet();
+
+        private long offset;
+
+        private volatile long replayUntil;
+
+        private volatile boolean lagging;
+
+        private volatile boolean closed;
+
+        private Subscription(SseEmitter emitter, long offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+    }
+
+    public OrderEventStream(OutboxJdbcRepository outboxJdbcRepository, OutboxRelay outboxRelay, MeterRegistry registry,
+                            @Value("${outbox.stream.buffer-size:1024}") int bufferSize,
+                            @Value("${outbox.stream.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${outbox.relay.gap-retention-ms:300000}") long gapRetentionMs) {
+        this.outboxJdbcRepository = outboxJdbcRepository;
+        this.outboxRelay = outboxRelay;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.gapRetentionNanos = TimeUnit.MILLISECONDS.toNanos(gapRetentionMs);
+        Gauge.builder("outbox.stream.subscribers", subscriptions, Set::size)
+            .description("Open Server-Sent Events connections of the order event stream")
+            .register(registry);
+    }
+
+    /**
+     * Opens a stream of the events after {@code fromOffset}, or of new events only if it is {@code null}.
+     */
+    public SseEmitter subscribe(Long fromOffset) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription;
+        synchronized (this) {
+            subscription = new Subscription(emitter, fromOffset != null ? fromOffset : streamedOffset());
+            if (fromOffset != null) {
+                // a resuming client has not seen any offset that is still a gap
+                subscription.lateOffsets.addAll(gaps.keySet());
+            }
+            subscription.replayUntil = streamedOffset();
+            subscriptions.add(subscription);
+        }
+        emitter.onCompletion(() -> close(subscription));
+        emitter.onTimeout(() -> close(subscription));
+        emitter.onError(e -> close(subscription));
+        senders.execute(() -> send(subscription));
+        return emitter;
+    }
+
+    @Override
+    public synchronized void onEvent(OutboxMessage message) {
+        expireGaps();
+        long offset = message.offset();
+        if (gaps.remove(offset) != null) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.lateOffsets.contains(offset)) {
+                    subscription.live.add(message);
+                }
+            }
+            return;
+        }
+        if (lastOffset >= 0) {
+            long now = System.nanoTime();
+            for (long gap = lastOffset + 1; gap < offset && gaps.size() < OutboxRelay.MAX_SKIPPED; gap++) {
+                gaps.put(gap, now);
+                for (Subscription subscription : subscriptions) {
+                    subscription.lateOffsets.add(gap);
+                }
+            }
+        }
+        lastOffset = offset;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.lagging) {
+                continue;
+            }
+            if (subscription.live.size() >= bufferSize) {
+                log.debug("Order event stream fell {} events behind, catching up from the outbox", bufferSize);
+                subscription.lagging = true;
+            } else {
+                subscription.live.add(message);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onReset(long offset) {
+        gaps.clear();
+        lastOffset = offset;
+        subscriptions.forEach(subscription -> {
+            close(subscription);
+            subscription.emitter.complete();
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * Offset of the last event passed to the live queues.
+     */
+    private long streamedOffset() {
+        return lastOffset >= 0 ? lastOffset : outboxRelay.deliveredOffset();
+    }
+
+    private void expireGaps() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Long, Long>> oldest = gaps.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<Long, Long> gap = oldest.next();
+            if (now - gap.getValue() < gapRetentionNanos) {
+                break;
+            }
+            oldest.remove();
+            subscriptions.forEach(subscription -> subscription.lateOffsets.remove(gap.getKey()));
+        }
+    }
+
+    private synchronized void resume(Subscription subscription) {
+        subscription.lagging = false;
+        subscription.replayUntil = streamedOffset();
+    }
+
+    private void send(Subscription subscription) {
+        try {
+            replay(subscription);
+            while (!subscription.closed) {
+                if (subscription.lagging) {
+                    resume(subscription);
+                    replay(subscription);
+                    continue;
+                }
+                OutboxMessage message = subscription.live.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (message == null) {
+                    subscription.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (subscription.lateOffsets.remove(message.offset()) || message.offset() > subscription.offset) {
+                    send(subscription, message);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Order event stream closed: {}", e.getMessage());
+            close(subscription);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the stored events up to {@code replayUntil}, except skipped offsets, which come live.
+     */
+    private void replay(Subscription subscription) throws IOException {
+        long after = subscription.offset;
+        while (!subscription.closed && after < subscription.replayUntil) {
+            List<OutboxMessage> page = outboxJdbcRepository.findBetween(after, subscription.replayUntil, REPLAY_PAGE_SIZE);
+            for (OutboxMessage message : page) {
+                if (!subscription.lateOffsets.contains(message.offset())) {
+                    send(subscription, message);
+                }
+            }
+            if (page.size() < REPLAY_PAGE_SIZE) {
+                break;
+            }
+            after = page.get(page.size() - 1).offset();
+        }
+        subscription.offset = Math.max(subscription.offset, subscription.replayUntil);
+    }
+
+    private void send(Subscription subscription, OutboxMessage message) throws IOException {
+        long position = Math.max(subscription.offset, message.offset());
+        subscription.emitter.send(SseEmitter.event()
+            .id(String.valueOf(position))
+            .name(message.type().name())
+            .data(message.payload()));
+        subscription.offset = position;
+    }
+
+    private void close(Subscription subscription) {
+        subscription.closed = true;
+        subscriptions.remove(subscription);
+    }
+}
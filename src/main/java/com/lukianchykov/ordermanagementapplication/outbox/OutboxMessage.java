@@ -0,0 +1,16 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.time.LocalDateTime;
+
+import com.lukianchykov.ordermanagementapplication.domain.OutboxEventType;
+
+/**
+ * Outbox event as delivered to subscribers; {@code payload} is the JSON representation of the order
+ * or client after the change.
+ */
+public record OutboxMessage(long offset,
+                            OutboxEventType type,
+                            long aggregateId,
+                            String payload,
+                            LocalDateTime createdAt) {
+}
@@ -0,0 +1,260 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lukianchykov.ordermanagementapplication.repository.OutboxJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes committed outbox events to the {@link OutboxSubscriber} beans in offset order. The relay
+ * thread reads new rows when woken after a commit and at least every
+ * {@code outbox.relay.poll-interval-ms}. Offsets come from an identity column, so a transaction
+ * can commit after one with a higher offset: on a gap the relay waits for the missing offset up to
+ * {@code outbox.relay.gap-timeout-ms} and then moves on, but keeps looking for the skipped offsets
+ * for {@code outbox.relay.gap-retention-ms} and delivers those that commit late. The relay starts at
+ * the last offset present at startup; earlier events can be replayed from the table. If the table
+ * is recreated with lower offsets, the relay starts over from its first event.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Most skipped offsets looked for at a time; a larger gap is not a late commit but lost offsets.
+     */
+    static final int MAX_SKIPPED = 10_000;
+
+    @Autowired
+    private OutboxJdbcRepository outboxJdbcRepository;
+
+    @Autowired
+    private ObjectProvider<OutboxSubscriber> subscriberProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${outbox.relay.gap-retention-ms:300000}")
+    private long gapRetentionMs;
+
+    @Value("${outbox.retention-hours:168}")
+    private long retentionHours;
+
+    private List<OutboxSubscriber> subscribers;
+
+    private Counter delivered;
+
+    private Counter late;
+
+    private volatile Thread thread;
+
+    private volatile boolean running;
+
+    private volatile long deliveredOffset;
+
+    private long gapSinceNanos;
+
+    /**
+     * Skipped offsets and when they were skipped; only touched by the relay thread.
+     */
+    private final NavigableMap<Long, Long> skipped = new TreeMap<>();
+
+    private long rescannedAtNanos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || thread != null) {
+            return;
+        }
+        subscribers = subscriberProvider.orderedStream().toList();
+        delivered = Counter.builder("outbox.relay.delivered")
+            .description("Outbox events delivered to in-process subscribers")
+            .register(meterRegistry);
+        late = Counter.builder("outbox.relay.late")
+            .description("Outbox events delivered after their offset was skipped as a gap")
+            .register(meterRegistry);
+        deliveredOffset = outboxJdbcRepository.findLastOffset();
+        running = true;
+        thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Outbox relay started at offset {} with {} subscribers", deliveredOffset, subscribers.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Offset of the last event passed to all subscribers.
+     */
+    public long deliveredOffset() {
+        return deliveredOffset;
+    }
+
+    /**
+     * Offset up to which all events are committed and can be read without skipping one that commits
+     * later. Without a running relay this is simply the last stored offset.
+     */
+    public long stableOffset() {
+        return thread != null ? deliveredOffset : outboxJdbcRepository.findLastOffset();
+    }
+
+    public void wakeUp() {
+        Thread relay = thread;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void deleteExpiredEvents() {
+        int deleted = outboxJdbcRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours), deliveredOffset);
+        if (deleted > 0) {
+            log.info("Deleted {} outbox events older than {} hours", deleted, retentionHours);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            boolean more;
+            try {
+                more = relayBatch();
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed to read events, retrying: {}", e.getMessage());
+                more = false;
+            }
+            if (!more) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(pollIntervalMs));
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if a full batch was delivered and more events may be waiting.
+     */
+    private boolean relayBatch() {
+        rescanSkipped();
+        List<OutboxMessage> messages = outboxJdbcRepository.findAfter(deliveredOffset, batchSize);
+        if (messages.isEmpty()) {
+            resetIfRecreated();
+            return false;
+        }
+        for (OutboxMessage message : messages) {
+            if (message.offset() != deliveredOffset + 1) {
+                if (!gapExpired()) {
+                    return false;
+                }
+                skip(deliveredOffset + 1, message.offset());
+            }
+            gapSinceNanos = 0;
+            deliver(message);
+            deliveredOffset = message.offset();
+        }
+        return messages.size() == batchSize;
+    }
+
+    private void deliver(OutboxMessage message) {
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEvent(message);
+            } catch (RuntimeException e) {
+                log.error("Outbox subscriber {} failed on offset {}", subscriber.getClass().getSimpleName(),
+                    message.offset(), e);
+            }
+        }
+        delivered.increment();
+    }
+
+    private boolean gapExpired() {
+        long now = System.nanoTime();
+        if (gapSinceNanos == 0) {
+            gapSinceNanos = now;
+        }
+        return now - gapSinceNanos >= TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+    }
+
+    private void skip(long fromOffset, long toOffset) {
+        long now = System.nanoTime();
+        for (long offset = fromOffset; offset < toOffset && skipped.size() < MAX_SKIPPED; offset++) {
+            skipped.put(offset, now);
+        }
+        log.debug("Skipped outbox offsets {}..{} after waiting {} ms", fromOffset, toOffset - 1, gapTimeoutMs);
+    }
+
+    /**
+     * Delivers skipped offsets that have committed since, at most once per poll interval, and gives
+     * up on those skipped longer than the gap retention ago.
+     */
+    private void rescanSkipped() {
+        long now = System.nanoTime();
+        if (skipped.isEmpty() || now - rescannedAtNanos < TimeUnit.MILLISECONDS.toNanos(pollIntervalMs)) {
+            return;
+        }
+        rescannedAtNanos = now;
+        long retentionNanos = TimeUnit.MILLISECONDS.toNanos(gapRetentionMs);
+        skipped.values().removeIf(skippedAt -> now - skippedAt >= retentionNanos);
+        List<Long> offsets = new ArrayList<>(skipped.keySet());
+        for (int from = 0; from < offsets.size(); from += batchSize) {
+            List<Long> chunk = offsets.subList(from, Math.min(from + batchSize, offsets.size()));
+            for (OutboxMessage message : outboxJdbcRepository.findByOffsets(chunk)) {
+                skipped.remove(message.offset());
+                deliver(message);
+                late.increment();
+            }
+        }
+    }
+
+    private void resetIfRecreated() {
+        long lastOffset = outboxJdbcRepository.findLastOffset();
+        if (lastOffset == 0 || lastOffset >= deliveredOffset) {
+            return;
+        }
+        long offset = outboxJdbcRepository.findFirstOffset() - 1;
+        log.warn("Outbox offsets dropped below delivered offset {}, continuing after offset {}", deliveredOffset, offset);
+        skipped.clear();
+        gapSinceNanos = 0;
+        deliveredOffset = offset;
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onReset(offset);
+            } catch (RuntimeException e) {
+                log.error("Outbox subscriber {} failed on reset", subscriber.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
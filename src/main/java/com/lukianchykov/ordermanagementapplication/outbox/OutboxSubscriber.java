@@ -0,0 +1,19 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+/**
+ * In-process consumer of committed changes. Beans implementing this interface are called by the
+ * {@link OutboxRelay} thread once per event, in offset order; they should hand off slow work. The
+ * only exception is an event whose offset the relay skipped as a gap and which committed later: it
+ * is delivered once it is found, after events with higher offsets.
+ */
+public interface OutboxSubscriber {
+
+    void onEvent(OutboxMessage message);
+
+    /**
+     * Called when the outbox was recreated or restored with lower offsets than those already
+     * delivered; delivery continues after {@code offset}.
+     */
+    default void onReset(long offset) {
+    }
+}
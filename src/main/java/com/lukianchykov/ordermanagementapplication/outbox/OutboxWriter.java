@@ -0,0 +1,126 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.domain.Order;
+import com.lukianchykov.ordermanagementapplication.domain.OutboxEventType;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.mapper.ClientMapper;
+import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OrderJdbcRepository.OrderRow;
+import com.lukianchykov.ordermanagementapplication.repository.OutboxJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records changes in the outbox as part of the caller's transaction and wakes the
+ * {@link OutboxRelay} once that transaction commits. Orders are serialized as
+ * {@link CommittedOrder}, clients as {@link ClientResponseDto}.
+ */
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    private OutboxJdbcRepository outboxJdbcRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientMapper clientMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    public void orderCreated(Order order) {
+        CommittedOrder payload = new CommittedOrder(order.getId(), order.getName(), order.getSupplier().getId(),
+            order.getConsumer().getId(), order.getPrice(), order.getProcessingStartTime(),
+            order.getProcessingEndTime(), order.getCreatedAt());
+        append(OutboxEventType.ORDER_CREATED, List.of(order.getId()), List.of(toJson(payload)));
+    }
+
+    public void ordersCreated(List<Long> orderIds, List<OrderRow> orders) {
+        List<String> payloads = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            OrderRow order = orders.get(i);
+            payloads.add(toJson(new CommittedOrder(orderIds.get(i), order.name(), order.supplierId(),
+                order.consumerId(), Money.toBigDecimal(order.price()), order.processingStartTime(), order.processingEndTime(),
+                order.createdAt())));
+        }
+        append(OutboxEventType.ORDER_CREATED, orderIds, payloads);
+    }
+
+    public void clientChanged(OutboxEventType type, Client client) {
+        ClientResponseDto payload = clientMapper.toClientResponseDto(client);
+        payload.setTotalProfit(client.getProfit());
+        append(type, List.of(client.getId()), List.of(toJson(payload)));
+    }
+
+    /**
+     * Records clients inserted with plain JDBC, e.g. by a bulk import.
+     */
+    public void clientsCreated(List<ClientResponseDto> clients) {
+        List<Long> ids = new ArrayList<>(clients.size());
+        List<String> payloads = new ArrayList<>(clients.size());
+        for (ClientResponseDto client : clients) {
+            ids.add(client.getId());
+            payloads.add(toJson(client));
+        }
+        append(OutboxEventType.CLIENT_CREATED, ids, payloads);
+    }
+
+    /**
+     * Records deactivations done with plain JDBC; the clients are re-read with one query within the
+     * transaction.
+     */
+    public void clientsDeactivated(List<Long> clientIds) {
+        if (clientIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(clientIds.size());
+        List<String> payloads = new ArrayList<>(clientIds.size());
+        for (ClientResponseDto client : clientRepository.findDtosByIds(clientIds)) {
+            ids.add(client.getId());
+            payloads.add(toJson(client));
+        }
+        append(OutboxEventType.CLIENT_DEACTIVATED, ids, payloads);
+    }
+
+    private void append(OutboxEventType type, List<Long> aggregateIds, List<String> payloads) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+        outboxJdbcRepository.append(type, aggregateIds, payloads, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outboxRelay.wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.lukianchykov.ordermanagementapplication.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC writes of clients for bulk imports and bulk deactivation, and the client locks taken
+ * before them. Callers provide the transaction.
+ */
+@Repository
+public class ClientJdbcRepository {
+
+    /**
+     * New active client with zero profit.
+     */
+    public record ClientRow(String name, String email, String address, String phone) {
+    }
+
+    /**
+     * Conditions a client has to meet to be deactivated in bulk; {@code null} fields are not checked.
+     */
+    public record DeactivationCriteria(LocalDateTime noOrdersSince, BigDecimal minProfit, BigDecimal maxProfit) {
+    }
+
+    private static final String INSERT_CLIENTS =
+        "INSERT INTO clients (name, email, address, phone, profit, active, created_at, updated_at) VALUES ";
+
+    private static final String CLIENT_VALUES = "(?, ?, ?, ?, 0, TRUE, ?, ?)";
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Next active clients after {@code afterId} that match {@code criteria}, at most {@code limit}
+     * of them in ascending id order. With {@code ids} only those clients are considered.
+     */
+    public List<Long> findDeactivationCandidates(DeactivationCriteria criteria, Collection<Long> ids, long afterId,
+                                                 int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        String sql = "SELECT id FROM clients WHERE active = TRUE AND id > ?" + criteria(criteria, ids, args)
+            + " ORDER BY id LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+
+    /**
+     * Takes {@code FOR UPDATE} row locks on the clients, in ascending id order like the order path
+     * locks its two clients.
+     */
+    public void lockClients(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT id FROM clients WHERE id IN (" + placeholders(ids.size()) + ") ORDER BY id FOR UPDATE";
+        jdbcTemplate.queryForList(sql, Long.class, ids.toArray());
+    }
+
+    /**
+     * Takes the PostgreSQL transaction-scoped advisory lock keyed by the client id; it is released
+     * when the transaction ends. No row is locked, the client does not even have to exist.
+     */
+    public void advisoryLockClient(long id) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", id);
+    }
+
+    /**
+     * Candidates that still match {@code criteria}. Run by a new statement after the candidates were
+     * locked, so it also sees orders that committed while the lock was awaited.
+     */
+    public List<Long> findDeactivatable(DeactivationCriteria criteria, Collection<Long> lockedIds) {
+        if (lockedIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT id FROM clients WHERE active = TRUE" + criteria(criteria, lockedIds, args) + " ORDER BY id";
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+    }
+
+    public int deactivateClients(Collection<Long> ids, LocalDateTime deactivatedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(List.of(deactivatedAt, deactivatedAt));
+        args.addAll(ids);
+        return jdbcTemplate.update("UPDATE clients SET active = FALSE, deactivated_at = ?, updated_at = ? WHERE id IN ("
+            + placeholders(ids.size()) + ")", args.toArray());
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT email FROM clients WHERE email IN (" + placeholders(emails.size()) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, emails.toArray()));
+    }
+
+    /**
+     * Inserts the clients with multi-row statements and returns their generated ids in the order of
+     * {@code clients}.
+     */
+    public List<Long> insertClients(List<ClientRow> clients, LocalDateTime createdAt) {
+        List<Long> ids = new ArrayList<>(clients.size());
+        for (int from = 0; from < clients.size(); from += MAX_ROWS_PER_INSERT) {
+            ids.addAll(insertChunk(clients.subList(from, Math.min(clients.size(), from + MAX_ROWS_PER_INSERT)), createdAt));
+        }
+        return ids;
+    }
+
+    private List<Long> insertChunk(List<ClientRow> clients, LocalDateTime createdAt) {
+        String sql = INSERT_CLIENTS + String.join(", ", Collections.nCopies(clients.size(), CLIENT_VALUES));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] {"id"});
+            int parameter = 1;
+            for (ClientRow client : clients) {
+                ps.setString(parameter++, client.name());
+                ps.setString(parameter++, client.email());
+                ps.setString(parameter++, client.address());
+                ps.setString(parameter++, client.phone());
+                ps.setObject(parameter++, createdAt);
+                ps.setObject(parameter++, createdAt);
+            }
+            return ps;
+        }, keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList().stream()
+            .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+            .toList();
+        if (ids.size() != clients.size()) {
+            throw new IllegalStateException("Expected " + clients.size() + " generated client ids, got " + ids.size());
+        }
+        return ids;
+    }
+
+    private static String criteria(DeactivationCriteria criteria, Collection<Long> ids, List<Object> args) {
+        StringBuilder sql = new StringBuilder();
+        if (ids != null) {
+            sql.append(" AND id IN (").append(placeholders(ids.size())).append(')');
+            args.addAll(ids);
+        }
+        if (criteria.minProfit() != null) {
+            sql.append(" AND COALESCE(profit, 0) >= ?");
+            args.add(criteria.minProfit());
+        }
+        if (criteria.maxProfit() != null) {
+            sql.append(" AND COALESCE(profit, 0) <= ?");
+            args.add(criteria.maxProfit());
+        }
+        if (criteria.noOrdersSince() != null) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.supplier_id = clients.id AND o.created_at >= ?)")
+                .append(" AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.consumer_id = clients.id AND o.created_at >= ?)");
+            args.add(criteria.noOrdersSince());
+            args.add(criteria.noOrdersSince());
+        }
+        return sql.toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,35 +1,57 @@
 package com.lukianchykov.ordermanagementapplication.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
 
+    String CLIENT_DTO = "new com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto(" +
+        "c.id, c.name, c.email, c.address, c.phone, c.profit, c.active, c.deactivatedAt, c.createdAt, c.updatedAt)";
+
     Optional<Client> findByEmail(String email);
 
-    @Query("SELECT c FROM Client c WHERE " +
+    List<Client> findByUpdatedAtGreaterThanEqual(LocalDateTime updatedAt);
+
+    @Query("SELECT " + CLIENT_DTO + " FROM Client c WHERE c.id = :id")
+    Optional<ClientResponseDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT " + CLIENT_DTO + " FROM Client c WHERE c.id IN :ids ORDER BY c.id")
+    List<ClientResponseDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT " + CLIENT_DTO + " FROM Client c ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.STREAM_FETCH_SIZE))
+    Stream<ClientResponseDto> streamAllDtos();
+
+    @Query("SELECT " + CLIENT_DTO + " FROM Client c WHERE " +
         "LENGTH(:keyword) >= 3 AND (" +
         "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
         "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
         "LOWER(COALESCE(c.address, '')) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
         "LOWER(COALESCE(c.phone, '')) LIKE LOWER(CONCAT('%', :keyword, '%'))" +
         ")")
-    List<Client> findByKeyword(@Param("keyword") String keyword);
+    List<ClientResponseDto> findDtosByKeyword(@Param("keyword") String keyword);
 
-    @Query("SELECT c FROM Client c WHERE c.profit BETWEEN :minProfit AND :maxProfit")
-    List<Client> findByProfitBetween(@Param("minProfit") BigDecimal minProfit,
-                                     @Param("maxProfit") BigDecimal maxProfit);
+    @Query("SELECT " + CLIENT_DTO + " FROM Client c WHERE c.profit BETWEEN :minProfit AND :maxProfit")
+    List<ClientResponseDto> findDtosByProfitBetween(@Param("minProfit") BigDecimal minProfit,
+                                                    @Param("maxProfit") BigDecimal maxProfit);
 
     @Query("SELECT c FROM Client c WHERE c.id = :id")
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -0,0 +1,65 @@
+package com.lukianchykov.ordermanagementapplication.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the {@code cluster_transactions} table. Both resolutions only move a
+ * {@code PREPARED} row, so the order's commit and an abort exclude each other through the row lock.
+ */
+@Repository
+public class ClusterTransactionJdbcRepository {
+
+    private static final String PREPARED = "PREPARED";
+
+    private static final String COMMITTED = "COMMITTED";
+
+    private static final String ABORTED = "ABORTED";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertPrepared(String id, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO cluster_transactions (id, state, created_at) VALUES (?, ?, ?)",
+            id, PREPARED, createdAt);
+    }
+
+    /**
+     * Marks the transactions committed and returns the ids that were no longer prepared; run it in
+     * the transaction writing their orders.
+     */
+    public List<String> commit(List<String> ids) {
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE cluster_transactions SET state = ? WHERE id = ? AND state = ?",
+            ids.stream().map(id -> new Object[] {COMMITTED, id, PREPARED}).toList());
+        List<String> rejected = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Marks the transaction aborted unless its order was committed first and returns whether it is
+     * aborted. A missing row counts as aborted: it was never prepared or was deleted long after
+     * its outcome.
+     */
+    public boolean abort(String id) {
+        if (jdbcTemplate.update("UPDATE cluster_transactions SET state = ? WHERE id = ? AND state = ?",
+            ABORTED, id, PREPARED) > 0) {
+            return true;
+        }
+        return !jdbcTemplate.queryForList("SELECT state FROM cluster_transactions WHERE id = ?", String.class, id)
+            .contains(COMMITTED);
+    }
+
+    public int deleteCreatedBefore(LocalDateTime createdBefore) {
+        return jdbcTemplate.update("DELETE FROM cluster_transactions WHERE created_at < ?", createdBefore);
+    }
+}
@@ -0,0 +1,44 @@
+package com.lukianchykov.ordermanagementapplication.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the {@code idempotency_keys} table.
+ */
+@Repository
+public class IdempotencyJdbcRepository {
+
+    public record StoredResponse(String fingerprint, String response) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<StoredResponse> find(String id, LocalDateTime now) {
+        return jdbcTemplate.query("SELECT fingerprint, response FROM idempotency_keys WHERE id = ? AND expires_at > ?",
+            (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response")),
+            id, now).stream().findFirst();
+    }
+
+    /**
+     * Stores the response unless the key is already stored, e.g. by another instance.
+     */
+    public void insert(String id, String fingerprint, String response, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, response, created_at, expires_at) " +
+                "VALUES (?, ?, ?, ?, ?)", id, fingerprint, response, createdAt, expiresAt);
+        } catch (DuplicateKeyException e) {
+            // first writer wins, both hold the response of the same request
+        }
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", now);
+    }
+}
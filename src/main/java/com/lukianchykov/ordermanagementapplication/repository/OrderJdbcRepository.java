@@ -0,0 +1,155 @@
+package com.lukianchykov.ordermanagementapplication.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC writes for engines that validate orders in memory and only need the database to
+ * persist the outcome. Client balances are changed by deltas rather than by writing back a loaded
+ * value, and rows are touched in ascending id order so concurrent batches cannot deadlock.
+ * Callers provide the transaction.
+ */
+@Repository
+public class OrderJdbcRepository {
+
+    /**
+     * Order to insert; {@code price} is in minor units.
+     */
+    public record OrderRow(String name,
+                           long supplierId,
+                           long consumerId,
+                           long price,
+                           LocalDateTime processingStartTime,
+                           LocalDateTime processingEndTime,
+                           LocalDateTime createdAt) {
+    }
+
+    private static final String INSERT_ORDERS =
+        "INSERT INTO orders (name, supplier_id, consumer_id, price, processing_start_time, processing_end_time, created_at) VALUES ";
+
+    private static final String ORDER_VALUES = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    private static final String SELECT_BALANCES = "SELECT id, profit, active FROM clients";
+
+    private static final int BALANCE_FETCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<ClientBalance> findBalance(long clientId) {
+        return jdbcTemplate.query(SELECT_BALANCES + " WHERE id = ?", (rs, rowNum) -> balance(rs), clientId)
+            .stream().findFirst();
+    }
+
+    /**
+     * Streams the balance of every client; run it in a transaction so PostgreSQL fetches the rows
+     * in batches instead of all at once.
+     */
+    public void forEachBalance(Consumer<ClientBalance> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_BALANCES);
+            ps.setFetchSize(BALANCE_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(balance(rs)));
+    }
+
+    public Optional<Long> findOrderId(String name, long supplierId, long consumerId) {
+        return jdbcTemplate.queryForList("SELECT id FROM orders WHERE name = ? AND supplier_id = ? AND consumer_id = ?",
+            Long.class, name, supplierId, consumerId).stream().findFirst();
+    }
+
+    /**
+     * Whether the business key is taken in {@code order_keys}, which only exists once the orders
+     * table is partitioned and holds the keys of every partition and of the archive.
+     */
+    public boolean existsBusinessKey(String name, long supplierId, long consumerId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM order_keys WHERE name = ? AND supplier_id = ? AND consumer_id = ?",
+            Integer.class, name, supplierId, consumerId).isEmpty();
+    }
+
+    /**
+     * Inserts the orders with multi-row statements and returns their generated ids in the order of
+     * {@code orders}. Their profit changes are applied separately by {@link #applyProfitChanges}.
+     */
+    public List<Long> insertOrders(List<OrderRow> orders) {
+        List<Long> ids = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += MAX_ROWS_PER_INSERT) {
+            ids.addAll(insertChunk(orders.subList(from, Math.min(orders.size(), from + MAX_ROWS_PER_INSERT))));
+        }
+        return ids;
+    }
+
+    /**
+     * Adds {@code amounts[i]} to the profit of {@code clientIds[i]} with one batched update per
+     * client; ids should be ascending so that concurrent writers lock rows in the same order.
+     */
+    public void applyProfitChanges(long[] clientIds, long[] amounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(clientIds.length);
+        for (int i = 0; i < clientIds.length; i++) {
+            args.add(new Object[] {Money.toBigDecimal(amounts[i]), now, clientIds[i]});
+        }
+        jdbcTemplate.batchUpdate("UPDATE clients SET profit = profit + ?, updated_at = ? WHERE id = ?", args);
+    }
+
+    public void deactivateClients(List<Long> clientIds, LocalDateTime deactivatedAt) {
+        List<Object[]> args = clientIds.stream().sorted()
+            .map(id -> new Object[] {deactivatedAt, deactivatedAt, id})
+            .toList();
+        jdbcTemplate.batchUpdate("UPDATE clients SET active = FALSE, deactivated_at = ?, updated_at = ? WHERE id = ?", args);
+    }
+
+    private List<Long> insertChunk(List<OrderRow> orders) {
+        String sql = INSERT_ORDERS + String.join(", ", Collections.nCopies(orders.size(), ORDER_VALUES));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] {"id"});
+            int parameter = 1;
+            for (OrderRow order : orders) {
+                ps.setString(parameter++, order.name());
+                ps.setLong(parameter++, order.supplierId());
+                ps.setLong(parameter++, order.consumerId());
+                ps.setBigDecimal(parameter++, Money.toBigDecimal(order.price()));
+                ps.setObject(parameter++, order.processingStartTime());
+                ps.setObject(parameter++, order.processingEndTime());
+                ps.setObject(parameter++, order.createdAt());
+            }
+            return ps;
+        }, keyHolder);
+
+        List<Long> ids = keyHolder.getKeyList().stream()
+            .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+            .toList();
+        if (ids.size() != orders.size()) {
+            throw new IllegalStateException("Expected " + orders.size() + " generated order ids, got " + ids.size());
+        }
+        return ids;
+    }
+
+    private static ClientBalance balance(ResultSet rs) throws SQLException {
+        return new ClientBalance(
+            rs.getLong("id"),
+            Money.of(rs.getBigDecimal("profit")),
+            rs.getBoolean("active"),
+            0L);
+    }
+}
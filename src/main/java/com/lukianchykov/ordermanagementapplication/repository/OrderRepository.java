@@ -2,24 +2,60 @@ package com.lukianchykov.ordermanagementapplication.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import com.lukianchykov.ordermanagementapplication.domain.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findBySupplierIdOrderByCreatedAtDesc(Long supplierId);
-    
-    List<Order> findByConsumerIdOrderByCreatedAtDesc(Long consumerId);
-    
-    @Query("SELECT o FROM Order o WHERE o.supplier.id = :clientId OR o.consumer.id = :clientId " +
-           "ORDER BY o.createdAt DESC")
-    List<Order> findByClientId(@Param("clientId") Long clientId);
+    String WITH_CLIENTS = "SELECT o FROM Order o JOIN FETCH o.supplier JOIN FETCH o.consumer ";
+
+    String STREAM_FETCH_SIZE = "500";
+
+    @Query(WITH_CLIENTS + "WHERE o.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Order> findByIdWithClients(@Param("id") Long id);
+
+    @Query(WITH_CLIENTS + "ORDER BY o.id")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE)})
+    Stream<Order> streamAllWithClients();
+
+    @Query(WITH_CLIENTS + "WHERE o.supplier.id = :clientId OR o.consumer.id = :clientId ORDER BY o.createdAt DESC")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE)})
+    Stream<Order> streamByClientIdWithClients(@Param("clientId") Long clientId);
+
+    @Query(WITH_CLIENTS + "WHERE o.supplier.id = :supplierId ORDER BY o.createdAt DESC")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE)})
+    Stream<Order> streamBySupplierIdWithClients(@Param("supplierId") Long supplierId);
+
+    @Query(WITH_CLIENTS + "WHERE o.consumer.id = :consumerId ORDER BY o.createdAt DESC")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE)})
+    Stream<Order> streamByConsumerIdWithClients(@Param("consumerId") Long consumerId);
+
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    long findMaxId();
+
+    @Query("SELECT o.id, o.supplier.id, o.consumer.id FROM Order o WHERE o.id > :watermark ORDER BY o.id")
+    List<Object[]> findParticipantsAfter(@Param("watermark") long watermark);
+
+    @Query("SELECT o.supplier.id, MAX(o.id) FROM Order o GROUP BY o.supplier.id")
+    List<Object[]> findLastSuppliedOrderIds();
+
+    @Query("SELECT o.consumer.id, MAX(o.id) FROM Order o GROUP BY o.consumer.id")
+    List<Object[]> findLastConsumedOrderIds();
 
     @Query("SELECT o FROM Order o WHERE o.name = :name AND o.supplier.id = :supplierId AND o.consumer.id = :consumerId")
     Optional<Order> findByBusinessKeyForUpdate(@Param("name") String name,
@@ -0,0 +1,101 @@
+package com.lukianchykov.ordermanagementapplication.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.domain.OutboxEventType;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxMessage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the {@code outbox_events} table. Appends join the caller's transaction.
+ */
+@Repository
+public class OutboxJdbcRepository {
+
+    private static final RowMapper<OutboxMessage> MESSAGE = (rs, rowNum) -> new OutboxMessage(
+        rs.getLong("id"),
+        OutboxEventType.valueOf(rs.getString("type")),
+        rs.getLong("aggregate_id"),
+        rs.getString("payload"),
+        rs.getObject("created_at", LocalDateTime.class));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void append(OutboxEventType type, List<Long> aggregateIds, List<String> payloads, LocalDateTime createdAt) {
+        List<Object[]> args = new ArrayList<>(aggregateIds.size());
+        for (int i = 0; i < aggregateIds.size(); i++) {
+            args.add(new Object[] {type.name(), aggregateIds.get(i), payloads.get(i), createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (type, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?)", args);
+    }
+
+    public List<OutboxMessage> findAfter(long offset, int limit) {
+        return jdbcTemplate.query("SELECT id, type, aggregate_id, payload, created_at FROM outbox_events " +
+            "WHERE id > ? ORDER BY id LIMIT ?", MESSAGE, offset, limit);
+    }
+
+    public List<OutboxMessage> findBetween(long afterOffset, long maxOffset, int limit) {
+        return jdbcTemplate.query("SELECT id, type, aggregate_id, payload, created_at FROM outbox_events " +
+            "WHERE id > ? AND id <= ? ORDER BY id LIMIT ?", MESSAGE, afterOffset, maxOffset, limit);
+    }
+
+    public List<OutboxMessage> findByOffsets(Collection<Long> offsets) {
+        String sql = "SELECT id, type, aggregate_id, payload, created_at FROM outbox_events WHERE id IN (" +
+            String.join(", ", Collections.nCopies(offsets.size(), "?")) + ") ORDER BY id";
+        return jdbcTemplate.query(sql, MESSAGE, offsets.toArray());
+    }
+
+    public long findFirstOffset() {
+        Long offset = jdbcTemplate.queryForObject("SELECT MIN(id) FROM outbox_events", Long.class);
+        return offset != null ? offset : 0L;
+    }
+
+    public long findLastOffset() {
+        Long offset = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+        return offset != null ? offset : 0L;
+    }
+
+    /**
+     * Offset up to which events may have been deleted by {@link #deleteCreatedBefore}, or zero.
+     */
+    public long findPurgedOffset() {
+        List<Long> offsets = jdbcTemplate.queryForList("SELECT purged_offset FROM outbox_purges WHERE id = 1", Long.class);
+        return offsets.isEmpty() ? 0L : offsets.get(0);
+    }
+
+    /**
+     * Deletes the events created before the given time up to {@code maxOffset}, but never the newest
+     * event, so the last offset never goes back unless the table is recreated. The purge watermark
+     * is raised before the events are deleted.
+     */
+    public int deleteCreatedBefore(LocalDateTime createdBefore, long maxOffset) {
+        Long purgedOffset = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events WHERE created_at < ? " +
+            "AND id <= ? AND id < (SELECT MAX(id) FROM outbox_events)", Long.class, createdBefore, maxOffset);
+        if (purgedOffset == null) {
+            return 0;
+        }
+        raisePurgedOffset(purgedOffset);
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE created_at < ? AND id <= ?", createdBefore, purgedOffset);
+    }
+
+    private void raisePurgedOffset(long offset) {
+        String raise = "UPDATE outbox_purges SET purged_offset = GREATEST(purged_offset, ?) WHERE id = 1";
+        if (jdbcTemplate.update(raise, offset) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO outbox_purges (id, purged_offset) VALUES (1, ?)", offset);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(raise, offset);
+            }
+        }
+    }
+}
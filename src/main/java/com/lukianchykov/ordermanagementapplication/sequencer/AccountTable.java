@@ -0,0 +1,171 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.util.Arrays;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+
+/**
+ * Balances of the clients owned by a shard, as seen by that shard. Debits are reserved as soon as
+ * an order is accepted and only released on abort; credits are applied once the order is
+ * committed, so a pending order can never make another order pass the threshold check. Amounts
+ * are in minor units.
+ * <p>
+ * Accounts are rows of primitive column arrays, found by client id through a {@link LongIntIndex},
+ * so looking up and changing a balance allocates nothing and a shard with millions of clients holds
+ * a handful of arrays instead of an object per client. Rows never move: a row number stays valid
+ * while the table grows. Not thread-safe; a table is confined to its shard thread.
+ */
+final class AccountTable {
+
+    static final int NO_ROW = -1;
+
+    private final LongIntIndex index;
+
+    private long[] ids;
+
+    private long[] available;
+
+    private long[] pendingDebits;
+
+    private long[] lastOrderIds;
+
+    private long[] lastOrderTimes;
+
+    private int[] holds;
+
+    private boolean[] active;
+
+    private int size;
+
+    AccountTable(int expectedClients) {
+        int capacity = 16;
+        while (capacity < expectedClients) {
+            capacity <<= 1;
+        }
+        index = new LongIntIndex(capacity);
+        ids = new long[capacity];
+        available = new long[capacity];
+        pendingDebits = new long[capacity];
+        lastOrderIds = new long[capacity];
+        lastOrderTimes = new long[capacity];
+        holds = new int[capacity];
+        active = new boolean[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Row of the client, or {@link #NO_ROW} when it is not loaded.
+     */
+    int find(long clientId) {
+        int row = index.get(clientId);
+        return row == LongIntIndex.ABSENT ? NO_ROW : row;
+    }
+
+    int add(ClientBalance balance) {
+        if (find(balance.id()) != NO_ROW) {
+            throw new IllegalStateException("Client " + balance.id() + " is already loaded");
+        }
+        if (size == ids.length) {
+            growRows();
+        }
+        index.put(balance.id(), size);
+        int row = size++;
+        ids[row] = balance.id();
+        available[row] = balance.profit();
+        pendingDebits[row] = Money.ZERO;
+        lastOrderIds[row] = balance.lastOrderId();
+        lastOrderTimes[row] = 0L;
+        holds[row] = 0;
+        active[row] = balance.active();
+        return row;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    long available(int row) {
+        return available[row];
+    }
+
+    long committedProfit(int row) {
+        return Money.add(available[row], pendingDebits[row]);
+    }
+
+    boolean active(int row) {
+        return active[row];
+    }
+
+    void setActive(int row, boolean value) {
+        active[row] = value;
+    }
+
+    long lastOrderId(int row) {
+        return lastOrderIds[row];
+    }
+
+    /**
+     * Epoch millis of the latest order committed through this table, or zero when none was; orders
+     * committed before the client was loaded are only in the database.
+     */
+    long lastOrderTime(int row) {
+        return lastOrderTimes[row];
+    }
+
+    void recordOrder(int row, long orderId, long orderedAtMillis) {
+        lastOrderIds[row] = Math.max(lastOrderIds[row], orderId);
+        lastOrderTimes[row] = Math.max(lastOrderTimes[row], orderedAtMillis);
+    }
+
+    /**
+     * Orders of the client that were accepted here but are committed elsewhere: by another shard or
+     * by another cluster node. Deactivating the client waits until there are none.
+     */
+    int holds(int row) {
+        return holds[row];
+    }
+
+    void hold(int row) {
+        holds[row]++;
+    }
+
+    /**
+     * Drops one hold and returns how many are left.
+     */
+    int releaseHold(int row) {
+        return --holds[row];
+    }
+
+    void reserveDebit(int row, long amount) {
+        available[row] = Money.subtract(available[row], amount);
+        pendingDebits[row] = Money.add(pendingDebits[row], amount);
+    }
+
+    void commitDebit(int row, long amount) {
+        pendingDebits[row] = Money.subtract(pendingDebits[row], amount);
+    }
+
+    void releaseDebit(int row, long amount) {
+        available[row] = Money.add(available[row], amount);
+        pendingDebits[row] = Money.subtract(pendingDebits[row], amount);
+    }
+
+    void commitCredit(int row, long amount) {
+        available[row] = Money.add(available[row], amount);
+    }
+
+    private void growRows() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        available = Arrays.copyOf(available, capacity);
+        pendingDebits = Arrays.copyOf(pendingDebits, capacity);
+        lastOrderIds = Arrays.copyOf(lastOrderIds, capacity);
+        lastOrderTimes = Arrays.copyOf(lastOrderTimes, capacity);
+        holds = Arrays.copyOf(holds, capacity);
+        active = Arrays.copyOf(active, capacity);
+    }
+}
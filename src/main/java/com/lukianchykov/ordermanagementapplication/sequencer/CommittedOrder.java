@@ -0,0 +1,14 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CommittedOrder(long id,
+                             String name,
+                             long supplierId,
+                             long consumerId,
+                             BigDecimal price,
+                             LocalDateTime processingStartTime,
+                             LocalDateTime processingEndTime,
+                             LocalDateTime createdAt) {
+}
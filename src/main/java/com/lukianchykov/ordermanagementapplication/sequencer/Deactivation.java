@@ -0,0 +1,16 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+
+/**
+ * Deactivation of one client; with {@code criteria} the shard only deactivates the client when its
+ * own balance and last order still match them, {@code null} deactivates it unconditionally.
+ */
+record Deactivation(long clientId, DeactivationCriteria criteria, CompletableFuture<Void> result) {
+
+    Deactivation(long clientId, DeactivationCriteria criteria) {
+        this(clientId, criteria, new CompletableFuture<>());
+    }
+}
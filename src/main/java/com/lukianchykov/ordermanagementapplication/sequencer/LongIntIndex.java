@@ -0,0 +1,83 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+/**
+ * Open-addressing map from a positive {@code long} key to an {@code int}, kept in two primitive
+ * arrays with linear probing, so lookups and inserts allocate nothing until the index grows. Keys
+ * are never removed. Not thread-safe.
+ */
+final class LongIntIndex {
+
+    static final int ABSENT = -1;
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int shift;
+
+    private int size;
+
+    LongIntIndex(int expectedKeys) {
+        int capacity = 16;
+        while (capacity < expectedKeys * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Value of the key, or {@link #ABSENT}.
+     */
+    int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? ABSENT : values[slot];
+    }
+
+    void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        int slot = slot(key);
+        values[slot] = value;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                allocate(keys.length * 2);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        // Fibonacci hashing spreads sequential ids over the whole index
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        shift = Long.numberOfLeadingZeros(capacity - 1);
+        if (oldKeys == null) {
+            return;
+        }
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = slot(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.util.Arrays;
+
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+
+/**
+ * Net profit change per client over a group of orders, in minor units. Every order moves its price
+ * from the consumer to the supplier, so chains collapse into the net change of each client and a
+ * cycle of equal prices cancels out completely. This is the same netting the group commit always
+ * did with a {@code TreeMap<Long, Long>}; the table only keeps it in primitive arrays, so netting a
+ * group allocates no boxed keys or entries. Client ids must be positive.
+ */
+final class NetPositions {
+
+    private final LongIntIndex index;
+
+    private long[] clientIds;
+
+    private long[] amounts;
+
+    private int clients;
+
+    NetPositions(int expectedClients) {
+        int capacity = Math.max(8, expectedClients);
+        index = new LongIntIndex(capacity);
+        clientIds = new long[capacity];
+        amounts = new long[capacity];
+    }
+
+    void transfer(long supplierId, long consumerId, long price) {
+        add(supplierId, price);
+        add(consumerId, Money.negate(price));
+    }
+
+    void add(long clientId, long amount) {
+        int position = index.get(clientId);
+        if (position != LongIntIndex.ABSENT) {
+            amounts[position] = Money.add(amounts[position], amount);
+            return;
+        }
+        if (clients == clientIds.length) {
+            clientIds = Arrays.copyOf(clientIds, clients * 2);
+            amounts = Arrays.copyOf(amounts, clients * 2);
+        }
+        index.put(clientId, clients);
+        clientIds[clients] = clientId;
+        amounts[clients] = amount;
+        clients++;
+    }
+
+    long amount(long clientId) {
+        int position = index.get(clientId);
+        return position == LongIntIndex.ABSENT ? Money.ZERO : amounts[position];
+    }
+
+    /**
+     * Number of clients touched by the orders, including those whose position netted to zero.
+     */
+    int clients() {
+        return clients;
+    }
+
+    /**
+     * Clients whose net position is not zero, in ascending id order.
+     */
+    long[] changedClients() {
+        long[] changed = new long[clients];
+        int count = 0;
+        for (int position = 0; position < clients; position++) {
+            if (amounts[position] != Money.ZERO) {
+                changed[count++] = clientIds[position];
+            }
+        }
+        changed = Arrays.copyOf(changed, count);
+        Arrays.sort(changed);
+        return changed;
+    }
+
+    /**
+     * Net positions of {@code clientIds}, in the same order.
+     */
+    long[] amounts(long[] clientIds) {
+        long[] result = new long[clientIds.length];
+        for (int i = 0; i < clientIds.length; i++) {
+            result[i] = amount(clientIds[i]);
+        }
+        return result;
+    }
+}
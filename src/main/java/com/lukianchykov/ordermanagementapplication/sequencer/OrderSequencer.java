@@ -0,0 +1,313 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterPartitionMap;
+import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.TooManyRequestsException;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import com.lukianchykov.ordermanagementapplication.repository.ClusterTransactionJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OrderJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Single-writer order engine, enabled with {@code order.engine=sequencer}. Clients are hashed to
+ * shards, each owned by one thread that keeps the balances of its clients in memory, validates
+ * orders against them without database locks and group-commits what it accepted within
+ * {@code order.sequencer.group-commit-window-ms}, or up to {@code order.sequencer.max-batch} orders,
+ * in one transaction. An order between clients of two shards is reserved on the lower shard first and
+ * committed by the higher one, so both shards see cross-shard orders in the same relative order.
+ * Balances are loaded into the shards on first use, or all at startup with
+ * {@code order.sequencer.preload-accounts}; from then on the shards are their authority.
+ */
+@Component
+@Slf4j
+public class OrderSequencer {
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Autowired
+    private ClusterTransactionJdbcRepository clusterTransactionJdbcRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterPartitionMap clusterPartitionMap;
+
+    @Value("${order.engine:locking}")
+    private String engine;
+
+    @Value("${order.sequencer.shards:4}")
+    private int shardCount;
+
+    @Value("${order.sequencer.inbox-capacity:8192}")
+    private int inboxCapacity;
+
+    @Value("${order.sequencer.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${order.sequencer.group-commit-window-ms:2}")
+    private long groupCommitWindowMs;
+
+    @Value("${order.sequencer.recent-keys:100000}")
+    private int recentKeys;
+
+    @Value("${order.sequencer.response-timeout-ms:30000}")
+    private long responseTimeoutMs;
+
+    @Value("${order.sequencer.preload-accounts:false}")
+    private boolean preloadAccounts;
+
+    @Value("${cluster.prepare-timeout-ms:120000}")
+    private long prepareTimeoutMs;
+
+    private Shard[] shards;
+
+    private volatile boolean accepting;
+
+    public boolean isEnabled() {
+        return "sequencer".equalsIgnoreCase(engine);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Timer commitTimer = Timer.builder("order.sequencer.commit")
+            .description("Time to commit one sequencer batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        DistributionSummary batchSize = DistributionSummary.builder("order.sequencer.batch.size")
+            .description("Orders and client updates committed per sequencer batch")
+            .register(meterRegistry);
+        Counter isolatedRetries = Counter.builder("order.sequencer.isolated.retries")
+            .description("Orders retried in their own transaction after their group failed to commit")
+            .register(meterRegistry);
+        Counter nettedUpdates = Counter.builder("order.sequencer.netted.updates")
+            .description("Per-order client balance changes folded into one update per client by netting each group")
+            .register(meterRegistry);
+
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, inboxCapacity, maxBatch, TimeUnit.MILLISECONDS.toNanos(groupCommitWindowMs),
+                recentKeys / shardCount, orderJdbcRepository, clusterTransactionJdbcRepository, outboxWriter, transactionTemplate, clientBalanceCache,
+                commitTimer, batchSize, isolatedRetries, nettedUpdates);
+        }
+        Gauge.builder("order.sequencer.accounts", this, OrderSequencer::loadedAccounts)
+            .description("Client accounts held in memory by the sequencer shards")
+            .register(meterRegistry);
+        if (preloadAccounts) {
+            preload(transactionTemplate);
+        }
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        accepting = true;
+        log.info("Order sequencer started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+        accepting = false;
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Shard shard : shards) {
+            shard.awaitStop(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        log.info("Order sequencer stopped");
+    }
+
+    /**
+     * Sequences an already validated order and waits for it to be committed. Business rule
+     * violations and duplicates are thrown as by the locking engine.
+     */
+    public CommittedOrder createOrder(OrderCreateDto dto, LocalDateTime processingStartTime,
+                                      LocalDateTime processingEndTime) {
+        Shard supplierShard = shardOf(dto.getSupplierId());
+        Shard consumerShard = shardOf(dto.getConsumerId());
+        Shard first = supplierShard.index() <= consumerShard.index() ? supplierShard : consumerShard;
+        Shard second = supplierShard == consumerShard ? null : (first == supplierShard ? consumerShard : supplierShard);
+
+        SequencedOrder order = new SequencedOrder(dto.getName(), dto.getSupplierId(), dto.getConsumerId(),
+            Money.of(dto.getPrice()), processingStartTime, processingEndTime, first, second, first == supplierShard,
+            null);
+        submit(first, () -> first.place(order));
+        return await(order.result);
+    }
+
+    /**
+     * Sequences an order whose supplier is owned by another cluster node and was already prepared
+     * there; only the consumer is checked and debited here. The database write still credits the
+     * supplier, and fails the order when {@code transactionId} was aborted in the meantime.
+     */
+    public CommittedOrder createOrderWithRemoteSupplier(OrderCreateDto dto, LocalDateTime processingStartTime,
+                                                        LocalDateTime processingEndTime, String transactionId) {
+        Shard shard = shardOf(dto.getConsumerId());
+        SequencedOrder order = new SequencedOrder(dto.getName(), dto.getSupplierId(), dto.getConsumerId(),
+            Money.of(dto.getPrice()), processingStartTime, processingEndTime, shard, null, false, transactionId);
+        submit(shard, () -> shard.place(order));
+        return await(order.result);
+    }
+
+    /**
+     * Prepares the supplier side of an order coordinated by the node owning its consumer. Throws
+     * as {@link #createOrder} when the supplier is unknown or inactive; otherwise the supplier
+     * stays active until {@link #commitCredit} or {@link #abortCredit}, or until
+     * {@code cluster.prepare-timeout-ms} passes and the transaction is aborted unless its order was
+     * committed first.
+     */
+    public void prepareCredit(String transactionId, long supplierId, long consumerId, String orderName,
+                              BigDecimal price) {
+        Shard shard = shardOf(supplierId);
+        PreparedCredit credit = new PreparedCredit(transactionId, supplierId, consumerId, orderName, Money.of(price),
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(prepareTimeoutMs), new CompletableFuture<>());
+        submit(shard, () -> shard.prepareCredit(credit));
+        await(credit.result());
+    }
+
+    public void commitCredit(String transactionId, long supplierId, long orderId) {
+        Shard shard = shardOf(supplierId);
+        shard.send(() -> shard.commitCredit(transactionId, supplierId, orderId));
+    }
+
+    public void abortCredit(String transactionId, long supplierId) {
+        Shard shard = shardOf(supplierId);
+        shard.send(() -> shard.abortCredit(transactionId));
+    }
+
+    public void deactivateClient(long clientId) {
+        Shard shard = shardOf(clientId);
+        Deactivation deactivation = new Deactivation(clientId, null);
+        submit(shard, () -> shard.deactivate(deactivation));
+        await(deactivation.result());
+    }
+
+    /**
+     * Deactivates the clients on their shards, ordered after the orders those shards already
+     * accepted, and returns how many were deactivated. Unknown and already inactive clients are
+     * skipped, and so are clients that no longer match the criteria by the time their shard has
+     * committed their pending orders.
+     */
+    public int deactivateClients(Collection<Long> clientIds, DeactivationCriteria criteria) {
+        Map<Shard, List<Deactivation>> byShard = new LinkedHashMap<>();
+        for (Long clientId : clientIds) {
+            byShard.computeIfAbsent(shardOf(clientId), shard -> new ArrayList<>())
+                .add(new Deactivation(clientId, criteria));
+        }
+        byShard.forEach((shard, deactivations) -> submit(shard, () -> deactivations.forEach(shard::deactivate)));
+
+        int deactivated = 0;
+        for (List<Deactivation> deactivations : byShard.values()) {
+            for (Deactivation deactivation : deactivations) {
+                try {
+                    await(deactivation.result());
+                    deactivated++;
+                } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                    log.debug("Client {} not deactivated: {}", deactivation.clientId(), e.getMessage());
+                }
+            }
+        }
+        return deactivated;
+    }
+
+    private void submit(Shard shard, Runnable task) {
+        if (!accepting) {
+            throw new IllegalStateException("Order sequencer is not running");
+        }
+        if (!shard.offer(task)) {
+            throw new TooManyRequestsException("Order sequencer shard " + shard.index() + " is full, retry later", 1);
+        }
+    }
+
+    /**
+     * Loads the balances of all clients owned by this node into their shards, so no order waits
+     * for a balance to be read from the database.
+     */
+    private void preload(TransactionTemplate transactionTemplate) {
+        long startTime = System.currentTimeMillis();
+        long[] loaded = new long[1];
+        transactionTemplate.executeWithoutResult(status -> orderJdbcRepository.forEachBalance(balance -> {
+            if (clusterPartitionMap.isLocal(balance.id())) {
+                shardOf(balance.id()).preload(balance);
+                loaded[0]++;
+            }
+        }));
+        log.info("Preloaded {} client balances in {} ms", loaded[0], System.currentTimeMillis() - startTime);
+    }
+
+    private double loadedAccounts() {
+        long loaded = 0;
+        for (Shard shard : shards) {
+            loaded += shard.loadedAccounts();
+        }
+        return loaded;
+    }
+
+    private Shard shardOf(long clientId) {
+        return shards[Math.floorMod(Long.hashCode(clientId * 0x9E3779B97F4A7C15L), shards.length)];
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(responseTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Order sequencer failed", e.getCause());
+        } catch (TimeoutException e) {
+            // a shard drops a deferred deactivation whose caller gave up
+            future.cancel(false);
+            throw new IllegalStateException("Order sequencer did not respond within " + responseTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order sequencer", e);
+        }
+    }
+}
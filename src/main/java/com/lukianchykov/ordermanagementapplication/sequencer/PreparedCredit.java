@@ -0,0 +1,18 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Participant side of an order whose consumer is owned by another cluster node: the supplier was
+ * checked and is kept active until the coordinator reports the outcome, or until
+ * {@code expiresAtNanos}, when the outcome is looked up in the orders table. The amount is in minor
+ * units.
+ */
+record PreparedCredit(String transactionId,
+                      long supplierId,
+                      long consumerId,
+                      String orderName,
+                      long amount,
+                      long expiresAtNanos,
+                      CompletableFuture<Void> result) {
+}
@@ -0,0 +1,80 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.repository.OrderJdbcRepository;
+
+/**
+ * An order travelling through the shards. {@code first} is the shard with the lower index among
+ * the shards owning the supplier and the consumer; it reserves its side and forwards the order to
+ * {@code second}, which checks its side, commits and reports the outcome back. Orders between
+ * clients of one shard have no {@code second}. With {@code remoteSupplier} the supplier belongs to
+ * another cluster node, which prepared its credit under {@code transactionId}; the order then only
+ * touches the consumer's shard and is only committed while that transaction is still prepared.
+ * The price is in minor units.
+ */
+final class SequencedOrder {
+
+    final String name;
+
+    final long supplierId;
+
+    final long consumerId;
+
+    final long price;
+
+    final LocalDateTime processingStartTime;
+
+    final LocalDateTime processingEndTime;
+
+    final Shard first;
+
+    final Shard second;
+
+    final boolean firstOwnsSupplier;
+
+    final boolean remoteSupplier;
+
+    final String transactionId;
+
+    final CompletableFuture<CommittedOrder> result = new CompletableFuture<>();
+
+    SequencedOrder(String name, long supplierId, long consumerId, long price,
+                   LocalDateTime processingStartTime, LocalDateTime processingEndTime,
+                   Shard first, Shard second, boolean firstOwnsSupplier, String transactionId) {
+        this.name = name;
+        this.supplierId = supplierId;
+        this.consumerId = consumerId;
+        this.price = price;
+        this.processingStartTime = processingStartTime;
+        this.processingEndTime = processingEndTime;
+        this.first = first;
+        this.second = second;
+        this.firstOwnsSupplier = firstOwnsSupplier;
+        this.remoteSupplier = transactionId != null;
+        this.transactionId = transactionId;
+    }
+
+    boolean crossShard() {
+        return second != null;
+    }
+
+    OrderKey key() {
+        return new OrderKey(name, supplierId, consumerId);
+    }
+
+    OrderJdbcRepository.OrderRow toRow(LocalDateTime createdAt) {
+        return new OrderJdbcRepository.OrderRow(name, supplierId, consumerId, price,
+            processingStartTime, processingEndTime, createdAt);
+    }
+
+    CommittedOrder committed(long id, LocalDateTime createdAt) {
+        return new CommittedOrder(id, name, supplierId, consumerId, Money.toBigDecimal(price),
+            processingStartTime, processingEndTime, createdAt);
+    }
+
+    record OrderKey(String name, long supplierId, long consumerId) {
+    }
+}
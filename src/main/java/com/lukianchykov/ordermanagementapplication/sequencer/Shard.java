@@ -0,0 +1,752 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
+import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import com.lukianchykov.ordermanagementapplication.repository.ClusterTransactionJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OrderJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Owns the balances of a subset of clients. All state is confined to the shard thread: requests
+ * arrive through a bounded ring buffer, messages from other shards through an unbounded mailbox
+ * (so two shards forwarding to each other can never block), and everything accepted within the
+ * group commit window, or until the group is full, is written in one transaction. In cluster mode a
+ * shard also holds the prepared credits of suppliers whose orders are committed by another node;
+ * the {@code cluster_transactions} row of each credit decides whether its order or its expiry wins.
+ */
+@Slf4j
+final class Shard implements Runnable {
+
+    private static final long MIN_PROFIT_THRESHOLD = Money.ofUnits(-1000);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long EXPIRY_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int index;
+
+    private final RingBuffer<Runnable> inbox;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+    private final AccountTable accounts = new AccountTable(1024);
+
+    private final Map<SequencedOrder.OrderKey, Boolean> recentKeys;
+
+    private final List<SequencedOrder> batch = new ArrayList<>();
+
+    private final List<Deactivation> deactivations = new ArrayList<>();
+
+    private final Map<String, PreparedCredit> preparedCredits = new HashMap<>();
+
+    private final Map<String, Boolean> resolvedCredits;
+
+    private final Set<Long> staleAccounts = new HashSet<>();
+
+    private final List<Deactivation> deferredDeactivations = new ArrayList<>();
+
+    private final int maxBatch;
+
+    private final long groupWindowNanos;
+
+    private final OrderJdbcRepository orderJdbcRepository;
+
+    private final ClusterTransactionJdbcRepository clusterTransactionJdbcRepository;
+
+    private final OutboxWriter outboxWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ClientBalanceCache clientBalanceCache;
+
+    private final Timer commitTimer;
+
+    private final DistributionSummary batchSize;
+
+    private final Counter isolatedRetries;
+
+    private final Counter nettedUpdates;
+
+    private final Thread thread;
+
+    private volatile int loadedAccounts;
+
+    private long groupStartNanos;
+
+    private long lastExpiryCheckNanos = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    private volatile boolean sleeping;
+
+    Shard(int index, int inboxCapacity, int maxBatch, long groupWindowNanos, int recentKeyCapacity,
+          OrderJdbcRepository orderJdbcRepository, ClusterTransactionJdbcRepository clusterTransactionJdbcRepository,
+          OutboxWriter outboxWriter, TransactionTemplate transactionTemplate,
+          ClientBalanceCache clientBalanceCache, Timer commitTimer, DistributionSummary batchSize,
+          Counter isolatedRetries, Counter nettedUpdates) {
+        this.index = index;
+        this.inbox = new RingBuffer<>(inboxCapacity);
+        this.maxBatch = maxBatch;
+        this.groupWindowNanos = groupWindowNanos;
+        this.recentKeys = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SequencedOrder.OrderKey, Boolean> eldest) {
+                return size() > recentKeyCapacity;
+            }
+        };
+        this.resolvedCredits = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentKeyCapacity;
+            }
+        };
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.clusterTransactionJdbcRepository = clusterTransactionJdbcRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.clientBalanceCache = clientBalanceCache;
+        this.commitTimer = commitTimer;
+        this.batchSize = batchSize;
+        this.isolatedRetries = isolatedRetries;
+        this.nettedUpdates = nettedUpdates;
+        this.thread = new Thread(this, "order-sequencer-" + index);
+    }
+
+    /**
+     * Loads a client's balance before the shard thread is started.
+     */
+    void preload(ClientBalance balance) {
+        accounts.add(balance);
+        loadedAccounts = accounts.size();
+    }
+
+    /**
+     * Number of client accounts in the shard; may be read from any thread.
+     */
+    int loadedAccounts() {
+        return loadedAccounts;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops accepting work; the shard thread finishes what is queued and exits.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    void awaitStop(long timeoutMillis) throws InterruptedException {
+        thread.join(timeoutMillis);
+    }
+
+    int index() {
+        return index;
+    }
+
+    /**
+     * Enqueues a request from outside the sequencer; returns {@code false} when the inbox is full.
+     */
+    boolean offer(Runnable task) {
+        if (!inbox.offer(task)) {
+            return false;
+        }
+        wake();
+        return true;
+    }
+
+    /**
+     * Enqueues a message from another shard.
+     */
+    void send(Runnable task) {
+        mailbox.add(task);
+        wake();
+    }
+
+    @Override
+    public void run() {
+        while (running || !inbox.isEmpty() || !mailbox.isEmpty()) {
+            int processed = drain();
+            expirePreparedCredits();
+            if (pending() == 0) {
+                if (processed == 0) {
+                    idle(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            long waited = System.nanoTime() - groupStartNanos;
+            if (pending() >= maxBatch || waited >= groupWindowNanos || !running) {
+                flush();
+                if (!deferredDeactivations.isEmpty()) {
+                    resumeDeferred();
+                }
+            } else if (processed == 0) {
+                idle(groupWindowNanos - waited);
+            }
+        }
+        deferredDeactivations.forEach(deactivation -> deactivation.result()
+            .completeExceptionally(new IllegalStateException("Order sequencer stopped")));
+    }
+
+    void place(SequencedOrder order) {
+        try {
+            if (order.remoteSupplier) {
+                int consumer = account(order.consumerId);
+                requireActive(consumer, "consumer");
+                requireNew(order);
+                reserve(consumer, order);
+                accept(order);
+                return;
+            }
+            if (!order.crossShard()) {
+                int supplier = account(order.supplierId);
+                int consumer = account(order.consumerId);
+                requireActive(supplier, "supplier");
+                requireActive(consumer, "consumer");
+                requireNew(order);
+                reserve(consumer, order);
+                accept(order);
+                return;
+            }
+
+            int own;
+            if (order.firstOwnsSupplier) {
+                own = account(order.supplierId);
+                requireActive(own, "supplier");
+            } else {
+                own = account(order.consumerId);
+                requireActive(own, "consumer");
+                reserve(own, order);
+            }
+            // the order is committed by the second shard; a deactivation has to wait for settle()
+            accounts.hold(own);
+            order.second.send(() -> order.second.complete(order));
+        } catch (RuntimeException e) {
+            order.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Deactivates a client after the orders already accepted for it. A deactivation with criteria
+     * waits until none of the client's orders is in flight and is then rejected unless the
+     * committed profit and the last order of the account still match them, because orders
+     * accepted since the candidates were selected are not in the database yet.
+     */
+    void deactivate(Deactivation deactivation) {
+        try {
+            int account = account(deactivation.clientId());
+            requireActive(account);
+            if (deactivation.criteria() != null) {
+                if (inFlight(account)) {
+                    deferredDeactivations.add(deactivation);
+                    return;
+                }
+                requireMatches(account, deactivation.criteria());
+            }
+            // new orders are rejected from now on; those already held are committed first
+            accounts.setActive(account, false);
+            if (accounts.holds(account) > 0) {
+                deferredDeactivations.add(deactivation);
+                return;
+            }
+            startGroupIfEmpty();
+            deactivations.add(deactivation);
+        } catch (RuntimeException e) {
+            deactivation.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Checks the supplier of an order coordinated by another node and keeps it active until the
+     * credit is committed or aborted.
+     */
+    void prepareCredit(PreparedCredit credit) {
+        try {
+            int supplier = account(credit.supplierId());
+            requireActive(supplier, "supplier");
+            accounts.hold(supplier);
+            preparedCredits.put(credit.transactionId(), credit);
+            credit.result().complete(null);
+        } catch (RuntimeException e) {
+            credit.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Applies a prepared credit once its order was committed; ignored when the credit was already
+     * resolved, for example after it expired. A credit this shard never prepared, because it was
+     * prepared before this node restarted, is applied by re-reading the supplier's balance.
+     */
+    void commitCredit(String transactionId, long supplierId, long orderId) {
+        PreparedCredit credit = preparedCredits.remove(transactionId);
+        if (credit == null) {
+            if (resolvedCredits.containsKey(transactionId)) {
+                log.debug("Prepared credit {} is already resolved", transactionId);
+                return;
+            }
+            log.warn("Prepared credit {} of supplier {} is unknown, re-reading its balance", transactionId, supplierId);
+            int account = accounts.find(supplierId);
+            if (account != AccountTable.NO_ROW) {
+                accounts.recordOrder(account, orderId, System.currentTimeMillis());
+                staleAccounts.add(supplierId);
+                reloadStaleAccounts();
+            }
+            return;
+        }
+        resolvedCredits.put(transactionId, Boolean.TRUE);
+        int supplier = accounts.find(credit.supplierId());
+        accounts.commitCredit(supplier, credit.amount());
+        accounts.recordOrder(supplier, orderId, System.currentTimeMillis());
+        release(supplier);
+        publish(supplier);
+    }
+
+    void abortCredit(String transactionId) {
+        PreparedCredit credit = preparedCredits.remove(transactionId);
+        if (credit == null) {
+            log.debug("Prepared credit {} is already resolved", transactionId);
+            return;
+        }
+        resolvedCredits.put(transactionId, Boolean.FALSE);
+        release(accounts.find(credit.supplierId()));
+    }
+
+    /**
+     * Second half of a cross-shard order, run on the shard with the higher index.
+     */
+    private void complete(SequencedOrder order) {
+        boolean reserved = false;
+        try {
+            if (order.firstOwnsSupplier) {
+                int consumer = account(order.consumerId);
+                requireActive(consumer, "consumer");
+                requireNew(order);
+                reserve(consumer, order);
+                reserved = true;
+            } else {
+                requireActive(account(order.supplierId), "supplier");
+                requireNew(order);
+            }
+            accept(order);
+        } catch (RuntimeException e) {
+            if (reserved) {
+                accounts.releaseDebit(accounts.find(order.consumerId), order.price);
+            }
+            order.first.send(() -> order.first.settle(order, 0L, null));
+            order.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Outcome of a cross-shard order on the shard with the lower index; {@code orderId} is zero
+     * when the order was not committed.
+     */
+    private void settle(SequencedOrder order, long orderId, LocalDateTime createdAt) {
+        int own = accounts.find(order.firstOwnsSupplier ? order.supplierId : order.consumerId);
+        if (orderId == 0L) {
+            if (!order.firstOwnsSupplier) {
+                accounts.releaseDebit(own, order.price);
+            }
+        } else {
+            if (order.firstOwnsSupplier) {
+                accounts.commitCredit(own, order.price);
+            } else {
+                accounts.commitDebit(own, order.price);
+            }
+            accounts.recordOrder(own, orderId, toMillis(createdAt));
+        }
+        release(own);
+        publish(own);
+    }
+
+    /**
+     * Drops a hold of the client and resumes the deferred deactivations once no hold is left.
+     */
+    private void release(int account) {
+        if (accounts.releaseHold(account) == 0 && !deferredDeactivations.isEmpty()) {
+            resumeDeferred();
+        }
+    }
+
+    /**
+     * Queues the deferred deactivations whose clients have no order in flight any more. Those
+     * without criteria already made the client inactive; those with criteria are checked now, and
+     * dropped once their caller stopped waiting.
+     */
+    private void resumeDeferred() {
+        Iterator<Deactivation> deferred = deferredDeactivations.iterator();
+        while (deferred.hasNext()) {
+            Deactivation deactivation = deferred.next();
+            int account = accounts.find(deactivation.clientId());
+            if (deactivation.criteria() == null) {
+                if (accounts.holds(account) == 0) {
+                    deferred.remove();
+                    startGroupIfEmpty();
+                    deactivations.add(deactivation);
+                }
+                continue;
+            }
+            if (deactivation.result().isDone()) {
+                deferred.remove();
+                continue;
+            }
+            if (inFlight(account)) {
+                continue;
+            }
+            deferred.remove();
+            try {
+                requireActive(account);
+                requireMatches(account, deactivation.criteria());
+                accounts.setActive(account, false);
+                startGroupIfEmpty();
+                deactivations.add(deactivation);
+            } catch (RuntimeException e) {
+                deactivation.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Whether an order of the client was accepted but is not committed or aborted yet.
+     */
+    private boolean inFlight(int account) {
+        if (accounts.holds(account) > 0) {
+            return true;
+        }
+        long clientId = accounts.id(account);
+        for (SequencedOrder order : batch) {
+            if (order.supplierId == clientId || order.consumerId == clientId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void requireMatches(int account, DeactivationCriteria criteria) {
+        BigDecimal profit = Money.toBigDecimal(accounts.committedProfit(account));
+        if (criteria.minProfit() != null && profit.compareTo(criteria.minProfit()) < 0
+            || criteria.maxProfit() != null && profit.compareTo(criteria.maxProfit()) > 0) {
+            throw new IllegalArgumentException("Client profit " + profit + " no longer matches the criteria");
+        }
+        if (criteria.noOrdersSince() != null && accounts.lastOrderTime(account) >= toMillis(criteria.noOrdersSince())) {
+            throw new IllegalArgumentException("Client has orders since " + criteria.noOrdersSince());
+        }
+    }
+
+    /**
+     * Resolves prepared credits whose coordinator did not report an outcome in time by aborting
+     * their transaction. The abort loses to an order that was committed first, and an order that
+     * is still queued can no longer commit after it, so the credit is never dropped while its
+     * order can still be written. Credits that cannot be resolved are retried on the next check.
+     */
+    private void expirePreparedCredits() {
+        long now = System.nanoTime();
+        if (preparedCredits.isEmpty() && staleAccounts.isEmpty()
+            || now - lastExpiryCheckNanos < EXPIRY_CHECK_INTERVAL_NANOS) {
+            return;
+        }
+        lastExpiryCheckNanos = now;
+        reloadStaleAccounts();
+        List<PreparedCredit> expired = preparedCredits.values().stream()
+            .filter(credit -> now - credit.expiresAtNanos() >= 0)
+            .toList();
+        for (PreparedCredit credit : expired) {
+            try {
+                if (clusterTransactionJdbcRepository.abort(credit.transactionId())) {
+                    log.warn("Prepared credit {} of supplier {} expired, aborted", credit.transactionId(),
+                        credit.supplierId());
+                    abortCredit(credit.transactionId());
+                    continue;
+                }
+                long orderId = orderJdbcRepository.findOrderId(credit.orderName(), credit.supplierId(),
+                    credit.consumerId()).orElseThrow(() -> new IllegalStateException("Committed order not found"));
+                log.warn("Prepared credit {} of supplier {} expired, its order {} was committed",
+                    credit.transactionId(), credit.supplierId(), orderId);
+                commitCredit(credit.transactionId(), credit.supplierId(), orderId);
+            } catch (RuntimeException e) {
+                log.warn("Could not resolve prepared credit {}: {}", credit.transactionId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the committed profit of accounts that missed a credit with the database balance,
+     * once none of their orders is in flight and the two can be compared.
+     */
+    private void reloadStaleAccounts() {
+        Iterator<Long> stale = staleAccounts.iterator();
+        while (stale.hasNext()) {
+            int account = accounts.find(stale.next());
+            if (inFlight(account)) {
+                continue;
+            }
+            try {
+                ClientBalance balance = orderJdbcRepository.findBalance(accounts.id(account))
+                    .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + accounts.id(account)));
+                accounts.commitCredit(account, Money.subtract(balance.profit(), accounts.committedProfit(account)));
+                publish(account);
+                stale.remove();
+            } catch (RuntimeException e) {
+                log.warn("Could not re-read the balance of client {}: {}", accounts.id(account), e.getMessage());
+            }
+        }
+    }
+
+    private int drain() {
+        int processed = 0;
+        Runnable task;
+        while ((task = mailbox.poll()) != null) {
+            execute(task);
+            processed++;
+        }
+        while (pending() < maxBatch && (task = inbox.poll()) != null) {
+            execute(task);
+            processed++;
+        }
+        return processed;
+    }
+
+    private void execute(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Unexpected failure in order sequencer shard {}", index, e);
+        }
+    }
+
+    private int pending() {
+        return batch.size() + deactivations.size();
+    }
+
+    private void startGroupIfEmpty() {
+        if (pending() == 0) {
+            groupStartNanos = System.nanoTime();
+        }
+    }
+
+    private void idle(long nanos) {
+        sleeping = true;
+        if (running && inbox.isEmpty() && mailbox.isEmpty()) {
+            LockSupport.parkNanos(this, Math.min(nanos, IDLE_PARK_NANOS));
+        }
+        sleeping = false;
+    }
+
+    private void wake() {
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void flush() {
+        List<SequencedOrder> orders = new ArrayList<>(batch);
+        List<Deactivation> clients = new ArrayList<>(deactivations);
+        batch.clear();
+        deactivations.clear();
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Written written = transactionTemplate.execute(status -> write(orders, clients, now));
+            List<Long> ids = written.orderIds();
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(orders.size() + clients.size());
+            nettedUpdates.increment(2L * orders.size() - written.balanceUpdates());
+            for (int i = 0; i < orders.size(); i++) {
+                committed(orders.get(i), ids.get(i), now);
+            }
+            clients.forEach(this::deactivated);
+        } catch (RuntimeException e) {
+            if (orders.size() + clients.size() == 1) {
+                orders.forEach(order -> failed(order, e));
+                clients.forEach(deactivation -> failed(deactivation, e));
+                return;
+            }
+            log.warn("Order batch of {} failed on shard {}, retrying one by one: {}",
+                orders.size() + clients.size(), index, e.getMessage());
+            isolatedRetries.increment(orders.size() + clients.size());
+            for (SequencedOrder order : orders) {
+                batch.add(order);
+                flush();
+            }
+            for (Deactivation deactivation : clients) {
+                deactivations.add(deactivation);
+                flush();
+            }
+        }
+    }
+
+    private record Written(List<Long> orderIds, int balanceUpdates) {
+    }
+
+    /**
+     * Applies the profit changes of the whole group as one update per client with a non-zero net
+     * position, in ascending client id order, before inserting the orders.
+     */
+    private Written write(List<SequencedOrder> orders, List<Deactivation> clients, LocalDateTime now) {
+        List<OrderJdbcRepository.OrderRow> rows = orders.stream().map(order -> order.toRow(now)).toList();
+        NetPositions positions = new NetPositions(rows.size() * 2);
+        for (OrderJdbcRepository.OrderRow row : rows) {
+            positions.transfer(row.supplierId(), row.consumerId(), row.price());
+        }
+        long[] changedClients = positions.changedClients();
+        orderJdbcRepository.applyProfitChanges(changedClients, positions.amounts(changedClients));
+        int balanceUpdates = changedClients.length;
+        List<String> transactionIds = orders.stream()
+            .filter(order -> order.remoteSupplier)
+            .map(order -> order.transactionId)
+            .toList();
+        if (!transactionIds.isEmpty()) {
+            List<String> aborted = clusterTransactionJdbcRepository.commit(transactionIds);
+            if (!aborted.isEmpty()) {
+                throw new BusinessRuleException("Prepared supplier credit " + aborted + " expired before the order "
+                    + "was committed");
+            }
+        }
+        List<Long> ids = orderJdbcRepository.insertOrders(rows);
+        outboxWriter.ordersCreated(ids, rows);
+        if (!clients.isEmpty()) {
+            List<Long> clientIds = clients.stream().map(Deactivation::clientId).toList();
+            orderJdbcRepository.deactivateClients(clientIds, now);
+            outboxWriter.clientsDeactivated(clientIds);
+        }
+        return new Written(ids, balanceUpdates);
+    }
+
+    private void committed(SequencedOrder order, long orderId, LocalDateTime createdAt) {
+        if (!order.crossShard() || order.firstOwnsSupplier) {
+            int consumer = accounts.find(order.consumerId);
+            accounts.commitDebit(consumer, order.price);
+            accounts.recordOrder(consumer, orderId, toMillis(createdAt));
+            publish(consumer);
+        }
+        if (!order.remoteSupplier && (!order.crossShard() || !order.firstOwnsSupplier)) {
+            int supplier = accounts.find(order.supplierId);
+            accounts.commitCredit(supplier, order.price);
+            accounts.recordOrder(supplier, orderId, toMillis(createdAt));
+            publish(supplier);
+        }
+        if (order.crossShard()) {
+            order.first.send(() -> order.first.settle(order, orderId, createdAt));
+        }
+        order.result.complete(order.committed(orderId, createdAt));
+    }
+
+    private void failed(SequencedOrder order, RuntimeException e) {
+        if (!order.crossShard() || order.firstOwnsSupplier) {
+            accounts.releaseDebit(accounts.find(order.consumerId), order.price);
+        }
+        recentKeys.remove(order.key());
+        if (order.crossShard()) {
+            order.first.send(() -> order.first.settle(order, 0L, null));
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            log.debug("Duplicate order detected at database level: {}", e.getMessage());
+            order.result.completeExceptionally(
+                new DuplicateResourceException("Order with this business key already exists", e));
+        } else {
+            order.result.completeExceptionally(e);
+        }
+    }
+
+    private void deactivated(Deactivation deactivation) {
+        publish(accounts.find(deactivation.clientId()));
+        deactivation.result().complete(null);
+    }
+
+    private void failed(Deactivation deactivation, RuntimeException e) {
+        accounts.setActive(accounts.find(deactivation.clientId()), true);
+        deactivation.result().completeExceptionally(e);
+    }
+
+    /**
+     * Row of the client's account, loaded from the database the first time the client is seen
+     * unless it was preloaded.
+     */
+    private int account(long clientId) {
+        int account = accounts.find(clientId);
+        if (account == AccountTable.NO_ROW) {
+            ClientBalance balance = orderJdbcRepository.findBalance(clientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + clientId));
+            account = accounts.add(balance);
+            loadedAccounts = accounts.size();
+            clientBalanceCache.put(balance);
+        }
+        return account;
+    }
+
+    private void requireActive(int account) {
+        if (!accounts.active(account)) {
+            throw new IllegalArgumentException("Client is already inactive");
+        }
+    }
+
+    private void requireActive(int account, String role) {
+        if (!accounts.active(account)) {
+            throw new BusinessRuleException("Cannot create order for inactive " + role + " with id: "
+                + accounts.id(account));
+        }
+    }
+
+    private void requireNew(SequencedOrder order) {
+        if (recentKeys.containsKey(order.key())) {
+            log.debug("Duplicate order detected: {}", order.name);
+            throw new DuplicateResourceException("Order with this business key already exists");
+        }
+    }
+
+    private void reserve(int consumer, SequencedOrder order) {
+        long newConsumerProfit = Money.subtract(accounts.available(consumer), order.price);
+        if (newConsumerProfit < MIN_PROFIT_THRESHOLD) {
+            throw new BusinessRuleException("Order would make consumer profit less than -1000. Current: "
+                + Money.toString(accounts.available(consumer)) + ", After order: " + Money.toString(newConsumerProfit));
+        }
+        accounts.reserveDebit(consumer, order.price);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void accept(SequencedOrder order) {
+        startGroupIfEmpty();
+        recentKeys.put(order.key(), Boolean.TRUE);
+        batch.add(order);
+    }
+
+    private void publish(int account) {
+        clientBalanceCache.put(new ClientBalance(accounts.id(account), accounts.committedProfit(account),
+            accounts.active(account), accounts.lastOrderId(account)));
+    }
+}
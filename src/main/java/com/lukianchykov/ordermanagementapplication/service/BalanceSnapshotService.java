@@ -0,0 +1,154 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lukianchykov.ordermanagementapplication.cache.BalanceSnapshotFile;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Slf4j
+public class BalanceSnapshotService implements SmartInitializingSingleton {
+
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${balance.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${balance.snapshot.path:data/balance.snapshot}")
+    private Path snapshotPath;
+
+    @Value("${balance.snapshot.catch-up-margin-seconds:60}")
+    private long catchUpMarginSeconds;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try {
+            readOnly.executeWithoutResult(status -> {
+                if (Files.exists(snapshotPath)) {
+                    try {
+                        BalanceSnapshotFile.Snapshot snapshot = BalanceSnapshotFile.read(snapshotPath);
+                        clientBalanceCache.replaceAll(snapshot.balances());
+                        catchUp(snapshot.watermark(), snapshot.takenAt());
+                        return;
+                    } catch (IOException e) {
+                        log.warn("Cannot load balance snapshot {}, falling back to full load: {}", snapshotPath, e.getMessage());
+                    }
+                }
+                loadFromDatabase();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to warm client balance cache, starting cold", e);
+            return;
+        }
+
+        log.info("Client balance cache warmed with {} clients in {}ms",
+            clientBalanceCache.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @Scheduled(fixedDelayString = "${balance.snapshot.interval-ms:60000}",
+        initialDelayString = "${balance.snapshot.interval-ms:60000}")
+    public void writeSnapshot() {
+        if (!enabled) {
+            return;
+        }
+
+        long takenAt = System.currentTimeMillis();
+        List<ClientBalance> balances = new ArrayList<>(clientBalanceCache.values());
+        long watermark = balances.stream().mapToLong(ClientBalance::lastOrderId).max().orElse(0L);
+
+        try {
+            BalanceSnapshotFile.write(snapshotPath, watermark, takenAt, balances);
+            log.debug("Balance snapshot written: {} clients, watermark {}", balances.size(), watermark);
+        } catch (IOException e) {
+            log.error("Failed to write balance snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+
+    private void catchUp(long watermark, long takenAt) {
+        List<Object[]> replayed = orderRepository.findParticipantsAfter(watermark);
+        Map<Long, Long> lastOrderIds = new HashMap<>();
+        for (Object[] row : replayed) {
+            long orderId = (Long) row[0];
+            lastOrderIds.merge((Long) row[1], orderId, Math::max);
+            lastOrderIds.merge((Long) row[2], orderId, Math::max);
+        }
+
+        LocalDateTime changedSince = LocalDateTime.ofInstant(Instant.ofEpochMilli(takenAt), ZoneId.systemDefault())
+            .minusSeconds(catchUpMarginSeconds);
+
+        List<Client> changed = new ArrayList<>(clientRepository.findAllById(lastOrderIds.keySet()));
+        changed.addAll(clientRepository.findByUpdatedAtGreaterThanEqual(changedSince));
+
+        // The database row is newer than the snapshot entry, so it keeps at least the snapshot's last
+        // order id; otherwise the cache would keep the snapshot entry over a profile change or deactivation.
+        for (Client client : changed) {
+            long snapshotOrderId = clientBalanceCache.get(client.getId()).map(ClientBalance::lastOrderId).orElse(0L);
+            long lastOrderId = Math.max(snapshotOrderId, lastOrderIds.getOrDefault(client.getId(), 0L));
+            clientBalanceCache.put(ClientBalance.of(client, lastOrderId));
+        }
+
+        log.info("Balance snapshot loaded (watermark {}), replayed {} orders and refreshed {} clients",
+            watermark, replayed.size(), changed.size());
+    }
+
+    private void loadFromDatabase() {
+        Map<Long, Long> lastOrderIds = new HashMap<>();
+        for (Object[] row : orderRepository.findLastSuppliedOrderIds()) {
+            lastOrderIds.merge((Long) row[0], (Long) row[1], Math::max);
+        }
+        for (Object[] row : orderRepository.findLastConsumedOrderIds()) {
+            lastOrderIds.merge((Long) row[0], (Long) row[1], Math::max);
+        }
+
+        List<ClientBalance> balances = clientRepository.findAll().stream()
+            .map(client -> ClientBalance.of(client, lastOrderIds.getOrDefault(client.getId(), 0L)))
+            .toList();
+        clientBalanceCache.replaceAll(balances);
+    }
+}
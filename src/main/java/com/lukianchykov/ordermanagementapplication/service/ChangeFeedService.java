@@ -0,0 +1,102 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.controller.exception.CursorExpiredException;
+import com.lukianchykov.ordermanagementapplication.domain.OutboxEventType;
+import com.lukianchykov.ordermanagementapplication.dto.ChangeFeedPageDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxMessage;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxRelay;
+import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OutboxJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Incremental sync over the outbox: the cursor is the outbox offset, so a page is an index range
+ * scan of the events after it and costs in proportion to the changes, not to the table sizes.
+ * Pages never go past {@link OutboxRelay#stableOffset()}, so a transaction that commits late with
+ * a lower offset cannot be skipped. A cursor below the purge watermark has lost events to the
+ * retention cleanup and is rejected, even if the outbox has since been emptied.
+ */
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    public static final int MAX_PAGE_SIZE = 5000;
+
+    @Autowired
+    private OutboxJdbcRepository outboxJdbcRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public ChangeFeedPageDto getChanges(long after, int limit) {
+        log.debug("Getting changes after cursor {} (limit {})", after, limit);
+        if (after < 0) {
+            throw new IllegalArgumentException("Cursor must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long purgedOffset = outboxJdbcRepository.findPurgedOffset();
+        if (after > 0 && after < purgedOffset) {
+            throw new CursorExpiredException("Changes after cursor " + after + " are no longer retained, oldest cursor is "
+                + purgedOffset + "; a full resync is required");
+        }
+
+        List<OutboxMessage> events = outboxJdbcRepository.findBetween(after, outboxRelay.stableOffset(), limit + 1);
+        boolean hasMore = events.size() > limit;
+        if (hasMore) {
+            events = events.subList(0, limit);
+        }
+
+        List<CommittedOrder> orders = new ArrayList<>();
+        Set<Long> clientIds = new LinkedHashSet<>();
+        for (OutboxMessage event : events) {
+            if (event.type() == OutboxEventType.ORDER_CREATED) {
+                CommittedOrder order = fromJson(event.payload());
+                orders.add(order);
+                clientIds.add(order.supplierId());
+                clientIds.add(order.consumerId());
+            } else {
+                clientIds.add(event.aggregateId());
+            }
+        }
+        List<ClientResponseDto> clients = clientIds.isEmpty() ? List.of() : clientRepository.findDtosByIds(clientIds);
+        clients.forEach(client -> {
+            if (client.getTotalProfit() == null) {
+                client.setTotalProfit(BigDecimal.ZERO);
+            }
+        });
+
+        long cursor = events.isEmpty() ? after : events.get(events.size() - 1).offset();
+        return new ChangeFeedPageDto(cursor, hasMore, orders, clients);
+    }
+
+    private CommittedOrder fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, CommittedOrder.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable order payload in outbox", e);
+        }
+    }
+}
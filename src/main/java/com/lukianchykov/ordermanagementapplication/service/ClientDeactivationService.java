@@ -0,0 +1,135 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import com.lukianchykov.ordermanagementapplication.sequencer.OrderSequencer;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deactivates every active client matching the criteria in chunks of
+ * {@code client.deactivation.chunk-size}, each in its own transaction. With the locking engine a
+ * chunk locks its clients with the {@link ClientLockService} in ascending id order, re-checks the
+ * criteria and deactivates them with one {@code UPDATE}; orders waiting for those locks then see the
+ * clients inactive, and orders holding them finish first. With the sequencer engine the chunk is
+ * handed with its criteria to the owning shards, which wait until none of a client's orders is in
+ * flight and re-check its profit and last order against their own account before deactivating it;
+ * in cluster mode each client is deactivated by the node owning it.
+ */
+@Service
+@Slf4j
+public class ClientDeactivationService {
+
+    @Autowired
+    private ClientJdbcRepository clientJdbcRepository;
+
+    @Autowired
+    private ClientLockService clientLockService;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private OrderPartitionManager orderPartitionManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${client.deactivation.chunk-size:500}")
+    private int chunkSize;
+
+    public ClientDeactivationReportDto deactivateClients(ClientDeactivationRequestDto request) {
+        DeactivationCriteria criteria = validate(request);
+        List<Long> ids = request.getIds() != null ? request.getIds().stream().distinct().sorted().toList() : null;
+        log.info("Deactivating clients matching {}{}", criteria, ids != null ? " among " + ids.size() + " ids" : "");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long deactivated = 0;
+        int chunks = 0;
+        long afterId = 0;
+        int idOffset = 0;
+        while (ids == null || idOffset < ids.size()) {
+            List<Long> chunkIds = ids != null ? ids.subList(idOffset, Math.min(ids.size(), idOffset + chunkSize)) : null;
+            long chunkAfterId = afterId;
+            Chunk chunk = orderSequencer.isEnabled()
+                ? sequencedChunk(criteria, chunkIds, chunkAfterId)
+                : transactionTemplate.execute(status -> lockedChunk(criteria, chunkIds, chunkAfterId));
+
+            deactivated += chunk.deactivated();
+            chunks++;
+            if (ids != null) {
+                idOffset += chunkSize;
+            } else if (chunk.candidates().size() < chunkSize) {
+                break;
+            } else {
+                afterId = chunk.candidates().get(chunk.candidates().size() - 1);
+            }
+        }
+
+        log.info("Deactivated {} clients in {} chunks", deactivated, chunks);
+        return new ClientDeactivationReportDto(deactivated, chunks);
+    }
+
+    private record Chunk(List<Long> candidates, int deactivated) {
+    }
+
+    private Chunk lockedChunk(DeactivationCriteria criteria, List<Long> ids, long afterId) {
+        List<Long> candidates = clientJdbcRepository.findDeactivationCandidates(criteria, ids, afterId, chunkSize);
+        clientLockService.lockAll(candidates);
+        List<Long> deactivatable = clientJdbcRepository.findDeactivatable(criteria, candidates);
+        clientJdbcRepository.deactivateClients(deactivatable, LocalDateTime.now());
+        outboxWriter.clientsDeactivated(deactivatable);
+        clientBalanceCache.deactivateAfterCommit(deactivatable);
+        return new Chunk(candidates, deactivatable.size());
+    }
+
+    private Chunk sequencedChunk(DeactivationCriteria criteria, List<Long> ids, long afterId) {
+        List<Long> candidates = clientJdbcRepository.findDeactivationCandidates(criteria, ids, afterId, chunkSize);
+        return new Chunk(candidates, candidates.isEmpty() ? 0 : clusterCoordinator.deactivateClients(candidates, criteria));
+    }
+
+    private DeactivationCriteria validate(ClientDeactivationRequestDto request) {
+        if (request.getIds() == null && request.getNoOrdersSince() == null && request.getMinProfit() == null
+            && request.getMaxProfit() == null) {
+            throw new IllegalArgumentException("At least one deactivation criterion is required");
+        }
+        if (request.getIds() != null && request.getIds().stream().anyMatch(id -> id == null)) {
+            throw new IllegalArgumentException("Client ids must not be null");
+        }
+        if (request.getMinProfit() != null && request.getMaxProfit() != null
+            && request.getMinProfit().compareTo(request.getMaxProfit()) > 0) {
+            throw new IllegalArgumentException("minProfit must not be greater than maxProfit");
+        }
+        // orders of archived partitions are no longer in the database
+        orderPartitionManager.hotWindowStart().ifPresent(hotWindowStart -> {
+            if (request.getNoOrdersSince() != null && request.getNoOrdersSince().isBefore(hotWindowStart)) {
+                throw new IllegalArgumentException("noOrdersSince must not be before " + hotWindowStart
+                    + " while orders are partitioned");
+            }
+        });
+        return new DeactivationCriteria(request.getNoOrdersSince(), request.getMinProfit(), request.getMaxProfit());
+    }
+}
@@ -0,0 +1,323 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.ElementType;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientImportReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.ClientRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.TraversableResolver;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk client import from CSV (with a header row naming the {@code name}, {@code email},
+ * {@code address} and {@code phone} columns) or NDJSON (one {@link ClientCreateDto} per line).
+ * Rows are read from the stream one at a time, validated like {@code POST /api/clients}, checked
+ * against the emails already seen in the import and, once per chunk of
+ * {@code client.import.chunk-size} rows, against the database with one lookup. Each chunk is
+ * inserted with multi-row statements in its own transaction, so a failed import keeps the chunks
+ * before it and can simply be re-run: rows imported before are reported as existing clients.
+ */
+@Service
+@Slf4j
+public class ClientImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private record PendingRow(long line, ClientCreateDto client) {
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "address", "phone");
+
+    @Autowired
+    private ClientJdbcRepository clientJdbcRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ValidatorFactory validatorFactory;
+
+    @Value("${client.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${client.import.max-errors:1000}")
+    private int maxErrors;
+
+    private ObjectReader clientReader;
+
+    private Validator validator;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        clientReader = objectMapper.readerFor(ClientCreateDto.class);
+        // rows are plain DTOs, so skip the JPA check for lazy properties done on every constraint
+        validator = validatorFactory.usingContext().traversableResolver(new TraversableResolver() {
+            @Override
+            public boolean isReachable(Object object, Path.Node node, Class<?> rootType, Path path, ElementType elementType) {
+                return true;
+            }
+
+            @Override
+            public boolean isCascadable(Object object, Path.Node node, Class<?> rootType, Path path, ElementType elementType) {
+                return true;
+            }
+        }).getValidator();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ClientImportReportDto importClients(InputStream input, Charset charset, Format format) throws IOException {
+        long started = System.nanoTime();
+        ClientImportReportDto report = new ClientImportReportDto();
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset), 64 * 1024);
+        long line = 0;
+        int[] columns = null;
+        if (format == Format.CSV) {
+            columns = readCsvHeader(reader.readLine());
+            line++;
+        }
+
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            report.setRows(report.getRows() + 1);
+
+            ClientCreateDto client;
+            try {
+                client = format == Format.CSV ? parseCsvRow(text, columns) : parseJsonRow(text);
+            } catch (IllegalArgumentException e) {
+                reject(report, line, null, "Malformed row: " + e.getMessage());
+                continue;
+            }
+            String violations = validate(client);
+            if (violations != null) {
+                reject(report, line, client.getEmail(), violations);
+                continue;
+            }
+            if (!seenEmails.add(client.getEmail())) {
+                reject(report, line, client.getEmail(), "Duplicate email in import");
+                continue;
+            }
+
+            chunk.add(new PendingRow(line, client));
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, report);
+                chunk.clear();
+            }
+        }
+        flush(chunk, report);
+
+        log.info("Imported {} of {} clients in {} ms, {} rejected", report.getCreated(), report.getRows(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), report.getRejected());
+        return report;
+    }
+
+    private void flush(List<PendingRow> chunk, ClientImportReportDto report) {
+        List<PendingRow> rows = withoutExisting(chunk, report);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(rows));
+            report.setCreated(report.getCreated() + rows.size());
+        } catch (DuplicateKeyException e) {
+            // a client with one of the emails was created concurrently after the lookup
+            List<PendingRow> remaining = withoutExisting(rows, report);
+            transactionTemplate.executeWithoutResult(status -> insert(remaining));
+            report.setCreated(report.getCreated() + remaining.size());
+        }
+    }
+
+    private List<PendingRow> withoutExisting(List<PendingRow> rows, ClientImportReportDto report) {
+        Set<String> existing = clientJdbcRepository.findExistingEmails(
+            rows.stream().map(row -> row.client().getEmail()).toList());
+        if (existing.isEmpty()) {
+            return rows;
+        }
+        List<PendingRow> remaining = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            if (existing.contains(row.client().getEmail())) {
+                reject(report, row.line(), row.client().getEmail(),
+                    "Client with email " + row.client().getEmail() + " already exists");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    private void insert(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ClientRow> clientRows = rows.stream()
+            .map(row -> new ClientRow(row.client().getName(), row.client().getEmail(), row.client().getAddress(),
+                row.client().getPhone()))
+            .toList();
+        List<Long> ids = clientJdbcRepository.insertClients(clientRows, now);
+
+        List<ClientResponseDto> created = new ArrayList<>(ids.size());
+        List<ClientBalance> balances = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            ClientRow row = clientRows.get(i);
+            created.add(new ClientResponseDto(ids.get(i), row.name(), row.email(), row.address(), row.phone(),
+                Money.toBigDecimal(Money.ZERO), true, null, now, now));
+            balances.add(new ClientBalance(ids.get(i), Money.ZERO, true, 0L));
+        }
+        outboxWriter.clientsCreated(created);
+        clientBalanceCache.putAllAfterCommit(balances);
+    }
+
+    private String validate(ClientCreateDto client) {
+        Set<ConstraintViolation<ClientCreateDto>> violations = validator.validate(client);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private void reject(ClientImportReportDto report, long line, String email, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ClientImportReportDto.RowError(line, email, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private ClientCreateDto parseJsonRow(String text) {
+        try {
+            ClientCreateDto client = clientReader.readValue(text);
+            if (client == null) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            return client;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Maps each field position of the header to its index in {@link #CSV_COLUMNS}.
+     */
+    private static int[] readCsvHeader(String header) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("CSV import needs a header row with the columns " + CSV_COLUMNS);
+        }
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        int[] columns = new int[names.size()];
+        boolean[] present = new boolean[CSV_COLUMNS.size()];
+        for (int i = 0; i < names.size(); i++) {
+            columns[i] = CSV_COLUMNS.indexOf(names.get(i).trim().toLowerCase(Locale.ROOT));
+            if (columns[i] < 0 || present[columns[i]]) {
+                throw new IllegalArgumentException("Unknown or repeated CSV column '" + names.get(i) + "', expected " + CSV_COLUMNS);
+            }
+            present[columns[i]] = true;
+        }
+        if (!present[0] || !present[1]) {
+            throw new IllegalArgumentException("CSV header must contain the name and email columns");
+        }
+        return columns;
+    }
+
+    private static ClientCreateDto parseCsvRow(String text, int[] columns) {
+        List<String> fields = splitCsv(text);
+        if (fields.size() != columns.length) {
+            throw new IllegalArgumentException("expected " + columns.length + " fields, got " + fields.size());
+        }
+        String[] values = new String[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String value = fields.get(i);
+            values[columns[i]] = value.isEmpty() ? null : value;
+        }
+        return new ClientCreateDto(values[0], values[1], values[2], values[3]);
+    }
+
+    /**
+     * Splits one RFC 4180 line; quoted fields may contain commas and doubled quotes but not line breaks.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
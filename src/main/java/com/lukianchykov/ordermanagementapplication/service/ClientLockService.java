@@ -0,0 +1,72 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serializes the writers of a client's balance with the locking engine; callers lock clients in
+ * ascending id order, so writers never deadlock. {@code order.locking.mode=row} locks the client
+ * rows with {@code FOR UPDATE}, which also blocks profile updates and every other locking reader
+ * of those rows until the order commits. {@code order.locking.mode=advisory} takes PostgreSQL
+ * transaction-scoped advisory locks keyed by the client id instead and reads the client without a
+ * row lock: the profit update is only written when the transaction commits, so the rows are
+ * locked for the duration of the commit rather than the whole order. Every balance writer has to
+ * use this service, and nothing else in the database may use advisory locks on bare client ids.
+ */
+@Service
+@Slf4j
+public class ClientLockService {
+
+    public enum Mode {
+        ROW, ADVISORY
+    }
+
+    private final Mode mode;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ClientJdbcRepository clientJdbcRepository;
+
+    public ClientLockService(@Value("${order.locking.mode:row}") String mode) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        log.info("Client locking mode: {}", this.mode);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Locks the client until the transaction ends and returns its committed state. Has to be called
+     * before the client is loaded by the transaction, otherwise the loaded state is returned.
+     */
+    public Optional<Client> lock(Long clientId) {
+        if (mode == Mode.ROW) {
+            return clientRepository.findByIdForUpdate(clientId);
+        }
+        clientJdbcRepository.advisoryLockClient(clientId);
+        return clientRepository.findById(clientId);
+    }
+
+    /**
+     * Locks the clients until the transaction ends; {@code ascendingIds} must be sorted.
+     */
+    public void lockAll(Collection<Long> ascendingIds) {
+        if (mode == Mode.ROW) {
+            clientJdbcRepository.lockClients(ascendingIds);
+            return;
+        }
+        ascendingIds.forEach(clientJdbcRepository::advisoryLockClient);
+    }
+}
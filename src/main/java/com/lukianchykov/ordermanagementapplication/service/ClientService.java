@@ -1,20 +1,36 @@
 package com.lukianchykov.ordermanagementapplication.service;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
 import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
 import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
 import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
+import com.lukianchykov.ordermanagementapplication.domain.OutboxEventType;
 import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
 import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
 import com.lukianchykov.ordermanagementapplication.mapper.ClientMapper;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
 import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.OrderSequencer;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +44,27 @@ public class ClientService {
     @Autowired
     private ClientMapper clientMapper;
 
+    @Autowired
+    private ClientLockService clientLockService;
+
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private ClientDeactivationService clientDeactivationService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${balance.cache.profit-max-age-ms:60000}")
+    private long profitMaxAgeMs;
+
     @Transactional
     public ClientResponseDto createClient(ClientCreateDto dto) {
         log.info("Creating new client with email: {}", dto.getEmail());
@@ -43,28 +80,49 @@ public class ClientService {
         client.setPhone(dto.getPhone());
 
         client = clientRepository.save(client);
+        outboxWriter.clientChanged(OutboxEventType.CLIENT_CREATED, client);
+        clientBalanceCache.putAfterCommit(client);
         log.info("Client created successfully with ID: {}", client.getId());
 
         return convertToResponseDto(client);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ClientResponseDto getClient(Long id) {
         log.debug("Getting client with ID: {}", id);
-        Client client = clientRepository.findById(id)
+        return clientRepository.findDtoById(id)
+            .map(this::withDefaultProfit)
             .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
-        return convertToResponseDto(client);
     }
 
-    @Transactional
+    /**
+     * Loads the clients with one query, keyed by id; ids that do not exist are missing from the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ClientResponseDto> getClients(Collection<Long> ids) {
+        Map<Long, ClientResponseDto> clients = new HashMap<>();
+        if (!ids.isEmpty()) {
+            clientRepository.findDtosByIds(ids).forEach(client -> clients.put(client.getId(), withDefaultProfit(client)));
+        }
+        return clients;
+    }
+
+    @Transactional(readOnly = true)
     public List<ClientResponseDto> getAllClients() {
-        log.debug("Getting all clients");
-        return clientRepository.findAll().stream()
-            .map(this::convertToResponseDto)
-            .collect(Collectors.toList());
+        List<ClientResponseDto> clients = new ArrayList<>();
+        streamAllClients(clients::add);
+        return clients;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public void streamAllClients(Consumer<ClientResponseDto> sink) {
+        log.debug("Streaming all clients");
+        try (Stream<ClientResponseDto> clients = clientRepository.streamAllDtos()) {
+            clients.map(this::withDefaultProfit).forEach(sink);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<ClientResponseDto> searchClients(String keyword) {
         log.info("Searching clients by keyword: '{}'", keyword);
 
@@ -74,12 +132,12 @@ public class ClientService {
         }
 
         String trimmedKeyword = keyword.trim();
-        List<Client> clients = clientRepository.findByKeyword(trimmedKeyword);
+        List<ClientResponseDto> clients = clientRepository.findDtosByKeyword(trimmedKeyword);
 
         log.info("Found {} clients matching keyword: '{}'", clients.size(), trimmedKeyword);
 
         return clients.stream()
-            .map(this::convertToResponseDto)
+            .map(this::withDefaultProfit)
             .collect(Collectors.toList());
     }
 
@@ -100,6 +158,8 @@ public class ClientService {
         client.setPhone(dto.getPhone());
 
         client = clientRepository.save(client);
+        outboxWriter.clientChanged(OutboxEventType.CLIENT_UPDATED, client);
+        clientBalanceCache.putAfterCommit(client);
         log.info("Client updated successfully with ID: {}", client.getId());
 
         return convertToResponseDto(client);
@@ -107,52 +167,66 @@ public class ClientService {
 
     public ClientResponseDto deactivateClient(Long id) {
         log.info("Deactivating client with ID: {}", id);
-        Client client = clientRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
+        if (orderSequencer.isEnabled()) {
+            orderSequencer.deactivateClient(id);
+            return getClient(id);
+        }
 
-        if (!client.getActive()) {
+        // a load-and-save would overwrite profit changed by orders committed in between
+        ClientDeactivationRequestDto request = new ClientDeactivationRequestDto();
+        request.setIds(List.of(id));
+        if (clientDeactivationService.deactivateClients(request).getDeactivated() == 0) {
+            requireClientExists(id);
             throw new IllegalArgumentException("Client is already inactive");
         }
+        log.info("Client deactivated successfully with ID: {}", id);
 
-        client.setActive(false);
-        client.setDeactivatedAt(LocalDateTime.now());
-
-        client = clientRepository.save(client);
-        log.info("Client deactivated successfully with ID: {}", client.getId());
-
-        return convertToResponseDto(client);
+        return getClient(id);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public BigDecimal getClientProfit(Long clientId) {
         log.debug("Calculating profit for client ID: {}", clientId);
-        if (!clientRepository.existsById(clientId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + clientId);
+        if (!clusterCoordinator.isLocal(clientId)) {
+            // only the owning node keeps the balance of a client current
+            Client client = getClientById(clientId);
+            return client.getProfit() != null ? client.getProfit() : BigDecimal.ZERO;
+        }
+        // bounds how long changes made by other instances or direct SQL stay invisible
+        Optional<ClientBalance> cached = clientBalanceCache.get(clientId, Duration.ofMillis(profitMaxAgeMs));
+        if (cached.isPresent()) {
+            return Money.toBigDecimal(cached.get().profit());
         }
 
         Client client = getClientById(clientId);
+        clientBalanceCache.putAfterCommit(client);
         return client.getProfit() != null ? client.getProfit() : BigDecimal.ZERO;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ClientResponseDto> getClientsByProfitRange(BigDecimal minProfit, BigDecimal maxProfit) {
         log.debug("Getting clients with profit range: {} to {}", minProfit, maxProfit);
-        List<Client> clients = clientRepository.findByProfitBetween(minProfit, maxProfit);
-
-        return clients.stream()
-            .map(this::convertToResponseDto)
+        return clientRepository.findDtosByProfitBetween(minProfit, maxProfit).stream()
+            .map(this::withDefaultProfit)
             .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Client getClientById(Long id) {
         return clientRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public void requireClientExists(Long id) {
+        if (!clientRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Client not found with id: " + id);
+        }
+    }
+
     @Transactional
     public Client getClientByIdForUpdate(Long id) {
-        return clientRepository.findByIdForUpdate(id)
+        return clientLockService.lock(id)
             .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
     }
 
@@ -162,6 +236,13 @@ public class ClientService {
     }
 
 
+    private ClientResponseDto withDefaultProfit(ClientResponseDto dto) {
+        if (dto.getTotalProfit() == null) {
+            dto.setTotalProfit(BigDecimal.ZERO);
+        }
+        return dto;
+    }
+
     private ClientResponseDto convertToResponseDto(Client client) {
         ClientResponseDto dto = clientMapper.toClientResponseDto(client);
         dto.setTotalProfit(client.getProfit() != null ? client.getProfit() : BigDecimal.ZERO);
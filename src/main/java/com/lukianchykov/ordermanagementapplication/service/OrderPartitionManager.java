@@ -0,0 +1,162 @@
+package com.lukianchykov.ordermanagementapplication.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import com.lukianchykov.ordermanagementapplication.archive.ArchivedOrder;
+import com.lukianchykov.ordermanagementapplication.archive.OrderArchiveService;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains monthly range partitions of the {@code orders} table once it has been converted
+ * with {@code db/orders_partitioning.sql}: creates upcoming partitions and detaches partitions
+ * that fall out of the hot window, archiving them to local disk before dropping them.
+ */
+@Service
+@Slf4j
+public class OrderPartitionManager {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITION_PREFIX = "orders_p";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Value("${orders.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.partitioning.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${orders.partitioning.hot-months:3}")
+    private int hotMonths;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start of the hot window when partitioning is enabled. Queries that may skip older data
+     * bound themselves by this timestamp so that the planner prunes cold partitions.
+     */
+    public Optional<LocalDateTime> hotWindowStart() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.now().minusMonths(hotMonths - 1L).atDay(1).atStartOfDay());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${orders.partitioning.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        if (!isPartitioned()) {
+            log.warn("Order partitioning is enabled but table 'orders' is not partitioned; run db/orders_partitioning.sql");
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        for (String partition : listDetachedPartitions()) {
+            archivePartition(partition, false);
+        }
+
+        YearMonth oldestHot = current.minusMonths(hotMonths - 1L);
+        for (String partition : listPartitions()) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (month.isBefore(oldestHot)) {
+                archivePartition(partition, true);
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'orders')", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'orders' AND c.relname ~ '^orders_p[0-9]{6}$' " +
+                "ORDER BY c.relname", String.class);
+    }
+
+    private List<String> listDetachedPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_class c " +
+                "WHERE c.relkind = 'r' AND c.relname ~ '^orders_p[0-9]{6}$' " +
+                "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid) " +
+                "ORDER BY c.relname", String.class);
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF orders " +
+                "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } catch (DataAccessException e) {
+            log.error("Failed to create order partition {}", partition, e);
+        }
+    }
+
+    private void archivePartition(String partition, boolean detach) {
+        try {
+            if (detach) {
+                log.info("Detaching cold order partition {}", partition);
+                jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + partition);
+            }
+
+            List<ArchivedOrder> orders = jdbcTemplate.query(
+                "SELECT id, name, supplier_id, consumer_id, price, processing_start_time, processing_end_time, created_at " +
+                    "FROM " + partition + " ORDER BY id",
+                (rs, rowNum) -> new ArchivedOrder(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getLong("supplier_id"),
+                    rs.getLong("consumer_id"),
+                    rs.getBigDecimal("price"),
+                    rs.getObject("processing_start_time", LocalDateTime.class),
+                    rs.getObject("processing_end_time", LocalDateTime.class),
+                    rs.getObject("created_at", LocalDateTime.class)));
+
+            orderArchiveService.archive(partition, orders);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        } catch (DataAccessException | IOException e) {
+            log.error("Failed to archive order partition {}; detached table is kept for a retry", partition, e);
+        }
+    }
+}
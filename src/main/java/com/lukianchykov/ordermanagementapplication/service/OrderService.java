@@ -2,23 +2,44 @@ package com.lukianchykov.ordermanagementapplication.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
-import java.util.stream.Collectors;
-
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.lukianchykov.ordermanagementapplication.archive.ArchivedOrder;
+import com.lukianchykov.ordermanagementapplication.archive.OrderArchiveService;
+import com.lukianchykov.ordermanagementapplication.audit.OrderAuditJournal;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalanceCache;
+import com.lukianchykov.ordermanagementapplication.cluster.ClusterCoordinator;
 import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
 import com.lukianchykov.ordermanagementapplication.controller.exception.DuplicateResourceException;
 import com.lukianchykov.ordermanagementapplication.controller.exception.ResourceNotFoundException;
 import com.lukianchykov.ordermanagementapplication.domain.Client;
+import com.lukianchykov.ordermanagementapplication.domain.Money;
 import com.lukianchykov.ordermanagementapplication.domain.Order;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
 import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
 import com.lukianchykov.ordermanagementapplication.dto.OrderResponseDto;
 import com.lukianchykov.ordermanagementapplication.mapper.OrderMapper;
+import com.lukianchykov.ordermanagementapplication.metrics.ClientContentionMonitor;
+import com.lukianchykov.ordermanagementapplication.metrics.OrderMetrics;
+import com.lukianchykov.ordermanagementapplication.outbox.OutboxWriter;
+import com.lukianchykov.ordermanagementapplication.repository.OrderJdbcRepository;
 import com.lukianchykov.ordermanagementapplication.repository.OrderRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import com.lukianchykov.ordermanagementapplication.sequencer.OrderSequencer;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,7 +48,9 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class OrderService {
 
-    private static final BigDecimal MIN_PROFIT_THRESHOLD = new BigDecimal("-1000");
+    private static final long MIN_PROFIT_THRESHOLD = Money.ofUnits(-1000);
+
+    private static final int ARCHIVED_CLIENT_BATCH = 500;
 
     @Autowired
     private OrderRepository orderRepository;
@@ -38,19 +61,102 @@ public class OrderService {
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private ClientBalanceCache clientBalanceCache;
+
+    @Autowired
+    private OrderPartitionManager orderPartitionManager;
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private ClientContentionMonitor clientContentionMonitor;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private OrderAuditJournal orderAuditJournal;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${order.processing.delay-min-ms:1000}")
+    private long processingDelayMinMs;
+
+    @Value("${order.processing.delay-max-ms:10000}")
+    private long processingDelayMaxMs;
+
     private final Random random = new Random();
 
     @Transactional
     public OrderResponseDto createOrder(OrderCreateDto dto) {
-        log.info("Creating new order: {}", dto.getName());
+        orderMetrics.trackTransaction();
+        try {
+            return processOrder(dto);
+        } catch (RuntimeException e) {
+            orderAuditJournal.orderRejected(dto.getSupplierId(), dto.getConsumerId(), dto.getPrice(), dto.getName(),
+                orderMetrics.rejected(e));
+            throw e;
+        }
+    }
+
+    public boolean isSequencerEnabled() {
+        return orderSequencer.isEnabled();
+    }
+
+    /**
+     * Creates an order through the {@link OrderSequencer}. Runs outside of a transaction: the
+     * processing delay happens before the order is sequenced, so no lock or connection is held
+     * while it elapses.
+     */
+    public OrderResponseDto createSequencedOrder(OrderCreateDto dto) {
+        try {
+            log.debug("Creating new order: {}", dto.getName());
+            validateOrderCreation(dto);
+            rejectKnownInactiveClients(dto);
+
+            LocalDateTime processingStartTime = LocalDateTime.now();
+            long phaseStart = orderMetrics.start();
+            simulateProcessingDelay();
+            orderMetrics.record(OrderMetrics.Phase.PROCESSING_DELAY, phaseStart);
+
+            CommittedOrder order = clusterCoordinator.createOrder(dto, processingStartTime, LocalDateTime.now());
+            orderAuditJournal.orderCreated(order.id(), order.supplierId(), order.consumerId(), order.price(), order.name());
+            return toOrderResponseDto(order);
+        } catch (RuntimeException e) {
+            orderAuditJournal.orderRejected(dto.getSupplierId(), dto.getConsumerId(), dto.getPrice(), dto.getName(),
+                orderMetrics.rejected(e));
+            throw e;
+        }
+    }
+
+    private OrderResponseDto processOrder(OrderCreateDto dto) {
+        log.debug("Creating new order: {}", dto.getName());
 
         validateOrderCreation(dto);
+        rejectKnownInactiveClients(dto);
 
+        long phaseStart = orderMetrics.start();
         Long smallerId = Math.min(dto.getSupplierId(), dto.getConsumerId());
         Long largerId = Math.max(dto.getSupplierId(), dto.getConsumerId());
 
-        Client firstClient = clientService.getClientByIdForUpdate(smallerId);
-        Client secondClient = clientService.getClientByIdForUpdate(largerId);
+        Client firstClient = lockClient(smallerId);
+        Client secondClient = lockClient(largerId);
+        phaseStart = orderMetrics.record(OrderMetrics.Phase.LOCK_WAIT, phaseStart);
 
         Client supplier = dto.getSupplierId().equals(smallerId) ? firstClient : secondClient;
         Client consumer = dto.getSupplierId().equals(smallerId) ? secondClient : firstClient;
@@ -62,105 +168,191 @@ public class OrderService {
             throw new BusinessRuleException("Cannot create order for inactive consumer: " + consumer.getName());
         }
 
-        Optional<Order> existingOrder = orderRepository.findByBusinessKeyForUpdate(
-            dto.getName(), dto.getSupplierId(), dto.getConsumerId());
+        // partitions cannot enforce the business key, order_keys does for all of them and the archive
+        boolean duplicate = orderPartitionManager.isEnabled()
+            ? orderJdbcRepository.existsBusinessKey(dto.getName(), dto.getSupplierId(), dto.getConsumerId())
+            : orderRepository.findByBusinessKeyForUpdate(dto.getName(), dto.getSupplierId(), dto.getConsumerId())
+                .isPresent();
+        phaseStart = orderMetrics.record(OrderMetrics.Phase.DUPLICATE_CHECK, phaseStart);
 
-        if (existingOrder.isPresent()) {
-            log.warn("Duplicate order detected: {}", dto.getName());
+        if (duplicate) {
+            log.debug("Duplicate order detected: {}", dto.getName());
             throw new DuplicateResourceException("Order with this business key already exists");
         }
 
-        BigDecimal newConsumerProfit = consumer.getProfit().subtract(dto.getPrice());
-        if (newConsumerProfit.compareTo(MIN_PROFIT_THRESHOLD) < 0) {
-            log.warn("Order {} rejected due to profit limit. Consumer: {}, Current profit: {}, Order price: {}, New profit would be: {}",
-                dto.getName(), consumer.getName(), consumer.getProfit(), dto.getPrice(), newConsumerProfit);
+        long price = Money.of(dto.getPrice());
+        long consumerProfit = Money.of(consumer.getProfit());
+        long newConsumerProfit = Money.subtract(consumerProfit, price);
+        boolean belowThreshold = newConsumerProfit < MIN_PROFIT_THRESHOLD;
+        phaseStart = orderMetrics.record(OrderMetrics.Phase.THRESHOLD_CHECK, phaseStart);
+        if (belowThreshold) {
+            log.debug("Order {} rejected due to profit limit. Consumer: {}, Current profit: {}, Order price: {}",
+                dto.getName(), consumer.getName(), consumer.getProfit(), dto.getPrice());
             throw new BusinessRuleException("Order would make consumer profit less than -1000. Current: "
-                + consumer.getProfit() + ", After order: " + newConsumerProfit);
+                + Money.toString(consumerProfit) + ", After order: " + Money.toString(newConsumerProfit));
         }
 
-        supplier.setProfit(supplier.getProfit().add(dto.getPrice()));
-        consumer.setProfit(newConsumerProfit);
+        supplier.setProfit(Money.toBigDecimal(Money.add(Money.of(supplier.getProfit()), price)));
+        consumer.setProfit(Money.toBigDecimal(newConsumerProfit));
 
         clientService.saveClient(supplier);
         clientService.saveClient(consumer);
 
+        phaseStart = orderMetrics.start();
         simulateProcessingDelay();
+        phaseStart = orderMetrics.record(OrderMetrics.Phase.PROCESSING_DELAY, phaseStart);
 
         Order order = new Order();
         order.setName(dto.getName());
         order.setSupplier(supplier);
         order.setConsumer(consumer);
-        order.setPrice(dto.getPrice());
+        order.setPrice(Money.toBigDecimal(price));
         order.setProcessingStartTime(LocalDateTime.now());
         order.setProcessingEndTime(LocalDateTime.now());
 
         try {
             order = orderRepository.save(order);
-            log.info("Order created successfully: {} with ID: {}, Consumer new profit: {}",
+            outboxWriter.orderCreated(order);
+            orderMetrics.record(OrderMetrics.Phase.INSERT, phaseStart);
+            clientBalanceCache.putAfterCommit(order);
+            orderAuditJournal.orderCreatedAfterCommit(order);
+            log.debug("Order created successfully: {} with ID: {}, Consumer new profit: {}",
                 order.getName(), order.getId(), consumer.getProfit());
             return orderMapper.toOrderResponseDto(order);
         } catch (DataIntegrityViolationException e) {
-            log.warn("Duplicate order detected at database level: {}", e.getMessage());
-            throw new DuplicateResourceException("Order with this business key already exists");
+            log.debug("Duplicate order detected at database level: {}", e.getMessage());
+            throw new DuplicateResourceException("Order with this business key already exists", e);
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public OrderResponseDto getOrder(Long id) {
         log.debug("Getting order with ID: {}", id);
-        Order order = orderRepository.findById(id)
+        Optional<Order> order = orderRepository.findByIdWithClients(id);
+        if (order.isPresent()) {
+            return orderMapper.toOrderResponseDto(order.get());
+        }
+        return orderArchiveService.findById(id)
+            .map(archived -> toOrderResponseDto(archived, clientService.getClients(
+                List.of(archived.supplierId(), archived.consumerId()))))
             .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
-        return orderMapper.toOrderResponseDto(order);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getAllOrders() {
-        log.debug("Getting all orders");
-        return orderRepository.findAll().stream()
-            .map(orderMapper::toOrderResponseDto)
-            .collect(Collectors.toList());
+        List<OrderResponseDto> orders = new ArrayList<>();
+        streamAllOrders(orders::add);
+        return orders;
     }
 
-    @Transactional
-    public List<OrderResponseDto> getOrdersByClient(Long clientId) {
-        log.debug("Getting orders for client ID: {}", clientId);
-        if (!clientService.getClientById(clientId).getId().equals(clientId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + clientId);
+    /**
+     * Passes every order to {@code sink} while the query cursor is open, so the caller can write
+     * the response without holding the whole list. Each order is detached once mapped to keep the
+     * persistence context from growing with the result.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<OrderResponseDto> sink) {
+        log.debug("Streaming all orders");
+        try (Stream<Order> orders = orderRepository.streamAllWithClients()) {
+            forEachMapped(orders, sink);
         }
+    }
 
-        return orderRepository.findByClientId(clientId).stream()
-            .map(orderMapper::toOrderResponseDto)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamOrdersByClient(Long clientId, Consumer<OrderResponseDto> sink) {
+        log.debug("Streaming orders for client ID: {}", clientId);
+        clientService.requireClientExists(clientId);
+
+        try (Stream<Order> orders = orderRepository.streamByClientIdWithClients(clientId)) {
+            forEachMapped(orders, sink);
+        }
+        forEachArchived(orderArchiveService.findByClientId(clientId), sink);
     }
 
-    @Transactional
-    public List<OrderResponseDto> getSuppliedOrders(Long supplierId) {
-        log.debug("Getting supplied orders for client ID: {}", supplierId);
-        if (!clientService.getClientById(supplierId).getId().equals(supplierId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + supplierId);
+    @Transactional(readOnly = true)
+    public void streamSuppliedOrders(Long supplierId, Consumer<OrderResponseDto> sink) {
+        log.debug("Streaming supplied orders for client ID: {}", supplierId);
+        clientService.requireClientExists(supplierId);
+
+        try (Stream<Order> orders = orderRepository.streamBySupplierIdWithClients(supplierId)) {
+            forEachMapped(orders, sink);
         }
+        forEachArchived(orderArchiveService.findBySupplierId(supplierId), sink);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamConsumedOrders(Long consumerId, Consumer<OrderResponseDto> sink) {
+        log.debug("Streaming consumed orders for client ID: {}", consumerId);
+        clientService.requireClientExists(consumerId);
 
-        return orderRepository.findBySupplierIdOrderByCreatedAtDesc(supplierId).stream()
-            .map(orderMapper::toOrderResponseDto)
-            .collect(Collectors.toList());
+        try (Stream<Order> orders = orderRepository.streamByConsumerIdWithClients(consumerId)) {
+            forEachMapped(orders, sink);
+        }
+        forEachArchived(orderArchiveService.findByConsumerId(consumerId), sink);
     }
 
-    @Transactional
-    public List<OrderResponseDto> getConsumedOrders(Long consumerId) {
-        log.debug("Getting consumed orders for client ID: {}", consumerId);
-        if (!clientService.getClientById(consumerId).getId().equals(consumerId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + consumerId);
+    private void forEachMapped(Stream<Order> orders, Consumer<OrderResponseDto> sink) {
+        orders.forEach(order -> {
+            sink.accept(orderMapper.toOrderResponseDto(order));
+            entityManager.detach(order);
+        });
+    }
+
+    /**
+     * Maps archived orders with their clients loaded in batches of {@link #ARCHIVED_CLIENT_BATCH}
+     * orders instead of two lookups per order.
+     */
+    private void forEachArchived(List<ArchivedOrder> archived, Consumer<OrderResponseDto> sink) {
+        for (int from = 0; from < archived.size(); from += ARCHIVED_CLIENT_BATCH) {
+            List<ArchivedOrder> batch = archived.subList(from, Math.min(archived.size(), from + ARCHIVED_CLIENT_BATCH));
+            Set<Long> clientIds = new HashSet<>();
+            batch.forEach(order -> {
+                clientIds.add(order.supplierId());
+                clientIds.add(order.consumerId());
+            });
+            Map<Long, ClientResponseDto> clients = clientService.getClients(clientIds);
+            batch.forEach(order -> sink.accept(toOrderResponseDto(order, clients)));
         }
+    }
+
+    private OrderResponseDto toOrderResponseDto(ArchivedOrder archived, Map<Long, ClientResponseDto> clients) {
+        return new OrderResponseDto(
+            archived.id(),
+            archived.name(),
+            clients.get(archived.supplierId()),
+            clients.get(archived.consumerId()),
+            archived.price(),
+            archived.processingStartTime(),
+            archived.processingEndTime(),
+            archived.createdAt());
+    }
 
-        return orderRepository.findByConsumerIdOrderByCreatedAtDesc(consumerId).stream()
-            .map(orderMapper::toOrderResponseDto)
-            .collect(Collectors.toList());
+    private OrderResponseDto toOrderResponseDto(CommittedOrder order) {
+        Map<Long, ClientResponseDto> clients = clientService.getClients(List.of(order.supplierId(), order.consumerId()));
+        return new OrderResponseDto(
+            order.id(),
+            order.name(),
+            clients.get(order.supplierId()),
+            clients.get(order.consumerId()),
+            order.price(),
+            order.processingStartTime(),
+            order.processingEndTime(),
+            order.createdAt());
     }
 
     private void validateOrderCreation(OrderCreateDto dto) {
         if (dto.getPrice() == null || dto.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
             throw new BusinessRuleException("Order price must be positive");
         }
+        long price;
+        try {
+            price = Money.of(dto.getPrice());
+        } catch (ArithmeticException e) {
+            throw new BusinessRuleException("Order price is out of range");
+        }
+        if (price == Money.ZERO) {
+            throw new BusinessRuleException("Order price must be at least 0.01");
+        }
         if (dto.getSupplierId() == null || dto.getConsumerId() == null) {
             throw new BusinessRuleException("Supplier and consumer IDs are required");
         }
@@ -172,11 +364,35 @@ public class OrderService {
         }
     }
 
+    private Client lockClient(Long clientId) {
+        long waitStart = clientContentionMonitor.beforeLock(clientId);
+        try {
+            return clientService.getClientByIdForUpdate(clientId);
+        } finally {
+            clientContentionMonitor.afterLock(clientId, waitStart);
+        }
+    }
+
+    /**
+     * Deactivation is one-way, so a client that the cache already knows as inactive can be rejected
+     * before taking any row locks. Active clients are still re-checked under the lock.
+     */
+    private void rejectKnownInactiveClients(OrderCreateDto dto) {
+        Optional<ClientBalance> supplier = clientBalanceCache.get(dto.getSupplierId());
+        if (supplier.isPresent() && !supplier.get().active()) {
+            throw new BusinessRuleException("Cannot create order for inactive supplier with id: " + dto.getSupplierId());
+        }
+        Optional<ClientBalance> consumer = clientBalanceCache.get(dto.getConsumerId());
+        if (consumer.isPresent() && !consumer.get().active()) {
+            throw new BusinessRuleException("Cannot create order for inactive consumer with id: " + dto.getConsumerId());
+        }
+    }
+
     private void simulateProcessingDelay() {
         try {
-            int delaySeconds = random.nextInt(10) + 1;
-            log.debug("Simulating order processing delay: {} seconds", delaySeconds);
-            Thread.sleep(delaySeconds * 1000L);
+            long delayMs = processingDelayMinMs + random.nextLong(processingDelayMaxMs - processingDelayMinMs + 1);
+            log.debug("Simulating order processing delay: {} ms", delayMs);
+            Thread.sleep(delayMs);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.warn("Order processing delay interrupted", e);
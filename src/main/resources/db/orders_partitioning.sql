@@ -0,0 +1,74 @@
+BEGIN;
+
+ALTER TABLE orders RENAME TO orders_legacy;
+
+CREATE TABLE orders (
+    id                    BIGINT         GENERATED BY DEFAULT AS IDENTITY,
+    name                  VARCHAR(255)   NOT NULL,
+    supplier_id           BIGINT         NOT NULL REFERENCES clients (id),
+    consumer_id           BIGINT         NOT NULL REFERENCES clients (id),
+    price                 NUMERIC(19, 2) NOT NULL,
+    processing_start_time TIMESTAMP(6)   NOT NULL,
+    processing_end_time   TIMESTAMP(6),
+    created_at            TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Уникальный индекс секционированной таблицы обязан включать created_at и поэтому не ловит
+-- дубликаты по (name, supplier_id, consumer_id). Бизнес-ключ занимается в несекционированной
+-- таблице order_keys триггером при вставке заказа; строки не удаляются при архивации секций,
+-- так что ключ уникален во всех секциях и в архиве.
+CREATE TABLE order_keys (
+    name        VARCHAR(255) NOT NULL,
+    supplier_id BIGINT       NOT NULL,
+    consumer_id BIGINT       NOT NULL,
+    PRIMARY KEY (name, supplier_id, consumer_id)
+);
+
+CREATE FUNCTION orders_claim_business_key() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO order_keys (name, supplier_id, consumer_id) VALUES (NEW.name, NEW.supplier_id, NEW.consumer_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE INDEX orders_business_key_idx ON orders (name, supplier_id, consumer_id);
+CREATE INDEX orders_supplier_created_idx ON orders (supplier_id, created_at DESC);
+CREATE INDEX orders_consumer_created_idx ON orders (consumer_id, created_at DESC);
+
+DO $$
+    DECLARE
+        month_start DATE;
+        last_month  DATE := date_trunc('month', NOW() + INTERVAL '2 months')::DATE;
+    BEGIN
+        SELECT date_trunc('month', COALESCE(MIN(created_at), NOW()))::DATE INTO month_start FROM orders_legacy;
+
+        WHILE month_start <= last_month LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                               'orders_p' || to_char(month_start, 'YYYYMM'),
+                               month_start,
+                               (month_start + INTERVAL '1 month')::DATE);
+                month_start := (month_start + INTERVAL '1 month')::DATE;
+            END LOOP;
+    END $$;
+
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+
+INSERT INTO orders (id, name, supplier_id, consumer_id, price, processing_start_time, processing_end_time, created_at)
+SELECT id, name, supplier_id, consumer_id, price, processing_start_time, processing_end_time, created_at
+FROM orders_legacy;
+
+INSERT INTO order_keys (name, supplier_id, consumer_id)
+SELECT name, supplier_id, consumer_id
+FROM orders_legacy;
+
+CREATE TRIGGER orders_claim_business_key
+    BEFORE INSERT ON orders
+    FOR EACH ROW EXECUTE FUNCTION orders_claim_business_key();
+
+-- Identity-последовательность новой таблицы продолжает нумерацию перенесённых заказов.
+SELECT setval(pg_get_serial_sequence('orders', 'id'), COALESCE((SELECT MAX(id) FROM orders), 0) + 1, false);
+
+DROP TABLE orders_legacy;
+
+COMMIT;
@@ -0,0 +1,149 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.service.ClientLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The locking engine with {@code order.locking.mode=advisory}, on its own database where
+ * {@link H2AdvisoryLocks} stands in for the PostgreSQL advisory locks.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"order.locking.mode=advisory",
+        "spring.datasource.url=jdbc:h2:mem:advisory_locking;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1"})
+@ActiveProfiles("test")
+class AdvisoryLockingTests {
+
+    private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClientLockService clientLockService;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @BeforeEach
+    void registerAdvisoryLocks() {
+        H2AdvisoryLocks.register(jdbcTemplate);
+    }
+
+    @Test
+    void opposingOrdersOnHotPairDoNotDeadlockOrLoseUpdates() throws Exception {
+        assertThat(clientLockService.mode()).isEqualTo(ClientLockService.Mode.ADVISORY);
+        ClientResponseDto first = api.createClient("HotFirst");
+        ClientResponseDto second = api.createClient("HotSecond");
+
+        List<HttpStatus> statuses = runConcurrently(20, i -> i % 2 == 0
+            ? api.order(first, second, "1.00")
+            : api.order(second, first, "2.00"));
+
+        assertThat(statuses).allMatch(HttpStatus.CREATED::equals);
+        assertThat(api.profitOf(first)).isEqualByComparingTo("-10.00");
+        assertThat(api.profitOf(second)).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void profileUpdatesDuringOrdersKeepTheProfit() throws Exception {
+        ClientResponseDto supplier = api.createClient("UpdatedSupplier");
+        ClientResponseDto consumer = api.createClient("UpdatedConsumer");
+
+        List<HttpStatus> statuses = runConcurrently(20, i -> i % 2 == 0
+            ? api.order(supplier, consumer, "5.00")
+            : update(consumer, "UpdatedConsumer " + i));
+
+        assertThat(statuses).allMatch(status -> status == HttpStatus.CREATED || status == HttpStatus.OK);
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo("-50.00");
+        assertThat(api.profitOf(supplier)).isEqualByComparingTo("50.00");
+        assertThat(restTemplate.getForObject("/api/clients/" + consumer.getId(), ClientResponseDto.class).getName())
+            .startsWith("UpdatedConsumer ");
+    }
+
+    @Test
+    void deactivationWaitsForOrdersHoldingTheClient() throws Exception {
+        ClientResponseDto supplier = api.createClient("DeactivatedSupplier");
+        ClientResponseDto consumer = api.createClient("DeactivatedConsumer");
+
+        List<HttpStatus> statuses = runConcurrently(10, i -> i == 5
+            ? HttpStatus.valueOf(restTemplate.postForEntity("/api/clients/deactivate",
+                new ClientDeactivationRequestDto(List.of(consumer.getId()), null, null, null),
+                ClientDeactivationReportDto.class).getStatusCode().value())
+            : api.order(supplier, consumer, "50.00"));
+
+        assertThat(statuses.get(5)).isEqualTo(HttpStatus.OK);
+        long created = statuses.stream().filter(HttpStatus.CREATED::equals).count();
+        assertThat(statuses).filteredOn(HttpStatus.BAD_REQUEST::equals).hasSize(9 - (int) created);
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo(BigDecimal.valueOf(-50 * created));
+        assertThat(api.order(supplier, consumer, "1.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private interface Task {
+        HttpStatus run(int index) throws Exception;
+    }
+
+    private List<HttpStatus> runConcurrently(int count, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try {
+            List<Future<HttpStatus>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                Callable<HttpStatus> call = () -> {
+                    startLatch.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(call));
+            }
+            startLatch.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> future : futures) {
+                statuses.add(future.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private HttpStatus update(ClientResponseDto client, String name) {
+        ClientCreateDto dto = new ClientCreateDto(name, client.getEmail(), "Updated Address", null);
+        return HttpStatus.valueOf(restTemplate.exchange("/api/clients/" + client.getId(), HttpMethod.PUT,
+            new HttpEntity<>(dto), String.class).getStatusCode().value());
+    }
+}
@@ -0,0 +1,55 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clients and orders created through the REST API, shared by the tests that run against a server.
+ * Client emails get a random suffix, so tests on the shared database never collide.
+ */
+public final class ApiFixture {
+
+    private final TestRestTemplate restTemplate;
+
+    public ApiFixture(TestRestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    public ClientResponseDto createClient(String name) {
+        ClientCreateDto dto = new ClientCreateDto(name, name.toLowerCase() + "." + UUID.randomUUID() + "@test.com",
+            "Test Address", null);
+        ResponseEntity<ClientResponseDto> response = restTemplate.postForEntity("/api/clients", dto, ClientResponseDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody();
+    }
+
+    public ClientResponseDto getClient(Long id) {
+        return restTemplate.getForObject("/api/clients/" + id, ClientResponseDto.class);
+    }
+
+    public BigDecimal profitOf(ClientResponseDto client) {
+        return restTemplate.getForObject("/api/clients/" + client.getId() + "/profit", BigDecimal.class);
+    }
+
+    public HttpStatus order(String name, ClientResponseDto supplier, ClientResponseDto consumer, String price) {
+        OrderCreateDto dto = new OrderCreateDto(name, supplier.getId(), consumer.getId(), new BigDecimal(price));
+        return HttpStatus.valueOf(restTemplate.postForEntity("/api/orders", dto, String.class).getStatusCode().value());
+    }
+
+    /**
+     * Order with a unique name, so it is never rejected as a duplicate.
+     */
+    public HttpStatus order(ClientResponseDto supplier, ClientResponseDto consumer, String price) {
+        return order("Order " + UUID.randomUUID(), supplier, consumer, price);
+    }
+}
@@ -0,0 +1,107 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs on its own database because deactivation without an id list touches every active client.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"client.deactivation.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:client_deactivation;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"})
+@ActiveProfiles("test")
+class ClientDeactivationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void deactivatesClientsMatchingEveryCriterion() {
+        ClientResponseDto supplier = api.createClient("ActiveSupplier");
+        ClientResponseDto consumer = api.createClient("ActiveConsumer");
+        ClientResponseDto idle = api.createClient("Idle");
+        ClientResponseDto other = api.createClient("Other");
+        assertThat(api.order(supplier, idle, "20.00")).isEqualTo(HttpStatus.CREATED);
+        assertThat(api.order(supplier, consumer, "20.00")).isEqualTo(HttpStatus.CREATED);
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+
+        ClientDeactivationReportDto byActivity = deactivate(new ClientDeactivationRequestDto(
+            List.of(supplier.getId(), consumer.getId(), idle.getId()), since, null, null)).getBody();
+        assertThat(byActivity.getDeactivated()).isZero();
+
+        ClientDeactivationReportDto byProfit = deactivate(new ClientDeactivationRequestDto(
+            List.of(consumer.getId(), idle.getId(), other.getId()), null, null, new BigDecimal("-1"))).getBody();
+        assertThat(byProfit.getDeactivated()).isEqualTo(2);
+        assertThat(byProfit.getChunks()).isEqualTo(2);
+
+        assertThat(api.getClient(consumer.getId()).getActive()).isFalse();
+        assertThat(api.getClient(idle.getId()).getActive()).isFalse();
+        assertThat(api.getClient(other.getId()).getActive()).isTrue();
+        assertThat(api.order(supplier, consumer, "20.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForObject("/api/clients/" + consumer.getId() + "/profit", BigDecimal.class))
+            .isEqualByComparingTo("-20.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE type = 'CLIENT_DEACTIVATED' " +
+            "AND aggregate_id IN (?, ?)", Long.class, consumer.getId(), idle.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void deactivatesIdleClientsAcrossChunks() {
+        ClientResponseDto supplier = api.createClient("BusySupplier");
+        ClientResponseDto consumer = api.createClient("BusyConsumer");
+        assertThat(api.order(supplier, consumer, "20.00")).isEqualTo(HttpStatus.CREATED);
+        List<ClientResponseDto> idle = List.of(api.createClient("Idle1"), api.createClient("Idle2"), api.createClient("Idle3"));
+
+        ClientDeactivationReportDto report = deactivate(new ClientDeactivationRequestDto(
+            null, LocalDateTime.now().minusHours(1), null, null)).getBody();
+
+        assertThat(report.getChunks()).isGreaterThan(1);
+        assertThat(idle).allMatch(client -> !api.getClient(client.getId()).getActive());
+        assertThat(api.getClient(supplier.getId()).getActive()).isTrue();
+        assertThat(api.getClient(consumer.getId()).getActive()).isTrue();
+    }
+
+    @Test
+    void rejectsRequestsWithoutCriteriaAndRepeatedDeactivation() {
+        assertThat(deactivate(new ClientDeactivationRequestDto()).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(deactivate(new ClientDeactivationRequestDto(null, null, BigDecimal.TEN, BigDecimal.ONE))
+            .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ClientResponseDto client = api.createClient("Single");
+        String path = "/api/clients/" + client.getId() + "/deactivate";
+        assertThat(restTemplate.postForEntity(path, null, ClientResponseDto.class).getBody().getActive()).isFalse();
+        assertThat(restTemplate.postForEntity(path, null, String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.postForEntity("/api/clients/999999/deactivate", null, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<ClientDeactivationReportDto> deactivate(ClientDeactivationRequestDto request) {
+        return restTemplate.postForEntity("/api/clients/deactivate", request, ClientDeactivationReportDto.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientImportReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientImportReportDto.RowError;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ClientImportTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void csvImportCreatesValidRowsAndReportsTheRest() {
+        String prefix = UUID.randomUUID().toString();
+        ClientCreateDto existing = new ClientCreateDto("Existing", prefix + ".existing@test.com", null, null);
+        assertThat(restTemplate.postForEntity("/api/clients", existing, ClientResponseDto.class).getStatusCode())
+            .isEqualTo(HttpStatus.CREATED);
+
+        String csv = """
+            email,name,phone
+            %1$s.first@test.com,First,+1-555
+            %1$s.second@test.com,"Second, Jr. ""The Quoted""\",
+
+            not-an-email,Invalid,
+            %1$s.first@test.com,First Again,
+            %1$s.existing@test.com,Existing Again,
+            %1$s.short@test.com,Short
+            """.formatted(prefix);
+
+        ClientImportReportDto report = importClients(csv, "text/csv");
+
+        assertThat(report.getRows()).isEqualTo(6);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(RowError::getLine).containsExactly(5L, 6L, 8L, 7L);
+        assertThat(report.getErrors().get(0).getMessage()).startsWith("email:");
+        assertThat(report.getErrors().get(1).getMessage()).isEqualTo("Duplicate email in import");
+        assertThat(report.getErrors().get(2).getMessage()).startsWith("Malformed row");
+        assertThat(report.getErrors().get(3).getMessage()).contains("already exists");
+
+        ClientResponseDto second = restTemplate.getForObject("/api/clients/search?keyword=" + prefix + ".second",
+            ClientResponseDto[].class)[0];
+        assertThat(second.getName()).isEqualTo("Second, Jr. \"The Quoted\"");
+        assertThat(second.getPhone()).isNull();
+        assertThat(second.getActive()).isTrue();
+        assertThat(restTemplate.getForObject("/api/clients/" + second.getId() + "/profit", BigDecimal.class))
+            .isEqualByComparingTo("0");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE type = 'CLIENT_CREATED' " +
+            "AND aggregate_id = ?", Long.class, second.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void ndjsonImportSpansSeveralChunks() {
+        String prefix = UUID.randomUUID().toString();
+        int clients = 2500;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < clients; i++) {
+            ndjson.append("{\"name\":\"Bulk ").append(i).append("\",\"email\":\"").append(prefix).append('.').append(i)
+                .append("@test.com\",\"address\":\"Bulk Address\"}\n");
+        }
+        ndjson.append("{\"name\":\"Bulk 0\",\"email\":\"").append(prefix).append(".0@test.com\"}\n");
+        ndjson.append("{\"name\":\n");
+
+        ClientImportReportDto report = importClients(ndjson.toString(), "application/x-ndjson");
+
+        assertThat(report.getCreated()).isEqualTo(clients);
+        assertThat(report.getErrors()).extracting(RowError::getLine).containsExactly(2501L, 2502L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clients WHERE email LIKE ?", Long.class,
+            prefix + ".%")).isEqualTo(clients);
+
+        ClientImportReportDto rerun = importClients(ndjson.toString(), "application/x-ndjson");
+        assertThat(rerun.getCreated()).isZero();
+        assertThat(rerun.getRejected()).isEqualTo(clients + 2);
+        assertThat(rerun.getErrors()).hasSize(1000);
+        assertThat(rerun.isErrorsTruncated()).isTrue();
+    }
+
+    private ClientImportReportDto importClients(String body, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        ResponseEntity<ClientImportReportDto> response = restTemplate.postForEntity("/api/clients/import",
+            new HttpEntity<>(body, headers), ClientImportReportDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
@@ -0,0 +1,170 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.service.ClientService;
+import com.lukianchykov.ordermanagementapplication.service.OrderService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same mixed load against {@code order.locking.mode=row} and {@code advisory}: order
+ * writers on a small set of clients, profile updates of those clients and client reads, and
+ * reports throughput and latency per operation. Run with
+ * {@code mvn test -Dtest=ClientLockingBenchmarkTests -Dbenchmark=true}. Without
+ * {@code -Dbenchmark.datasource.url} (plus {@code .username} and {@code .password}) it runs on H2,
+ * where {@link H2AdvisoryLocks} emulates the advisory locks; only a PostgreSQL run shows the row
+ * lock and MultiXact savings. Sizes are set with {@code -Dbenchmark.clients},
+ * {@code -Dbenchmark.order-threads}, {@code -Dbenchmark.update-threads},
+ * {@code -Dbenchmark.read-threads} and {@code -Dbenchmark.seconds}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ClientLockingBenchmarkTests {
+
+    private static final String DATASOURCE_URL = System.getProperty("benchmark.datasource.url");
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 20);
+
+    private static final int ORDER_THREADS = Integer.getInteger("benchmark.order-threads", 8);
+
+    private static final int UPDATE_THREADS = Integer.getInteger("benchmark.update-threads", 2);
+
+    private static final int READ_THREADS = Integer.getInteger("benchmark.read-threads", 2);
+
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+
+    private enum Operation {
+        ORDER, UPDATE, READ
+    }
+
+    private record Result(String mode, Operation operation, AtomicLong calls, AtomicLong failures, Histogram latencies) {
+    }
+
+    private interface Call {
+        void run(ThreadLocalRandom random) throws Exception;
+    }
+
+    @Test
+    void compareRowAndAdvisoryLocks() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.addAll(run("row"));
+        results.addAll(run("advisory"));
+
+        System.out.printf("%-9s %-7s %9s %9s %9s %9s %9s%n", "mode", "op", "calls", "failed", "ops/s", "p50 ms",
+            "p99 ms");
+        for (Result result : results) {
+            System.out.printf("%-9s %-7s %9d %9d %9.1f %9.1f %9.1f%n", result.mode(), result.operation(),
+                result.calls().get(), result.failures().get(), (double) result.calls().get() / SECONDS,
+                result.latencies().getValueAtPercentile(50) / 1000.0,
+                result.latencies().getValueAtPercentile(99) / 1000.0);
+        }
+        assertThat(results).allMatch(result -> result.calls().get() > 0);
+    }
+
+    private List<Result> run(String mode) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--order.locking.mode=" + mode,
+            "--admission.enabled=false", "--audit.journal.path=target/audit-locking-benchmark"));
+        if (DATASOURCE_URL != null) {
+            args.add("--spring.datasource.url=" + DATASOURCE_URL);
+            args.add("--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "postgres"));
+            args.add("--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""));
+            args.add("--spring.datasource.driver-class-name=org.postgresql.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect");
+        } else {
+            args.add("--spring.datasource.url=jdbc:h2:mem:locking_benchmark_" + mode
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagementApplication.class)
+            .profiles("test")
+            .run(args.toArray(String[]::new))) {
+            if (DATASOURCE_URL == null) {
+                H2AdvisoryLocks.register(context.getBean(JdbcTemplate.class));
+            }
+            ClientService clientService = context.getBean(ClientService.class);
+            OrderService orderService = context.getBean(OrderService.class);
+
+            List<ClientResponseDto> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(clientService.createClient(new ClientCreateDto("Bench " + i,
+                    "bench." + i + "." + UUID.randomUUID() + "@test.com", "Address", null)));
+            }
+
+            List<Result> results = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(ORDER_THREADS + UPDATE_THREADS + READ_THREADS);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS) + TimeUnit.MILLISECONDS.toNanos(100);
+            try {
+                results.add(submit(executor, startLatch, deadline, mode, Operation.ORDER, ORDER_THREADS, random -> {
+                    int supplier = random.nextInt(CLIENTS);
+                    int consumer = (supplier + 1 + random.nextInt(CLIENTS - 1)) % CLIENTS;
+                    orderService.createOrder(new OrderCreateDto("Bench " + UUID.randomUUID(),
+                        clients.get(supplier).getId(), clients.get(consumer).getId(), new BigDecimal("0.01")));
+                }));
+                results.add(submit(executor, startLatch, deadline, mode, Operation.UPDATE, UPDATE_THREADS, random -> {
+                    ClientResponseDto client = clients.get(random.nextInt(CLIENTS));
+                    clientService.updateClient(client.getId(), new ClientCreateDto("Bench " + random.nextInt(),
+                        client.getEmail(), "Address " + random.nextInt(), null));
+                }));
+                results.add(submit(executor, startLatch, deadline, mode, Operation.READ, READ_THREADS,
+                    random -> clientService.getClient(clients.get(random.nextInt(CLIENTS)).getId())));
+                startLatch.countDown();
+                executor.shutdown();
+                assertThat(executor.awaitTermination(SECONDS + 60L, TimeUnit.SECONDS)).isTrue();
+            } finally {
+                executor.shutdownNow();
+            }
+            return results;
+        }
+    }
+
+    private Result submit(ExecutorService executor, CountDownLatch startLatch, long deadline, String mode,
+                          Operation operation, int threads, Call call) {
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        AtomicLong calls = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        call.run(random);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                        latencies.getHighestTrackableValue()));
+                    calls.incrementAndGet();
+                }
+            });
+        }
+        return new Result(mode, operation, calls, failures, latencies);
+    }
+}
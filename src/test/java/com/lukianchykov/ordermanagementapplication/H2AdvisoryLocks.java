@@ -0,0 +1,46 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Stands in for PostgreSQL's {@code pg_advisory_xact_lock(bigint)} on H2 by locking a row of a
+ * side table, so the lock is held until the transaction ends without touching {@code clients}.
+ * {@link #register} has to run before the first lock is taken.
+ */
+public final class H2AdvisoryLocks {
+
+    private H2AdvisoryLocks() {
+    }
+
+    public static void register(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS advisory_locks (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_advisory_xact_lock FOR '" + H2AdvisoryLocks.class.getName()
+            + ".lock'");
+    }
+
+    public static void lock(Connection connection, long key) throws SQLException {
+        while (true) {
+            try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id FROM advisory_locks WHERE id = ? FOR UPDATE")) {
+                select.setLong(1, key);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    if (resultSet.next()) {
+                        return;
+                    }
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO advisory_locks (id) VALUES (?)")) {
+                insert.setLong(1, key);
+                insert.executeUpdate();
+                return;
+            } catch (SQLException e) {
+                // another transaction inserted the key first, wait for its lock
+            }
+        }
+    }
+}
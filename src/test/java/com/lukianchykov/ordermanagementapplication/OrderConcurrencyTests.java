@@ -0,0 +1,221 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code ScenarioTestApplication} scenarios turned into assertions, plus throughput and latency
+ * budgets for {@code createOrder}. Runs against in-memory H2 in PostgreSQL mode with a fixed 20 ms
+ * processing delay, so every order holds its client row locks for a known time. The default budgets
+ * fit a single-core CI runner; tighten them with {@code -Dperf.min-throughput} and {@code -Dperf.max-p99-ms}.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class OrderConcurrencyTests {
+
+    private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("perf.min-throughput", "10"));
+
+    private static final long MAX_P99_MILLIS = Long.getLong("perf.max-p99-ms", 3000);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void duplicateOrdersBurstCreatesExactlyOneOrder() throws Exception {
+        ClientResponseDto supplier = api.createClient("Supplier1");
+        ClientResponseDto consumer = api.createClient("Consumer1");
+        double duplicatesBefore = duplicateRejections();
+
+        List<HttpStatus> statuses = runConcurrently(5, i -> api.order("Similar Order", supplier, consumer, "1.00"));
+
+        assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(4);
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo("-1.00");
+        assertThat(api.profitOf(supplier)).isEqualByComparingTo("1.00");
+        assertThat(duplicateRejections() - duplicatesBefore).isEqualTo(4);
+    }
+
+    @Test
+    void ordersNearProfitLimitNeverBreachThreshold() throws Exception {
+        ClientResponseDto supplier = api.createClient("Supplier2");
+        ClientResponseDto consumer = api.createClient("Consumer2");
+        assertThat(api.order("Setup Order", supplier, consumer, "970.00")).isEqualTo(HttpStatus.CREATED);
+
+        List<HttpStatus> statuses = runConcurrently(10,
+            i -> api.order("Decreasing Order " + (i + 1), supplier, consumer, String.valueOf(100 - i * 10)));
+
+        BigDecimal accepted = BigDecimal.ZERO;
+        for (int i = 0; i < statuses.size(); i++) {
+            assertThat(statuses.get(i)).isIn(HttpStatus.CREATED, HttpStatus.BAD_REQUEST);
+            if (statuses.get(i) == HttpStatus.CREATED) {
+                accepted = accepted.add(BigDecimal.valueOf(100 - i * 10L));
+            }
+        }
+
+        assertThat(accepted).isPositive().isLessThanOrEqualTo(new BigDecimal("30"));
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo(new BigDecimal("-970").subtract(accepted))
+            .isGreaterThanOrEqualTo(new BigDecimal("-1000"));
+        assertThat(api.profitOf(supplier)).isEqualByComparingTo(new BigDecimal("970").add(accepted));
+    }
+
+    @Test
+    void ordersAfterDeactivationAreRejected() throws Exception {
+        ClientResponseDto supplier = api.createClient("Supplier3");
+        ClientResponseDto consumer = api.createClient("Consumer3");
+        LocalDateTime[] deactivatedAt = new LocalDateTime[1];
+
+        List<HttpStatus> statuses = runConcurrently(11, i -> {
+            if (i == 10) {
+                Thread.sleep(50);
+                HttpStatus status = HttpStatus.valueOf(restTemplate.postForEntity("/api/clients/" + consumer.getId()
+                    + "/deactivate", null, String.class).getStatusCode().value());
+                deactivatedAt[0] = LocalDateTime.now();
+                return status;
+            }
+            Thread.sleep((i + 1) * 10L);
+            return api.order("Order " + (i + 1), supplier, consumer, "50.00");
+        });
+
+        assertThat(statuses.get(10)).isEqualTo(HttpStatus.OK);
+        assertThat(statuses.subList(0, 10)).allMatch(s -> s == HttpStatus.CREATED || s == HttpStatus.BAD_REQUEST);
+        assertThat(api.order("Late Order", supplier, consumer, "50.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(api.getClient(consumer.getId()).getActive()).isFalse();
+
+        long created = statuses.subList(0, 10).stream().filter(HttpStatus.CREATED::equals).count();
+        List<Map<String, Object>> orders = jdbcTemplate.queryForList("SELECT o.price, o.created_at, e.id AS event_offset " +
+            "FROM orders o JOIN outbox_events e ON e.type = 'ORDER_CREATED' AND e.aggregate_id = o.id " +
+            "WHERE o.consumer_id = ?", consumer.getId());
+        Long deactivationOffset = jdbcTemplate.queryForObject("SELECT id FROM outbox_events " +
+            "WHERE type = 'CLIENT_DEACTIVATED' AND aggregate_id = ?", Long.class, consumer.getId());
+        assertThat(orders).hasSize((int) created);
+        assertThat(orders).allSatisfy(row -> {
+            assertThat((Long) row.get("event_offset")).as("order committed after deactivation").isLessThan(deactivationOffset);
+            assertThat(((Timestamp) row.get("created_at")).toLocalDateTime()).isBefore(deactivatedAt[0]);
+        });
+        BigDecimal accepted = orders.stream().map(row -> (BigDecimal) row.get("price")).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(accepted).isEqualByComparingTo(new BigDecimal("50.00").multiply(BigDecimal.valueOf(created)));
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo(accepted.negate());
+        assertThat(api.profitOf(supplier)).isEqualByComparingTo(accepted);
+    }
+
+    @Test
+    void independentClientPairsProceedInParallel() throws Exception {
+        int pairs = 16;
+        int ordersPerPair = 10;
+        List<ClientResponseDto[]> clients = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            clients.add(new ClientResponseDto[] {api.createClient("ParallelSupplier" + i), api.createClient("ParallelConsumer" + i)});
+        }
+
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long start = System.nanoTime();
+        List<HttpStatus> statuses = runConcurrently(pairs, i -> {
+            HttpStatus last = HttpStatus.CREATED;
+            for (int n = 0; n < ordersPerPair && last == HttpStatus.CREATED; n++) {
+                long sent = System.nanoTime();
+                last = api.order("Parallel " + n, clients.get(i)[0], clients.get(i)[1], "1.00");
+                latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+            }
+            return last;
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = pairs * ordersPerPair / seconds;
+
+        assertThat(statuses).allMatch(HttpStatus.CREATED::equals);
+        assertThat(throughput).as("orders per second").isGreaterThan(MIN_THROUGHPUT);
+        assertThat(latencies.getValueAtPercentile(99)).as("p99 latency in micros")
+            .isLessThan(TimeUnit.MILLISECONDS.toMicros(MAX_P99_MILLIS));
+    }
+
+    @Test
+    void opposingOrdersOnHotPairDoNotDeadlockOrLoseUpdates() throws Exception {
+        ClientResponseDto first = api.createClient("HotFirst");
+        ClientResponseDto second = api.createClient("HotSecond");
+        int orders = 40;
+
+        long start = System.nanoTime();
+        List<HttpStatus> statuses = runConcurrently(orders, i -> i % 2 == 0
+            ? api.order("Hot " + i, first, second, "1.00")
+            : api.order("Hot " + i, second, first, "2.00"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(statuses).allMatch(HttpStatus.CREATED::equals);
+        assertThat(api.profitOf(first)).isEqualByComparingTo("-20.00");
+        assertThat(api.profitOf(second)).isEqualByComparingTo("20.00");
+        assertThat(elapsedMs).as("serialized orders on one pair").isLessThan(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private interface Task {
+        HttpStatus run(int index) throws Exception;
+    }
+
+    private List<HttpStatus> runConcurrently(int count, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try {
+            List<Future<HttpStatus>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                Callable<HttpStatus> call = () -> {
+                    startLatch.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(call));
+            }
+            startLatch.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> future : futures) {
+                statuses.add(future.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double duplicateRejections() {
+        return meterRegistry.get("order.create.rejected").tag("reason", "duplicate").counter().count();
+    }
+}
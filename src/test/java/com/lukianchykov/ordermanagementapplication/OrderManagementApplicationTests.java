@@ -3,8 +3,10 @@ package com.lukianchykov.ordermanagementapplication;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(classes = OrderManagementApplication.class)
+@ActiveProfiles("test")
 class OrderManagementApplicationTests {
 
     @Test
@@ -0,0 +1,145 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.lukianchykov.ordermanagementapplication.mapper.ClientMapper;
+import com.lukianchykov.ordermanagementapplication.mapper.OrderMapper;
+import com.lukianchykov.ordermanagementapplication.repository.ClientRepository;
+import com.lukianchykov.ordermanagementapplication.repository.OrderRepository;
+import com.lukianchykov.ordermanagementapplication.service.ClientService;
+import com.lukianchykov.ordermanagementapplication.service.OrderService;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the previous read path (entities loaded in a read-write transaction, lazy clients,
+ * dirty checking at commit) with the read-only projections and fetch joins for large result sets.
+ * Reports CPU time and allocated bytes per call of the calling thread. Run with
+ * {@code mvn test -Dtest=ReadPathBenchmarkTests -Dbenchmark=true}; sizes are set with
+ * {@code -Dbenchmark.clients} and {@code -Dbenchmark.orders}.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:read_benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+    "admission.enabled=false"})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadPathBenchmarkTests {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 5_000);
+
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 20_000);
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final int MEASURED_ITERATIONS = 5;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ClientMapper clientMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private record Result(double cpuMillis, double allocatedMegabytes) {
+    }
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(new Object[] {"Bench Client " + i, "bench." + i + "@test.com", "Address " + i,
+                BigDecimal.ZERO, true, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO clients (name, email, address, profit, active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)", clients);
+
+        long firstClientId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM clients", Long.class);
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            long supplier = firstClientId + i % CLIENTS;
+            long consumer = firstClientId + (i + 1) % CLIENTS;
+            orders.add(new Object[] {"Bench Order " + i, supplier, consumer, new BigDecimal("1.00"), now, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (name, supplier_id, consumer_id, price, processing_start_time, " +
+            "processing_end_time, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", orders);
+    }
+
+    @Test
+    void clientListUsesLessCpuAndMemory() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Result entities = measure("clients: entities, read-write", () -> readWrite.execute(status ->
+            clientRepository.findAll().stream().map(clientMapper::toClientResponseDto).toList()));
+        Result projections = measure("clients: DTO projection, read-only", clientService::getAllClients);
+
+        assertThat(projections.allocatedMegabytes()).isLessThan(entities.allocatedMegabytes());
+    }
+
+    @Test
+    void orderListUsesLessCpuAndMemory() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Result lazy = measure("orders: lazy clients, read-write", () -> readWrite.execute(status ->
+            orderRepository.findAll().stream().map(orderMapper::toOrderResponseDto).toList()));
+        Result fetched = measure("orders: fetch join, read-only", orderService::getAllOrders);
+
+        assertThat(fetched.allocatedMegabytes()).isLessThan(lazy.allocatedMegabytes());
+        assertThat(fetched.cpuMillis()).isLessThan(lazy.cpuMillis());
+    }
+
+    private Result measure(String name, Supplier<List<?>> call) {
+        int rows = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            rows = call.get().size();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            call.get();
+        }
+        double cpuMillis = (threads.getCurrentThreadCpuTime() - cpuStart) / 1e6 / MEASURED_ITERATIONS;
+        double allocatedMegabytes = (threads.getThreadAllocatedBytes(threadId) - allocatedStart) / 1048576.0 / MEASURED_ITERATIONS;
+
+        System.out.printf("%-40s %7d rows %10.1f ms CPU %10.1f MB allocated per call%n", name, rows, cpuMillis,
+            allocatedMegabytes);
+        return new Result(cpuMillis, allocatedMegabytes);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.configuration.SmileConfig;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SmileContentNegotiationTests {
+
+    private final ObjectMapper smileMapper = SmileConfig.smileObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void smileOrderIsAcceptedAndListsRoundTrip() throws Exception {
+        ClientResponseDto supplier = api.createClient("SmileSupplier");
+        ClientResponseDto consumer = api.createClient("SmileConsumer");
+
+        OrderCreateDto order = new OrderCreateDto();
+        order.setName("Smile Order");
+        order.setSupplierId(supplier.getId());
+        order.setConsumerId(consumer.getId());
+        order.setPrice(new BigDecimal("12.34"));
+        ResponseEntity<byte[]> created = restTemplate.exchange(RequestEntity.post(URI.create("/api/orders"))
+            .contentType(SmileConfig.APPLICATION_SMILE)
+            .accept(SmileConfig.APPLICATION_SMILE)
+            .body(smileMapper.writeValueAsBytes(order)), byte[].class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(created.getHeaders().getContentType()).isEqualTo(SmileConfig.APPLICATION_SMILE);
+        assertThat(smileMapper.readValue(created.getBody(), OrderResponseDto.class).getPrice()).isEqualTo("12.34");
+
+        String path = "/api/orders/client/" + consumer.getId();
+        byte[] smile = getSmile(path);
+        OrderResponseDto[] fromSmile = smileMapper.readValue(smile, OrderResponseDto[].class);
+        ResponseEntity<String> json = restTemplate.getForEntity(path, String.class);
+        OrderResponseDto[] fromJson = restTemplate.getForObject(path, OrderResponseDto[].class);
+
+        assertThat(json.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(fromSmile).hasSize(1).containsExactly(fromJson);
+        assertThat(fromSmile[0].getCreatedAt()).isNotNull();
+        assertThat(smile.length).isLessThan(json.getBody().getBytes().length);
+
+        List<ClientResponseDto> clients = List.of(smileMapper.readValue(getSmile("/api/clients"), ClientResponseDto[].class));
+        assertThat(clients).containsAll(List.of(restTemplate.getForObject("/api/clients", ClientResponseDto[].class)));
+    }
+
+    private byte[] getSmile(String path) {
+        ResponseEntity<byte[]> response = restTemplate.exchange(RequestEntity.get(URI.create(path))
+            .accept(SmileConfig.APPLICATION_SMILE).build(), byte[].class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(SmileConfig.APPLICATION_SMILE);
+        return response.getBody();
+    }
+}
@@ -0,0 +1,87 @@
+package com.lukianchykov.ordermanagementapplication;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class StreamingListTests {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void streamedOrdersAreGzippedWhenAccepted() throws Exception {
+        ClientResponseDto supplier = api.createClient("StreamSupplier");
+        ClientResponseDto consumer = api.createClient("StreamConsumer");
+        for (int i = 0; i < 3; i++) {
+            assertThat(api.order("Stream Order " + i, supplier, consumer, "7.50")).isEqualTo(HttpStatus.CREATED);
+        }
+
+        HttpResponse<InputStream> gzipped = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/orders/consumer/" + consumer.getId()))
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        assertThat(gzipped.statusCode()).isEqualTo(200);
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzipped.headers().firstValue("Content-Type")).hasValue("application/json");
+        OrderResponseDto[] orders;
+        try (InputStream body = new GZIPInputStream(gzipped.body())) {
+            orders = objectMapper.readValue(body, OrderResponseDto[].class);
+        }
+        assertThat(orders).extracting(OrderResponseDto::getName)
+            .containsExactlyInAnyOrder("Stream Order 0", "Stream Order 1", "Stream Order 2");
+        assertThat(orders).containsExactly(
+            restTemplate.getForObject("/api/orders/consumer/" + consumer.getId(), OrderResponseDto[].class));
+    }
+
+    @Test
+    void emptyAndUnknownClientListsAreStillRendered() {
+        ClientResponseDto client = api.createClient("StreamEmpty");
+
+        ResponseEntity<String> empty = restTemplate.getForEntity("/api/orders/client/" + client.getId(), String.class);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(empty.getBody()).isEqualTo("[]");
+
+        ResponseEntity<String> unknown = restTemplate.getForEntity("/api/orders/client/" + Long.MAX_VALUE, String.class);
+        assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(unknown.getBody()).contains("Client not found");
+    }
+}
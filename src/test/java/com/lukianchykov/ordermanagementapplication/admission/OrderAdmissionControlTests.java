@@ -0,0 +1,141 @@
+package com.lukianchykov.ordermanagementapplication.admission;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.controller.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderAdmissionControlTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsOrdersBeyondPerClientLimit() throws Exception {
+        OrderAdmissionControl admission = new OrderAdmissionControl(registry, true, 10, 50, 4, 500, 2, 0, 0, 15000, 0.9);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch admitted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> first = executor.submit(() -> admission.execute(1L, 2L, () -> hold(admitted, release)));
+            Future<?> second = executor.submit(() -> admission.execute(1L, 3L, () -> hold(admitted, release)));
+            assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> admission.execute(4L, 1L, () -> "third"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isPositive());
+            assertThat(admission.execute(5L, 6L, () -> "other pair")).isEqualTo("other pair");
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(admission.execute(4L, 1L, () -> "after release")).isEqualTo("after release");
+        assertThat(registry.get("order.admission.rejected").tag("scope", "client").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitShrinksOnOverloadAndShedsGlobally() {
+        OrderAdmissionControl admission = new OrderAdmissionControl(registry, true, 10, 10, 1, 100, 8, 32, 2000, 15000, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> admission.execute(1L, 2L, () -> {
+                throw new CannotCreateTransactionException("pool exhausted");
+            })).isInstanceOf(CannotCreateTransactionException.class);
+        }
+
+        assertThat(registry.get("order.admission.limit").gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> admission.execute(3L, 4L,
+            () -> admission.execute(5L, 6L, () -> "nested")))
+            .isInstanceOf(TooManyRequestsException.class);
+        assertThat(registry.get("order.admission.rejected").tag("scope", "global").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedOrderIsAdmittedWhenTheClientFreesUp() throws Exception {
+        OrderAdmissionControl admission = new OrderAdmissionControl(registry, true, 10, 50, 4, 500, 1, 1, 5000, 15000, 0.9);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> holder = executor.submit(() -> admission.execute(1L, 2L, () -> hold(admitted, release)));
+            assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> queued = executor.submit(() -> admission.execute(3L, 1L, () -> "queued"));
+            while (registry.get("order.admission.queued").gauge().value() < 1) {
+                Thread.sleep(10);
+            }
+
+            assertThatThrownBy(() -> admission.execute(1L, 4L, () -> "over queue"))
+                .isInstanceOf(TooManyRequestsException.class);
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(registry.get("order.admission.rejected").tag("scope", "client").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void fastBusinessFailuresDoNotRaiseTheLimit() {
+        OrderAdmissionControl admission = new OrderAdmissionControl(registry, true, 10, 1, 1, 100, 8, 32, 2000, 15000, 0.5);
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> admission.execute(1L, 2L, () -> {
+                throw new IllegalArgumentException("rejected by business rules");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(registry.get("order.admission.limit").gauge().value()).isEqualTo(1);
+
+        for (int i = 0; i < 10; i++) {
+            admission.execute(1L, 2L, () -> "completed");
+        }
+        assertThat(registry.get("order.admission.limit").gauge().value()).isGreaterThan(1);
+    }
+
+    @Test
+    void limitsDefaultToThePoolSize() throws Exception {
+        OrderAdmissionControl admission = new OrderAdmissionControl(registry, true, 4, 0, 1, 100, 0, 0, 0, 15000, 0.9);
+        assertThat(registry.get("order.admission.limit").gauge().value()).isEqualTo(4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch admitted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> admission.execute(1L, 2L, () -> hold(admitted, release)));
+            executor.submit(() -> admission.execute(1L, 3L, () -> hold(admitted, release)));
+            assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> admission.execute(1L, 4L, () -> "over half the pool"))
+                .isInstanceOf(TooManyRequestsException.class);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static String hold(CountDownLatch admitted, CountDownLatch release) {
+        admitted.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "held";
+    }
+}
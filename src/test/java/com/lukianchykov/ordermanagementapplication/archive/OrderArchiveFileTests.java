@@ -0,0 +1,51 @@
+package com.lukianchykov.ordermanagementapplication.archive;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderArchiveFileTests {
+
+    private static final int ORDERS = OrderArchiveFile.BLOCK_ROWS * 2 + 100;
+
+    private static final long RARE_CLIENT = 1_000;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void lookupsOnlyReadTheBlocksHoldingTheirOrders() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<ArchivedOrder> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            long consumer = i == OrderArchiveFile.BLOCK_ROWS + 7 ? RARE_CLIENT : 2 + i % 10;
+            orders.add(new ArchivedOrder(100 + i, "Order " + i, 1, consumer, new BigDecimal("1.25"),
+                start.plusSeconds(i), i % 2 == 0 ? null : start.plusSeconds(i + 1), start.plusSeconds(i)));
+        }
+        Path path = directory.resolve("orders_p202501.ocol.gz");
+        OrderArchiveFile.write(path, orders);
+
+        OrderArchiveFile.Header header = OrderArchiveFile.readHeader(path);
+        assertThat(header.count()).isEqualTo(ORDERS);
+        assertThat(header.blocks()).hasSize(3);
+        assertThat(header.minId()).isEqualTo(100);
+        assertThat(header.maxId()).isEqualTo(100 + ORDERS - 1);
+
+        assertThat(OrderArchiveFile.blocksOf(path, header, RARE_CLIENT)).containsExactly(1);
+        assertThat(OrderArchiveFile.blocksOf(path, header, 1)).containsExactly(0, 1, 2);
+        assertThat(OrderArchiveFile.blocksOf(path, header, 999)).isEmpty();
+
+        int block = OrderArchiveFile.blockOf(header, 100 + ORDERS - 1);
+        assertThat(block).isEqualTo(2);
+        assertThat(OrderArchiveFile.readBlock(path, header, block)).containsExactlyElementsOf(
+            orders.subList(OrderArchiveFile.BLOCK_ROWS * 2, ORDERS));
+        assertThat(OrderArchiveFile.blockOf(header, 99)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,149 @@
+package com.lukianchykov.ordermanagementapplication.audit;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTests {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void recordsSurviveRotationAndRestart() throws IOException {
+        try (AuditJournalWriter writer = new AuditJournalWriter(directory, 4)) {
+            for (int i = 1; i <= 9; i++) {
+                writer.append(1_000L * i, AuditRecord.Type.CREATED.code(), i, 10, 20, i * 100L + 50, (byte) 0, "Order " + i, (byte) 0);
+            }
+        }
+        try (AuditJournalWriter writer = new AuditJournalWriter(directory, 4)) {
+            assertThat(writer.nextSequence()).isEqualTo(10);
+            writer.append(10_000L, AuditRecord.Type.REJECTED.code(), 0, 20, 10, 100_000L, (byte) 0, "Заказ ".repeat(20),
+                (byte) (OrderMetrics.Rejection.BUSINESS_RULE.ordinal() + 1));
+        }
+
+        List<AuditRecord> records = readAll(1);
+        assertThat(AuditJournalReader.segments(directory)).hasSize(3);
+        assertThat(records).extracting(AuditRecord::sequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(records.get(2).orderId()).isEqualTo(3);
+        assertThat(records.get(2).price()).isEqualByComparingTo("3.50");
+        assertThat(records.get(2).name()).isEqualTo("Order 3");
+
+        AuditRecord rejected = records.get(9);
+        assertThat(rejected.type()).isEqualTo(AuditRecord.Type.REJECTED);
+        assertThat(rejected.rejectionReason()).isEqualTo("BUSINESS_RULE");
+        assertThat("Заказ ".repeat(20)).startsWith(rejected.name());
+        assertThat(rejected.name().getBytes(StandardCharsets.UTF_8).length).isBetween(AuditRecord.NAME_CAPACITY - 1, AuditRecord.NAME_CAPACITY);
+        assertThat(readAll(6)).extracting(AuditRecord::sequence).containsExactly(6L, 7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    void tornRecordIsOverwrittenAfterRestart() throws IOException {
+        try (AuditJournalWriter writer = new AuditJournalWriter(directory, 16)) {
+            for (int i = 1; i <= 3; i++) {
+                writer.append(i, AuditRecord.Type.CREATED.code(), i, 1, 2, 100L, (byte) 0, "Order " + i, (byte) 0);
+            }
+        }
+        Path segment = AuditJournalReader.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), AuditJournalWriter.HEADER_SIZE + 2L * AuditRecord.SIZE + 60);
+        }
+
+        try (AuditJournalWriter writer = new AuditJournalWriter(directory, 16)) {
+            assertThat(writer.nextSequence()).isEqualTo(3);
+            writer.append(4, AuditRecord.Type.CREATED.code(), 4, 1, 2, 100L, (byte) 0, "Order 4", (byte) 0);
+        }
+        assertThat(readAll(1)).extracting(AuditRecord::name).containsExactly("Order 1", "Order 2", "Order 4");
+    }
+
+    @Test
+    void concurrentProducersAreWrittenExactlyOnce() throws Exception {
+        AuditQueue queue = new AuditQueue(64);
+        int producers = 4;
+        int perProducer = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try (AuditJournalWriter writer = new AuditJournalWriter(directory, 1024)) {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.put(i, AuditRecord.Type.CREATED.code(), producer * perProducer + i, producer, 0,
+                            100L, (byte) 0, "Order", (byte) 0);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            int written = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (written < producers * perProducer && System.nanoTime() < deadline) {
+                written += queue.drain(writer::append, 100);
+            }
+            assertThat(written).isEqualTo(producers * perProducer);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(readAll(1)).extracting(AuditRecord::orderId).doesNotHaveDuplicates().hasSize(producers * perProducer);
+    }
+
+    @Test
+    void outOfRangePriceIsFlaggedWithoutStoppingTheJournal() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderAuditJournal journal = new OrderAuditJournal(registry, true, directory.toString(), 16, 8, 1000);
+        journal.start();
+        journal.orderRejected(1L, 2L, new BigDecimal("1e20"), "Huge", OrderMetrics.Rejection.BUSINESS_RULE);
+        journal.orderCreated(1L, 1L, 2L, new BigDecimal("12.34"), "Order 1");
+        journal.stop();
+
+        List<AuditRecord> records = readAll(1);
+        assertThat(records).extracting(AuditRecord::name).containsExactly("Huge", "Order 1");
+        assertThat(records.get(0).priceOutOfRange()).isTrue();
+        assertThat(records.get(0).price()).isEqualByComparingTo("0");
+        assertThat(records.get(1).priceOutOfRange()).isFalse();
+        assertThat(records.get(1).price()).isEqualByComparingTo("12.34");
+        assertThat(registry.counter("audit.journal.discarded").count()).isZero();
+    }
+
+    @Test
+    @Timeout(30)
+    void eventsAfterStopAreDiscardedInsteadOfBlocking() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderAuditJournal journal = new OrderAuditJournal(registry, true, directory.toString(), 16, 4, 1000);
+        journal.start();
+        journal.stop();
+
+        for (int i = 0; i < 10; i++) {
+            journal.orderCreated(i, 1L, 2L, BigDecimal.ONE, "Order " + i);
+        }
+        assertThat(registry.counter("audit.journal.discarded").count()).isEqualTo(10);
+        assertThat(readAll(1)).isEmpty();
+    }
+
+    private List<AuditRecord> readAll(long fromSequence) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        AuditJournalReader.read(directory, fromSequence, records::add);
+        return records;
+    }
+}
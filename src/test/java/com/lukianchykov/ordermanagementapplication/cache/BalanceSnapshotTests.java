@@ -0,0 +1,81 @@
+package com.lukianchykov.ordermanagementapplication.cache;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.service.BalanceSnapshotService;
+import com.lukianchykov.ordermanagementapplication.service.ClientService;
+import com.lukianchykov.ordermanagementapplication.service.OrderService;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes a snapshot, changes clients behind it and restarts on the same database with that snapshot,
+ * so it runs on its own database.
+ */
+class BalanceSnapshotTests {
+
+    private static final String DATABASE =
+        "jdbc:h2:mem:balance_snapshot;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    private static final Path SNAPSHOT = Path.of("target/balance-snapshot/balance.snapshot");
+
+    @Test
+    void clientsChangedAfterTheSnapshotAreRefreshedOnReload() throws Exception {
+        Files.deleteIfExists(SNAPSHOT);
+        Path stale = SNAPSHOT.resolveSibling("stale.snapshot");
+
+        ClientResponseDto supplier;
+        ClientResponseDto consumer;
+        try (ConfigurableApplicationContext context = start("create")) {
+            ClientService clientService = context.getBean(ClientService.class);
+            supplier = clientService.createClient(client("SnapshotSupplier"));
+            consumer = clientService.createClient(client("SnapshotConsumer"));
+            context.getBean(OrderService.class).createOrder(
+                new OrderCreateDto("Snapshot Order", supplier.getId(), consumer.getId(), new BigDecimal("50.00")));
+
+            context.getBean(BalanceSnapshotService.class).writeSnapshot();
+            Files.copy(SNAPSHOT, stale, StandardCopyOption.REPLACE_EXISTING);
+
+            clientService.deactivateClient(consumer.getId());
+            // a change the cache never saw, such as a late order commit or db/profit_reset.sql
+            context.getBean(JdbcTemplate.class).update("UPDATE clients SET profit = profit + 25, updated_at = ? WHERE id = ?",
+                LocalDateTime.now(), supplier.getId());
+        }
+        Files.move(stale, SNAPSHOT, StandardCopyOption.REPLACE_EXISTING);
+
+        try (ConfigurableApplicationContext context = start("none")) {
+            ClientBalanceCache cache = context.getBean(ClientBalanceCache.class);
+            assertThat(cache.get(consumer.getId())).get().extracting(ClientBalance::active).isEqualTo(false);
+            assertThat(cache.get(supplier.getId())).get().extracting(ClientBalance::profit).isEqualTo(7_500L);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String ddl) {
+        return new SpringApplicationBuilder(OrderManagementApplication.class)
+            .profiles("test")
+            .run("--server.port=0",
+                "--spring.datasource.url=" + DATABASE,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--audit.journal.path=target/audit-balance-snapshot",
+                "--balance.snapshot.enabled=true",
+                "--balance.snapshot.path=" + SNAPSHOT);
+    }
+
+    private static ClientCreateDto client(String name) {
+        return new ClientCreateDto(name, name.toLowerCase() + "." + UUID.randomUUID() + "@test.com", "Test Address", null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.lukianchykov.ordermanagementapplication.cli;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lukianchykov.ordermanagementapplication.ApiFixture;
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs on its own database because the reset sends offset orders for every active client.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"spring.datasource.url=jdbc:h2:mem:profit_reset;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "admission.per-client-limit=4"})
+@ActiveProfiles("test")
+class ProfitResetApplicationTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void offsetOrdersBringEveryActiveClientToZero() {
+        List<ClientResponseDto> clients = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ClientResponseDto supplier = api.createClient("ResetSupplier" + i);
+            ClientResponseDto consumer = api.createClient("ResetConsumer" + i);
+            assertThat(api.order(supplier, consumer, String.valueOf(10 + i))).isEqualTo(HttpStatus.CREATED);
+            clients.add(supplier);
+            clients.add(consumer);
+        }
+        clients.add(api.createClient("ResetIdle"));
+
+        try (ApiClient apiClient = new ApiClient(new CliConfig("http://localhost:" + port + "/api", 8, 30))) {
+            new ProfitResetApplication(apiClient, 8).run();
+        }
+
+        for (ClientResponseDto client : clients) {
+            assertThat(restTemplate.getForObject("/api/clients/" + client.getId() + "/profit", BigDecimal.class))
+                .as(client.getName())
+                .isEqualByComparingTo("0");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.lukianchykov.ordermanagementapplication.cluster;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationReportDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientDeactivationRequestDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.repository.ClusterTransactionJdbcRepository;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import com.lukianchykov.ordermanagementapplication.sequencer.OrderSequencer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Starts two nodes in this JVM, sharing one database; the first node creates the schema.
+ */
+class ClusterTests {
+
+    private static final String DATABASE =
+        "jdbc:h2:mem:cluster;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    private static final TestRestTemplate restTemplate = new TestRestTemplate();
+
+    private static ConfigurableApplicationContext[] nodes;
+
+    private static String[] urls;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int[] ports = {freePort(), freePort()};
+        urls = new String[] {"http://localhost:" + ports[0], "http://localhost:" + ports[1]};
+        nodes = new ConfigurableApplicationContext[2];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new SpringApplicationBuilder(OrderManagementApplication.class)
+                .profiles("test")
+                .run("--server.port=" + ports[i],
+                    "--spring.datasource.url=" + DATABASE,
+                    "--spring.jpa.hibernate.ddl-auto=" + (i == 0 ? "create-drop" : "none"),
+                    "--audit.journal.path=target/audit-cluster-" + i,
+                    "--order.engine=sequencer",
+                    "--cluster.enabled=true",
+                    "--cluster.nodes=" + String.join(",", urls),
+                    "--cluster.node-index=" + i);
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            if (nodes[i] != null) {
+                nodes[i].close();
+            }
+        }
+    }
+
+    @Test
+    void crossNodeOrderCreditsTheSupplierOnItsOwnNode() throws InterruptedException {
+        ClientResponseDto supplier = createClient("RemoteSupplier", 1);
+        ClientResponseDto consumer = createClient("LocalConsumer", 0);
+        ClientResponseDto other = createClient("OtherSupplier", 1);
+
+        assertThat(order(1, supplier, consumer, "20.00")).isEqualTo(HttpStatus.CREATED);
+        assertThat(profit(0, consumer)).isEqualByComparingTo("-20.00");
+        assertThat(profit(0, supplier)).isEqualByComparingTo("20.00");
+        awaitProfit(1, supplier, "20.00");
+
+        // only passes the threshold check on node 1 with the credit applied in memory
+        assertThat(order(0, other, supplier, "1020.00")).isEqualTo(HttpStatus.CREATED);
+        assertThat(profit(1, supplier)).isEqualByComparingTo("-1000.00");
+        assertThat(profit(0, other)).isEqualByComparingTo("1020.00");
+    }
+
+    @Test
+    void rejectedOrdersReleaseThePreparedSupplier() {
+        ClientResponseDto supplier = createClient("PreparedSupplier", 1);
+        ClientResponseDto consumer = createClient("PoorConsumer", 0);
+
+        assertThat(order(0, supplier, consumer, "1000.01")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.postForEntity(urls[0] + "/api/clients/" + supplier.getId() + "/deactivate", null,
+            ClientResponseDto.class).getBody().getActive()).isFalse();
+        assertThat(order(0, supplier, consumer, "10.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(profit(0, consumer)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void bulkDeactivationRunsOnTheOwningNodes() {
+        ClientResponseDto first = createClient("BulkFirst", 0);
+        ClientResponseDto second = createClient("BulkSecond", 1);
+        ClientResponseDto partner = createClient("BulkPartner", 1);
+
+        ClientDeactivationReportDto report = restTemplate.postForObject(urls[0] + "/api/clients/deactivate",
+            new ClientDeactivationRequestDto(List.of(first.getId(), second.getId()), null, null, null),
+            ClientDeactivationReportDto.class);
+
+        assertThat(report.getDeactivated()).isEqualTo(2);
+        assertThat(order(0, partner, second, "10.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(order(1, first, partner, "10.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void abortedTransactionNeverCommitsItsOrderAndUnknownCreditsAreReloaded() throws InterruptedException {
+        ClientResponseDto supplier = createClient("FencedSupplier", 1);
+        ClientResponseDto consumer = createClient("FencedConsumer", 0);
+        ClientResponseDto partner = createClient("FencedPartner", 1);
+        assertThat(order(1, partner, supplier, "5.00")).isEqualTo(HttpStatus.CREATED);
+        ClusterTransactionJdbcRepository transactions = nodes[0].getBean(ClusterTransactionJdbcRepository.class);
+        OrderSequencer sequencer = nodes[0].getBean(OrderSequencer.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        String aborted = UUID.randomUUID().toString();
+        transactions.insertPrepared(aborted, now);
+        assertThat(transactions.abort(aborted)).isTrue();
+        assertThatThrownBy(() -> sequencer.createOrderWithRemoteSupplier(new OrderCreateDto("Fenced Order",
+            supplier.getId(), consumer.getId(), new BigDecimal("10.00")), now, now, aborted))
+            .isInstanceOf(BusinessRuleException.class);
+        assertThat(profit(0, consumer)).isEqualByComparingTo("0");
+
+        // committed without a credit prepared on node 1, as if node 1 had restarted since
+        String committed = UUID.randomUUID().toString();
+        transactions.insertPrepared(committed, now);
+        CommittedOrder order = sequencer.createOrderWithRemoteSupplier(new OrderCreateDto("Unfenced Order",
+            supplier.getId(), consumer.getId(), new BigDecimal("10.00")), now, now, committed);
+        assertThat(transactions.abort(committed)).isFalse();
+        nodes[1].getBean(ClusterCoordinator.class).commitCredit(committed, supplier.getId(), order.id());
+        awaitProfit(1, supplier, "5.00");
+        assertThat(order(1, partner, supplier, "1005.01")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(order(1, partner, supplier, "1005.00")).isEqualTo(HttpStatus.CREATED);
+    }
+
+    private ClientResponseDto createClient(String name, int owner) {
+        ClusterPartitionMap partitionMap = nodes[0].getBean(ClusterPartitionMap.class);
+        for (int attempt = 0; attempt < 64; attempt++) {
+            ClientCreateDto dto = new ClientCreateDto(name, name.toLowerCase() + "." + UUID.randomUUID() + "@test.com",
+                "Test Address", null);
+            ClientResponseDto client = restTemplate.postForObject(urls[attempt % 2] + "/api/clients", dto,
+                ClientResponseDto.class);
+            if (partitionMap.ownerOf(client.getId()) == owner) {
+                return client;
+            }
+        }
+        throw new IllegalStateException("No client owned by node " + owner);
+    }
+
+    private HttpStatus order(int node, ClientResponseDto supplier, ClientResponseDto consumer, String price) {
+        OrderCreateDto dto = new OrderCreateDto("Order " + UUID.randomUUID(), supplier.getId(), consumer.getId(),
+            new BigDecimal(price));
+        return HttpStatus.valueOf(restTemplate.postForEntity(urls[node] + "/api/orders", dto, String.class)
+            .getStatusCode().value());
+    }
+
+    private BigDecimal profit(int node, ClientResponseDto client) {
+        return restTemplate.getForObject(urls[node] + "/api/clients/" + client.getId() + "/profit", BigDecimal.class);
+    }
+
+    private void awaitProfit(int node, ClientResponseDto client, String expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 50 && profit(node, client).compareTo(new BigDecimal(expected)) != 0; attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(profit(node, client)).isEqualByComparingTo(expected);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
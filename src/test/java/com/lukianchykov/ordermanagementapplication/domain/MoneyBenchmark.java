@@ -0,0 +1,103 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The balance step of order creation — threshold check, consumer debit and supplier credit over a
+ * table of accounts — with {@link BigDecimal} balances as before and with {@link Money} minor
+ * units. Run with {@code -prof gc} to see the allocation per order; see the README for the command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    private static final int ORDERS = 4096;
+
+    private static final BigDecimal DECIMAL_THRESHOLD = new BigDecimal("-1000");
+
+    private static final long MINOR_THRESHOLD = Money.ofUnits(-1000);
+
+    private final BigDecimal[] decimalBalances = new BigDecimal[ACCOUNTS];
+
+    private final long[] minorBalances = new long[ACCOUNTS];
+
+    private final BigDecimal[] decimalPrices = new BigDecimal[ORDERS];
+
+    private final long[] minorPrices = new long[ORDERS];
+
+    private final int[] suppliers = new int[ORDERS];
+
+    private final int[] consumers = new int[ORDERS];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            decimalBalances[i] = BigDecimal.ZERO.setScale(Money.SCALE);
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            long price = random.nextLong(1, 5_000);
+            minorPrices[i] = price;
+            decimalPrices[i] = Money.toBigDecimal(price);
+            suppliers[i] = random.nextInt(ACCOUNTS);
+            consumers[i] = (suppliers[i] + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        }
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        int order = nextOrder();
+        int consumer = consumers[order];
+        BigDecimal price = decimalPrices[order];
+        BigDecimal newConsumerProfit = decimalBalances[consumer].subtract(price);
+        if (newConsumerProfit.compareTo(DECIMAL_THRESHOLD) < 0) {
+            decimalBalances[consumer] = decimalBalances[consumer].add(price.add(price));
+            return false;
+        }
+        decimalBalances[consumer] = newConsumerProfit;
+        decimalBalances[suppliers[order]] = decimalBalances[suppliers[order]].add(price);
+        return true;
+    }
+
+    @Benchmark
+    public boolean scaledLong() {
+        int order = nextOrder();
+        int consumer = consumers[order];
+        long price = minorPrices[order];
+        long newConsumerProfit = Money.subtract(minorBalances[consumer], price);
+        if (newConsumerProfit < MINOR_THRESHOLD) {
+            minorBalances[consumer] = Money.add(minorBalances[consumer], Money.add(price, price));
+            return false;
+        }
+        minorBalances[consumer] = newConsumerProfit;
+        minorBalances[suppliers[order]] = Money.add(minorBalances[suppliers[order]], price);
+        return true;
+    }
+
+    private int nextOrder() {
+        int order = next;
+        next = (order + 1) & (ORDERS - 1);
+        return order;
+    }
+}
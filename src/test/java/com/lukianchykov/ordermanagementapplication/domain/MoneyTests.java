@@ -0,0 +1,29 @@
+package com.lukianchykov.ordermanagementapplication.domain;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void convertsAtTheEdgesWithColumnRounding() {
+        assertThat(Money.of(new BigDecimal("12.34"))).isEqualTo(1234);
+        assertThat(Money.of(new BigDecimal("-0.5"))).isEqualTo(-50);
+        assertThat(Money.of(new BigDecimal("1.005"))).isEqualTo(101);
+        assertThat(Money.of(null)).isEqualTo(Money.ZERO);
+        assertThat(Money.toBigDecimal(-100_050)).isEqualByComparingTo("-1000.50").hasScaleOf(2);
+        assertThat(Money.toString(Money.ofUnits(-1000))).isEqualTo("-1000.00");
+    }
+
+    @Test
+    void overflowIsRejected() {
+        assertThatThrownBy(() -> Money.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.subtract(Long.MIN_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofUnits(Long.MAX_VALUE / 10)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e18"))).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.lukianchykov.ordermanagementapplication.idempotency;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderResponseDto;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys are limited to one in memory so that replays after another key was used have to come
+ * from the {@code idempotency_keys} table.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"idempotency.persistence.enabled=true", "idempotency.max-keys=1",
+        "order.processing.delay-min-ms=500", "order.processing.delay-max-ms=500"})
+@ActiveProfiles("test")
+class IdempotencyTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentRetriesWaitForTheOriginalOrder() throws Exception {
+        ClientResponseDto supplier = createClient("IdemSupplier", null).getBody();
+        ClientResponseDto consumer = createClient("IdemConsumer", null).getBody();
+        String key = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<OrderResponseDto>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return order("Idempotent Order", supplier, consumer, key);
+                }));
+            }
+            start.countDown();
+
+            List<ResponseEntity<OrderResponseDto>> responses = new ArrayList<>();
+            for (Future<ResponseEntity<OrderResponseDto>> future : futures) {
+                responses.add(future.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(responses).allMatch(response -> response.getStatusCode() == HttpStatus.CREATED);
+            assertThat(responses).extracting(response -> response.getBody().getId()).containsOnly(responses.get(0).getBody().getId());
+            assertThat(responses).filteredOn(response -> "true".equals(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)))
+                .hasSize(4);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE consumer_id = ?", Long.class,
+            consumer.getId())).isEqualTo(1);
+        assertThat(restTemplate.getForObject("/api/clients/" + consumer.getId() + "/profit", BigDecimal.class))
+            .isEqualByComparingTo("-10.00");
+    }
+
+    @Test
+    void completedRequestIsReplayedFromDatabaseAndKeyCannotBeReused() {
+        String first = UUID.randomUUID().toString();
+        ResponseEntity<ClientResponseDto> created = createClient("IdemReplay", first);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(created.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("false");
+
+        String second = UUID.randomUUID().toString();
+        assertThat(createClient("IdemOther", second).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<ClientResponseDto> replayed = restTemplate.postForEntity("/api/clients",
+            new HttpEntity<>(clientDto("IdemReplay", created.getBody().getEmail()), headers(first)), ClientResponseDto.class);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(replayed.getBody()).isEqualTo(created.getBody());
+
+        ResponseEntity<String> reused = restTemplate.postForEntity("/api/clients",
+            new HttpEntity<>(clientDto("IdemReplay", "changed." + UUID.randomUUID() + "@test.com"), headers(first)), String.class);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private ResponseEntity<ClientResponseDto> createClient(String name, String key) {
+        ClientCreateDto dto = clientDto(name, name.toLowerCase() + "." + UUID.randomUUID() + "@test.com");
+        return restTemplate.postForEntity("/api/clients", new HttpEntity<>(dto, headers(key)), ClientResponseDto.class);
+    }
+
+    private ClientCreateDto clientDto(String name, String email) {
+        ClientCreateDto dto = new ClientCreateDto();
+        dto.setName(name);
+        dto.setEmail(email);
+        dto.setAddress("Test Address");
+        return dto;
+    }
+
+    private ResponseEntity<OrderResponseDto> order(String name, ClientResponseDto supplier, ClientResponseDto consumer,
+                                                   String key) {
+        OrderCreateDto dto = new OrderCreateDto();
+        dto.setName(name);
+        dto.setSupplierId(supplier.getId());
+        dto.setConsumerId(consumer.getId());
+        dto.setPrice(new BigDecimal("10.00"));
+        return restTemplate.postForEntity("/api/orders", new HttpEntity<>(dto, headers(key)), OrderResponseDto.class);
+    }
+
+    private HttpHeaders headers(String key) {
+        HttpHeaders headers = new HttpHeaders();
+        if (key != null) {
+            headers.set(IdempotencyStore.HEADER, key);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,124 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lukianchykov.ordermanagementapplication.ApiFixture;
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.controller.exception.CursorExpiredException;
+import com.lukianchykov.ordermanagementapplication.dto.ChangeFeedPageDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.sequencer.CommittedOrder;
+import com.lukianchykov.ordermanagementapplication.service.ChangeFeedService;
+import com.lukianchykov.ordermanagementapplication.service.ClientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ChangeFeedTests {
+
+    private static final long SYNC_TIMEOUT_MILLIS = 10_000;
+
+    private static final String PURGED_DATABASE =
+        "jdbc:h2:mem:change_feed_purge;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void incrementalSyncReturnsOnlyChangesAfterCursor() throws Exception {
+        long cursor = syncToEnd(0, 1000, new ArrayList<>(), new HashMap<>());
+
+        ClientResponseDto supplier = api.createClient("FeedSupplier");
+        ClientResponseDto consumer = api.createClient("FeedConsumer");
+        assertThat(api.order("Feed Order", supplier, consumer, "25.00")).isEqualTo(HttpStatus.CREATED);
+        restTemplate.postForEntity("/api/clients/" + consumer.getId() + "/deactivate", null, String.class);
+
+        List<CommittedOrder> orders = new ArrayList<>();
+        Map<Long, ClientResponseDto> clients = new HashMap<>();
+        long deadline = System.currentTimeMillis() + SYNC_TIMEOUT_MILLIS;
+        while (orders.isEmpty() || clients.get(consumer.getId()) == null || clients.get(consumer.getId()).getActive()) {
+            assertThat(System.currentTimeMillis()).as("changes were not published in time").isLessThan(deadline);
+            cursor = syncToEnd(cursor, 2, orders, clients);
+            Thread.sleep(50);
+        }
+
+        assertThat(orders).extracting(CommittedOrder::name).containsExactly("Feed Order");
+        assertThat(clients).containsOnlyKeys(supplier.getId(), consumer.getId());
+        assertThat(clients.get(supplier.getId()).getTotalProfit()).isEqualByComparingTo("25.00");
+        assertThat(clients.get(consumer.getId()).getTotalProfit()).isEqualByComparingTo("-25.00");
+        assertThat(syncToEnd(cursor, 2, orders, clients)).isEqualTo(cursor);
+    }
+
+    /**
+     * Purges the outbox, so it runs on its own database.
+     */
+    @Test
+    void expiredCursorRequiresResync() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagementApplication.class)
+            .profiles("test")
+            .run("--server.port=0",
+                "--spring.datasource.url=" + PURGED_DATABASE,
+                "--audit.journal.path=target/audit-change-feed-purge",
+                "--outbox.retention-hours=0")) {
+            ClientService clientService = context.getBean(ClientService.class);
+            ChangeFeedService changeFeedService = context.getBean(ChangeFeedService.class);
+            OutboxRelay relay = context.getBean(OutboxRelay.class);
+            clientService.createClient(new ClientCreateDto("FeedPurged1", "feed.purged1@test.com", null, null));
+            clientService.createClient(new ClientCreateDto("FeedPurged2", "feed.purged2@test.com", null, null));
+            clientService.createClient(new ClientCreateDto("FeedRetained", "feed.retained@test.com", null, null));
+            long deadline = System.currentTimeMillis() + SYNC_TIMEOUT_MILLIS;
+            while (relay.deliveredOffset() < 3) {
+                assertThat(System.currentTimeMillis()).as("changes were not published in time").isLessThan(deadline);
+                Thread.sleep(50);
+            }
+
+            relay.deleteExpiredEvents();
+            assertThatThrownBy(() -> changeFeedService.getChanges(1, 10)).isInstanceOf(CursorExpiredException.class);
+            assertThat(changeFeedService.getChanges(2, 10).getClients()).extracting(ClientResponseDto::getName)
+                .containsExactly("FeedRetained");
+            assertThat(changeFeedService.getChanges(0, 10).getCursor()).isEqualTo(3);
+
+            context.getBean(JdbcTemplate.class).update("DELETE FROM outbox_events");
+            assertThatThrownBy(() -> changeFeedService.getChanges(1, 10)).isInstanceOf(CursorExpiredException.class);
+        }
+
+        assertThat(restTemplate.getForEntity("/api/changes?limit=0", String.class).getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private long syncToEnd(long cursor, int limit, List<CommittedOrder> orders, Map<Long, ClientResponseDto> clients) {
+        ChangeFeedPageDto page;
+        do {
+            page = restTemplate.getForObject("/api/changes?after=" + cursor + "&limit=" + limit, ChangeFeedPageDto.class);
+            assertThat(page.getCursor()).isGreaterThanOrEqualTo(cursor);
+            cursor = page.getCursor();
+            orders.addAll(page.getOrders());
+            page.getClients().forEach(client -> clients.put(client.getId(), client));
+        } while (page.isHasMore());
+        return cursor;
+    }
+}
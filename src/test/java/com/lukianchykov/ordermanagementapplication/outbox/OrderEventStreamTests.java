@@ -0,0 +1,127 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.lukianchykov.ordermanagementapplication.ApiFixture;
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class OrderEventStreamTests {
+
+    private static final long EVENT_TIMEOUT_SECONDS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private record Event(long id, String type, String data) {
+    }
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void committedChangesArePushedAndCanBeResumed() throws Exception {
+        List<Event> live;
+        try (EventReader reader = open(null)) {
+            ClientResponseDto supplier = api.createClient("StreamSupplier");
+            ClientResponseDto consumer = api.createClient("StreamConsumer");
+            assertThat(api.order("Streamed Order", supplier, consumer, "10.00")).isEqualTo(HttpStatus.CREATED);
+
+            live = reader.next(3);
+            assertThat(live).extracting(Event::type).containsExactly("CLIENT_CREATED", "CLIENT_CREATED", "ORDER_CREATED");
+            assertThat(live.get(0).data()).contains(supplier.getEmail());
+            assertThat(live.get(2).data()).contains("Streamed Order", "\"supplierId\":" + supplier.getId());
+            assertThat(live).extracting(Event::id).isSorted();
+        }
+
+        try (EventReader reader = open(live.get(0).id())) {
+            List<Event> resumed = reader.next(2);
+            assertThat(resumed).containsExactly(live.get(1), live.get(2));
+        }
+    }
+
+    private EventReader open(Long lastEventId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/stream"))
+            .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", String.valueOf(lastEventId));
+        }
+        EventReader reader = new EventReader();
+        reader.response = httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+            .thenAccept(response -> reader.read(response.body()));
+        return reader;
+    }
+
+    private static final class EventReader implements AutoCloseable {
+
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        private CompletableFuture<Void> response;
+
+        private void read(Stream<String> lines) {
+            long id = 0;
+            String type = null;
+            StringBuilder data = new StringBuilder();
+            for (String line : (Iterable<String>) lines::iterator) {
+                if (line.startsWith("id:")) {
+                    id = Long.parseLong(line.substring(3).trim());
+                } else if (line.startsWith("event:")) {
+                    type = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                } else if (line.isEmpty() && type != null) {
+                    events.add(new Event(id, type, data.toString()));
+                    type = null;
+                    data.setLength(0);
+                }
+            }
+        }
+
+        private List<Event> next(int count) throws InterruptedException {
+            List<Event> received = new ArrayList<>();
+            while (received.size() < count) {
+                Event event = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                assertThat(event).as("event %d of %d", received.size() + 1, count).isNotNull();
+                received.add(event);
+            }
+            return received;
+        }
+
+        @Override
+        public void close() {
+            response.cancel(true);
+        }
+    }
+}
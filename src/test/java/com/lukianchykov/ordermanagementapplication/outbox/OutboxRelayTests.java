@@ -0,0 +1,64 @@
+package com.lukianchykov.ordermanagementapplication.outbox;
+
+import java.time.LocalDateTime;
+import java.util.function.LongSupplier;
+
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes outbox rows with explicit offsets to produce gaps and a recreated table, so it runs on its
+ * own database.
+ */
+class OutboxRelayTests {
+
+    private static final String DATABASE =
+        "jdbc:h2:mem:outbox_relay;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    private static final long RELAY_TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void lateCommitsAreDeliveredAndARecreatedTableIsFollowed() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagementApplication.class)
+            .profiles("test")
+            .run("--server.port=0",
+                "--spring.datasource.url=" + DATABASE,
+                "--audit.journal.path=target/audit-outbox-relay",
+                "--outbox.relay.gap-timeout-ms=100")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            OutboxRelay relay = context.getBean(OutboxRelay.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            long start = relay.deliveredOffset();
+
+            insert(jdbcTemplate, start + 2);
+            awaitValue(relay::deliveredOffset, start + 2);
+            insert(jdbcTemplate, start + 1);
+            awaitValue(() -> (long) registry.get("outbox.relay.late").counter().count(), 1);
+            assertThat(relay.deliveredOffset()).isEqualTo(start + 2);
+
+            jdbcTemplate.update("DELETE FROM outbox_events");
+            insert(jdbcTemplate, 1);
+            awaitValue(relay::deliveredOffset, 1);
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long offset) {
+        jdbcTemplate.update("INSERT INTO outbox_events (id, type, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?, ?)",
+            offset, "CLIENT_UPDATED", 1L, "{}", LocalDateTime.now());
+    }
+
+    private static void awaitValue(LongSupplier value, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + RELAY_TIMEOUT_MILLIS;
+        while (value.getAsLong() != expected) {
+            assertThat(System.currentTimeMillis()).as("relay did not reach %d", expected).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
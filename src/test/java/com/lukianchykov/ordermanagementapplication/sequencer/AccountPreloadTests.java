@@ -0,0 +1,76 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.controller.exception.BusinessRuleException;
+import com.lukianchykov.ordermanagementapplication.dto.ClientCreateDto;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.dto.OrderCreateDto;
+import com.lukianchykov.ordermanagementapplication.service.ClientService;
+import com.lukianchykov.ordermanagementapplication.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Creates clients and orders with one instance, then starts a sequencer instance with
+ * {@code order.sequencer.preload-accounts=true} on the same database.
+ */
+class AccountPreloadTests {
+
+    private static final String DATABASE =
+        "jdbc:h2:mem:account_preload;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void preloadedBalancesAreUsedForTheThresholdCheck() {
+        ClientResponseDto supplier;
+        ClientResponseDto consumer;
+        try (ConfigurableApplicationContext context = start("locking", "create", "false")) {
+            ClientService clientService = context.getBean(ClientService.class);
+            supplier = clientService.createClient(client("PreloadSupplier"));
+            consumer = clientService.createClient(client("PreloadConsumer"));
+            context.getBean(OrderService.class).createOrder(
+                new OrderCreateDto("Preload Setup", supplier.getId(), consumer.getId(), new BigDecimal("990.00")));
+        }
+
+        try (ConfigurableApplicationContext context = start("sequencer", "none", "true")) {
+            assertThat(context.getBean(MeterRegistry.class).get("order.sequencer.accounts").gauge().value())
+                .isEqualTo(2);
+
+            OrderService orderService = context.getBean(OrderService.class);
+            assertThatThrownBy(() -> orderService.createOrder(
+                new OrderCreateDto("Preload Over", supplier.getId(), consumer.getId(), new BigDecimal("10.01"))))
+                .isInstanceOf(BusinessRuleException.class);
+            orderService.createOrder(
+                new OrderCreateDto("Preload Within", supplier.getId(), consumer.getId(), new BigDecimal("10.00")));
+
+            ClientService clientService = context.getBean(ClientService.class);
+            assertThat(clientService.getClientProfit(consumer.getId())).isEqualByComparingTo("-1000.00");
+            assertThat(clientService.getClientProfit(supplier.getId())).isEqualByComparingTo("1000.00");
+            assertThat(context.getBean(MeterRegistry.class).get("order.sequencer.accounts").gauge().value())
+                .isEqualTo(2);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String engine, String ddl, String preload) {
+        return new SpringApplicationBuilder(OrderManagementApplication.class)
+            .profiles("test")
+            .run("--server.port=0",
+                "--spring.datasource.url=" + DATABASE,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--audit.journal.path=target/audit-account-preload",
+                "--order.engine=" + engine,
+                "--order.sequencer.preload-accounts=" + preload);
+    }
+
+    private static ClientCreateDto client(String name) {
+        return new ClientCreateDto(name, name.toLowerCase() + "." + UUID.randomUUID() + "@test.com", "Test Address", null);
+    }
+}
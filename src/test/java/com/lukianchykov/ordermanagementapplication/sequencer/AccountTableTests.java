@@ -0,0 +1,62 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import com.lukianchykov.ordermanagementapplication.cache.ClientBalance;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountTableTests {
+
+    @Test
+    void reservesDebitsAndAppliesCreditsPerRow() {
+        AccountTable accounts = new AccountTable(4);
+        int supplier = accounts.add(new ClientBalance(7, 1_000, true, 3));
+        int consumer = accounts.add(new ClientBalance(9, -500, true, 0));
+
+        accounts.reserveDebit(consumer, 200);
+        assertThat(accounts.available(consumer)).isEqualTo(-700);
+        assertThat(accounts.committedProfit(consumer)).isEqualTo(-500);
+
+        accounts.commitDebit(consumer, 200);
+        accounts.commitCredit(supplier, 200);
+        accounts.recordOrder(supplier, 2, 5_000);
+        accounts.recordOrder(supplier, 1, 4_000);
+        assertThat(accounts.committedProfit(consumer)).isEqualTo(-700);
+        assertThat(accounts.committedProfit(supplier)).isEqualTo(1_200);
+        assertThat(accounts.lastOrderId(supplier)).isEqualTo(3);
+        assertThat(accounts.lastOrderTime(supplier)).isEqualTo(5_000);
+        assertThat(accounts.lastOrderTime(consumer)).isZero();
+
+        accounts.reserveDebit(consumer, 100);
+        accounts.releaseDebit(consumer, 100);
+        assertThat(accounts.available(consumer)).isEqualTo(-700);
+
+        accounts.hold(supplier);
+        assertThat(accounts.holds(supplier)).isOne();
+        assertThat(accounts.releaseHold(supplier)).isZero();
+        assertThat(accounts.find(42)).isEqualTo(AccountTable.NO_ROW);
+        assertThatThrownBy(() -> accounts.add(new ClientBalance(7, 0, true, 0)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rowsStayValidWhileTheTableGrows() {
+        AccountTable accounts = new AccountTable(1);
+        int first = accounts.add(new ClientBalance(1, 0, true, 0));
+        accounts.reserveDebit(first, 50);
+        for (long clientId = 2; clientId <= 100_000; clientId++) {
+            accounts.add(new ClientBalance(clientId * 31, clientId, clientId % 2 == 0, 0));
+        }
+
+        assertThat(accounts.size()).isEqualTo(100_000);
+        assertThat(accounts.find(1)).isEqualTo(first);
+        assertThat(accounts.available(first)).isEqualTo(-50);
+        for (long clientId = 2; clientId <= 100_000; clientId++) {
+            int row = accounts.find(clientId * 31);
+            assertThat(accounts.id(row)).isEqualTo(clientId * 31);
+            assertThat(accounts.available(row)).isEqualTo(clientId);
+            assertThat(accounts.active(row)).isEqualTo(clientId % 2 == 0);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NetPositionsTests {
+
+    @Test
+    void cyclesCancelAndChainsCollapse() {
+        NetPositions positions = new NetPositions(4);
+        positions.transfer(1, 2, 500);
+        positions.transfer(2, 3, 500);
+        positions.transfer(3, 1, 500);
+        positions.transfer(7, 5, 100);
+        positions.transfer(5, 9, 40);
+
+        assertThat(positions.clients()).isEqualTo(6);
+        assertThat(positions.changedClients()).containsExactly(5, 7, 9);
+        assertThat(positions.amount(5)).isEqualTo(-60);
+        assertThat(positions.amount(7)).isEqualTo(100);
+        assertThat(positions.amount(9)).isEqualTo(-40);
+        assertThat(positions.amount(1)).isZero();
+        assertThat(positions.amount(42)).isZero();
+    }
+
+    @Test
+    void growsPastTheExpectedClientsAndMatchesPerOrderUpdates() {
+        Random random = new Random(7);
+        int clients = 5_000;
+        long[] expected = new long[clients + 1];
+        NetPositions positions = new NetPositions(2);
+        for (int i = 0; i < 50_000; i++) {
+            int supplier = 1 + random.nextInt(clients);
+            int consumer = 1 + random.nextInt(clients);
+            long price = 1 + random.nextInt(10_000);
+            positions.transfer(supplier, consumer, price);
+            expected[supplier] += price;
+            expected[consumer] -= price;
+        }
+
+        long previous = 0;
+        for (long clientId : positions.changedClients()) {
+            assertThat(clientId).isGreaterThan(previous);
+            previous = clientId;
+        }
+        for (int clientId = 1; clientId <= clients; clientId++) {
+            assertThat(positions.amount(clientId)).isEqualTo(expected[clientId]);
+        }
+        assertThatThrownBy(() -> positions.add(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
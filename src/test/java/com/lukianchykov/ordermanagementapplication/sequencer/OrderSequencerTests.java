@@ -0,0 +1,266 @@
+package com.lukianchykov.ordermanagementapplication.sequencer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.lukianchykov.ordermanagementapplication.ApiFixture;
+import com.lukianchykov.ordermanagementapplication.OrderManagementApplication;
+import com.lukianchykov.ordermanagementapplication.dto.ClientResponseDto;
+import com.lukianchykov.ordermanagementapplication.repository.ClientJdbcRepository.DeactivationCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The concurrency scenarios of {@code OrderConcurrencyTests} against the sequencer engine, plus a
+ * mesh of orders between clients on different shards that must conserve the total profit and a
+ * group commit that has to isolate an order rejected by the database.
+ */
+@SpringBootTest(classes = OrderManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"order.engine=sequencer", "order.sequencer.group-commit-window-ms=20"})
+@ActiveProfiles("test")
+class OrderSequencerTests {
+
+    private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    private ApiFixture api;
+
+    @BeforeEach
+    void createFixture() {
+        api = new ApiFixture(restTemplate);
+    }
+
+    @Test
+    void duplicateOrdersBurstCreatesExactlyOneOrder() throws Exception {
+        ClientResponseDto supplier = api.createClient("SeqSupplier1");
+        ClientResponseDto consumer = api.createClient("SeqConsumer1");
+
+        List<HttpStatus> statuses = runConcurrently(5, i -> api.order("Similar Order", supplier, consumer, "1.00"));
+
+        assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        assertThat(statuses).filteredOn(HttpStatus.CONFLICT::equals).hasSize(4);
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo("-1.00");
+        assertThat(api.profitOf(supplier)).isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    void ordersNearProfitLimitNeverBreachThreshold() throws Exception {
+        ClientResponseDto supplier = api.createClient("SeqSupplier2");
+        ClientResponseDto consumer = api.createClient("SeqConsumer2");
+        assertThat(api.order("Setup Order", supplier, consumer, "970.00")).isEqualTo(HttpStatus.CREATED);
+
+        List<HttpStatus> statuses = runConcurrently(10,
+            i -> api.order("Decreasing Order " + (i + 1), supplier, consumer, String.valueOf(100 - i * 10)));
+
+        BigDecimal accepted = BigDecimal.ZERO;
+        for (int i = 0; i < statuses.size(); i++) {
+            assertThat(statuses.get(i)).isIn(HttpStatus.CREATED, HttpStatus.BAD_REQUEST);
+            if (statuses.get(i) == HttpStatus.CREATED) {
+                accepted = accepted.add(BigDecimal.valueOf(100 - i * 10L));
+            }
+        }
+
+        assertThat(accepted).isPositive().isLessThanOrEqualTo(new BigDecimal("30"));
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo(new BigDecimal("-970").subtract(accepted));
+        assertThat(api.getClient(consumer.getId()).getTotalProfit()).isEqualByComparingTo(new BigDecimal("-970").subtract(accepted));
+    }
+
+    @Test
+    void ordersAfterDeactivationAreRejectedAndProfitIsKept() throws Exception {
+        ClientResponseDto supplier = api.createClient("SeqSupplier3");
+        ClientResponseDto consumer = api.createClient("SeqConsumer3");
+
+        List<HttpStatus> statuses = runConcurrently(11, i -> {
+            if (i == 10) {
+                Thread.sleep(50);
+                return HttpStatus.valueOf(restTemplate.postForEntity("/api/clients/" + consumer.getId() + "/deactivate",
+                    null, String.class).getStatusCode().value());
+            }
+            Thread.sleep((i + 1) * 10L);
+            return api.order("Order " + (i + 1), supplier, consumer, "50.00");
+        });
+
+        assertThat(statuses.get(10)).isEqualTo(HttpStatus.OK);
+        long created = statuses.subList(0, 10).stream().filter(HttpStatus.CREATED::equals).count();
+        assertThat(api.order("Late Order", supplier, consumer, "50.00")).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        ClientResponseDto deactivated = api.getClient(consumer.getId());
+        assertThat(deactivated.getActive()).isFalse();
+        assertThat(deactivated.getTotalProfit()).isEqualByComparingTo(BigDecimal.valueOf(-50L * created));
+        assertThat(api.getClient(supplier.getId()).getTotalProfit()).isEqualByComparingTo(BigDecimal.valueOf(50L * created));
+    }
+
+    @Test
+    void noCrossShardOrderCommitsAfterItsClientIsDeactivated() throws Exception {
+        ClientResponseDto client = api.createClient("SeqDeactivated");
+        List<ClientResponseDto> partners = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            partners.add(api.createClient("SeqPartner" + i));
+        }
+
+        List<HttpStatus> statuses = runConcurrently(17, i -> {
+            if (i == 16) {
+                Thread.sleep(100);
+                return HttpStatus.valueOf(restTemplate.postForEntity("/api/clients/" + client.getId() + "/deactivate",
+                    null, String.class).getStatusCode().value());
+            }
+            HttpStatus last = HttpStatus.CREATED;
+            for (int n = 0; n < 10 && last == HttpStatus.CREATED; n++) {
+                ClientResponseDto partner = partners.get(i % partners.size());
+                last = i % 2 == 0
+                    ? api.order("Deactivation Race " + i + "-" + n, client, partner, "1.00")
+                    : api.order("Deactivation Race " + i + "-" + n, partner, client, "1.00");
+            }
+            return last;
+        });
+
+        assertThat(statuses.get(16)).isEqualTo(HttpStatus.OK);
+        LocalDateTime deactivatedAt = jdbcTemplate.queryForObject("SELECT deactivated_at FROM clients WHERE id = ?",
+            LocalDateTime.class, client.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE (supplier_id = ? OR consumer_id = ?) " +
+            "AND created_at > ?", Long.class, client.getId(), client.getId(), deactivatedAt)).isZero();
+        BigDecimal expected = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(CASE WHEN supplier_id = ? THEN price " +
+            "ELSE -price END), 0) FROM orders WHERE supplier_id = ? OR consumer_id = ?", BigDecimal.class,
+            client.getId(), client.getId(), client.getId());
+        assertThat(api.getClient(client.getId()).getTotalProfit()).isEqualByComparingTo(expected);
+    }
+
+    @Test
+    void shardRechecksDeactivationCriteriaAgainstItsAccounts() {
+        ClientResponseDto supplier = api.createClient("SeqCriteriaSupplier");
+        ClientResponseDto consumer = api.createClient("SeqCriteriaConsumer");
+        // as if the candidates had been selected before this order was committed
+        assertThat(api.order("Criteria Order", supplier, consumer, "20.00")).isEqualTo(HttpStatus.CREATED);
+
+        assertThat(orderSequencer.deactivateClients(List.of(consumer.getId()),
+            new DeactivationCriteria(LocalDateTime.now().minusHours(1), null, null))).isZero();
+        assertThat(orderSequencer.deactivateClients(List.of(consumer.getId()),
+            new DeactivationCriteria(null, BigDecimal.ZERO, null))).isZero();
+        assertThat(api.getClient(consumer.getId()).getActive()).isTrue();
+
+        assertThat(orderSequencer.deactivateClients(List.of(supplier.getId(), consumer.getId()),
+            new DeactivationCriteria(LocalDateTime.now().plusMinutes(1), null, new BigDecimal("-20.00")))).isOne();
+        assertThat(api.getClient(consumer.getId()).getActive()).isFalse();
+        assertThat(api.getClient(supplier.getId()).getActive()).isTrue();
+    }
+
+    @Test
+    void ordersAcrossShardsConserveTotalProfit() throws Exception {
+        int clientCount = 12;
+        int ordersPerThread = 15;
+        List<ClientResponseDto> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            clients.add(api.createClient("SeqMesh" + i));
+        }
+
+        List<HttpStatus> statuses = runConcurrently(clientCount, i -> {
+            HttpStatus last = HttpStatus.CREATED;
+            for (int n = 0; n < ordersPerThread && last == HttpStatus.CREATED; n++) {
+                ClientResponseDto supplier = clients.get(i);
+                ClientResponseDto consumer = clients.get((i + 1 + n % (clientCount - 1)) % clientCount);
+                last = api.order("Mesh " + i + "-" + n, supplier, consumer, "3.00");
+            }
+            return last;
+        });
+
+        assertThat(statuses).allMatch(HttpStatus.CREATED::equals);
+        BigDecimal cached = BigDecimal.ZERO;
+        BigDecimal stored = BigDecimal.ZERO;
+        for (ClientResponseDto client : clients) {
+            BigDecimal profit = api.profitOf(client);
+            assertThat(api.getClient(client.getId()).getTotalProfit()).isEqualByComparingTo(profit);
+            cached = cached.add(profit);
+            stored = stored.add(api.getClient(client.getId()).getTotalProfit());
+        }
+        assertThat(cached).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(stored).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void failingOrderDoesNotFailItsGroup() throws Exception {
+        ClientResponseDto supplier = api.createClient("SeqGroupSupplier");
+        ClientResponseDto consumer = api.createClient("SeqGroupConsumer");
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO orders (name, supplier_id, consumer_id, price, processing_start_time, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", "Imported Order", supplier.getId(), consumer.getId(), new BigDecimal("5.00"), now, now);
+
+        List<HttpStatus> statuses = runConcurrently(8, i -> i == 0
+            ? api.order("Imported Order", supplier, consumer, "5.00")
+            : api.order("Grouped Order " + i, supplier, consumer, "5.00"));
+
+        assertThat(statuses.get(0)).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(statuses.subList(1, 8)).allMatch(HttpStatus.CREATED::equals);
+        assertThat(api.profitOf(consumer)).isEqualByComparingTo("-35.00");
+        assertThat(api.getClient(consumer.getId()).getTotalProfit()).isEqualByComparingTo("-35.00");
+        assertThat(api.getClient(supplier.getId()).getTotalProfit()).isEqualByComparingTo("35.00");
+    }
+
+    @Test
+    void opposingOrdersOnHotPairDoNotLoseUpdates() throws Exception {
+        ClientResponseDto first = api.createClient("SeqHotFirst");
+        ClientResponseDto second = api.createClient("SeqHotSecond");
+
+        List<HttpStatus> statuses = runConcurrently(40, i -> i % 2 == 0
+            ? api.order("Hot " + i, first, second, "1.00")
+            : api.order("Hot " + i, second, first, "2.00"));
+
+        assertThat(statuses).allMatch(HttpStatus.CREATED::equals);
+        assertThat(api.profitOf(first)).isEqualByComparingTo("-20.00");
+        assertThat(api.profitOf(second)).isEqualByComparingTo("20.00");
+        assertThat(api.getClient(first.getId()).getTotalProfit()).isEqualByComparingTo("-20.00");
+    }
+
+    private interface Task {
+        HttpStatus run(int index) throws Exception;
+    }
+
+    private List<HttpStatus> runConcurrently(int count, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try {
+            List<Future<HttpStatus>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                Callable<HttpStatus> call = () -> {
+                    startLatch.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(call));
+            }
+            startLatch.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> future : futures) {
+                statuses.add(future.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}